@@ -0,0 +1,48 @@
+package com.example.redisdemo;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+/**
+ * The application context wired to an in-process RESP stand-in, so benchmarks measure the client
+ * side of the hot paths without network jitter or a Redis server to provision.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private final RedisStandInServer standIn;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(RedisStandInServer standIn, ConfigurableApplicationContext context) {
+        this.standIn = standIn;
+        this.context = context;
+    }
+
+    static BenchmarkContext start(String... properties) throws IOException {
+        RedisStandInServer standIn = new RedisStandInServer();
+        // Passed as command-line arguments so they take precedence over application.properties.
+        String[] args = new String[properties.length + 3];
+        args[0] = "--spring.data.redis.host=localhost";
+        args[1] = "--spring.data.redis.port=" + standIn.getPort();
+        args[2] = "--logging.level.root=WARN";
+        for (int i = 0; i < properties.length; i++) {
+            args[i + 3] = "--" + properties[i];
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RedisDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+        return new BenchmarkContext(standIn, context);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        standIn.close();
+    }
+}
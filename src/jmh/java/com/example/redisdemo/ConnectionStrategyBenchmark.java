@@ -0,0 +1,98 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.RedisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection strategies under 8 concurrent callers: small keys only, large values only, and a
+ * mixed group where 2 threads read 256KB values while 6 read small ones. On a single shared
+ * connection the small reads queue behind the large replies; the mixed group shows how much of
+ * that the pool or the extra multiplexed connections win back. Run it on hardware like the
+ * deployment's, with -PjmhIncludes=ConnectionStrategyBenchmark: the ranking depends on the
+ * number of cores and on the real network round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConnectionStrategyBenchmark {
+
+    private static final int KEYS = 1000;
+    private static final int LARGE_KEYS = 16;
+
+    @Param({"shared", "pooled", "multiplexed"})
+    private String strategy;
+
+    private BenchmarkContext context;
+    private RedisService redisService;
+    private String largeValue;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start("app.redis.connection.strategy=" + strategy,
+                "app.redis.connection.connections=4",
+                "spring.data.redis.lettuce.pool.max-active=8",
+                "spring.data.redis.lettuce.pool.max-idle=8",
+                "app.redis.single-flight.enabled=false");
+        redisService = context.getBean(RedisService.class);
+        largeValue = "x".repeat(256 * 1024);
+        for (int i = 0; i < KEYS; i++) {
+            redisService.set("small:" + i, "value-" + i, 1, TimeUnit.HOURS);
+        }
+        for (int i = 0; i < LARGE_KEYS; i++) {
+            redisService.set("large:" + i, largeValue, 1, TimeUnit.HOURS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ValueWithTtl smallGet() {
+        return redisService.getWithTtl("small:" + ThreadLocalRandom.current().nextInt(KEYS));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void smallSet() {
+        redisService.set("small:" + ThreadLocalRandom.current().nextInt(KEYS), "value", 1, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ValueWithTtl largeGet() {
+        return redisService.getWithTtl("large:" + ThreadLocalRandom.current().nextInt(LARGE_KEYS));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public ValueWithTtl mixedSmallGet() {
+        return smallGet();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public ValueWithTtl mixedLargeGet() {
+        return largeGet();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.controller.RedisController;
+import com.example.redisdemo.dto.RedisBatchRequest;
+import com.example.redisdemo.dto.RedisRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller methods plus the JSON encoding of their response body with the application's
+ * ObjectMapper, i.e. everything on the request path except HTTP parsing and the socket write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ControllerBenchmark {
+
+    private BenchmarkContext context;
+    private RedisController controller;
+    private ObjectMapper objectMapper;
+    private RedisRequest setRequest;
+    private RedisBatchRequest batchRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        controller = context.getBean(RedisController.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        setRequest = new RedisRequest(SerializerBenchmark.item(1), 1, TimeUnit.HOURS);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            controller.setValue("bench:" + i, setRequest, false, null);
+            keys.add("bench:" + i);
+        }
+        batchRequest = new RedisBatchRequest(keys);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getValue() throws IOException {
+        return objectMapper.writeValueAsBytes(controller.getValue("bench:1").getBody());
+    }
+
+    @Benchmark
+    public byte[] setValue() throws IOException {
+        return objectMapper.writeValueAsBytes(controller.setValue("bench:1", setRequest, false, null).getBody());
+    }
+
+    @Benchmark
+    public byte[] batchGet100() throws IOException {
+        return objectMapper.writeValueAsBytes(controller.batchGet(batchRequest).getBody());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.RedisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisService read and write paths against the stand-in. Each call is a full round trip over
+ * loopback, so the numbers include Lettuce encoding, the event loop hand-off and serialization.
+ * The memory store runs the same calls in-process, as a baseline without any network or RESP cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RedisServiceBenchmark {
+
+    private static final int KEYS = 1000;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"redis", "memory"})
+    private String store;
+
+    private BenchmarkContext context;
+    private RedisService redisService;
+    private Object value;
+    private List<String> batchKeys;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start("app.redis.serializer.format=" + format, "app.redis.store=" + store);
+        redisService = context.getBean(RedisService.class);
+        value = SerializerBenchmark.item(1);
+        for (int i = 0; i < KEYS; i++) {
+            redisService.set(key(i), value, 1, TimeUnit.HOURS);
+        }
+        batchKeys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batchKeys.add(key(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        return redisService.get(nextKey());
+    }
+
+    @Benchmark
+    public ValueWithTtl getWithTtl() {
+        return redisService.getWithTtl(nextKey());
+    }
+
+    @Benchmark
+    public long setAndGetTtl() {
+        return redisService.setAndGetTtl(nextKey(), value, 1, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public boolean expire() {
+        return redisService.expire(nextKey(), 1, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public Map<String, ValueWithTtl> multiGetWithTtl100() {
+        return redisService.multiGetWithTtl(batchKeys);
+    }
+
+    private String nextKey() {
+        next = (next + 1) % KEYS;
+        return key(next);
+    }
+
+    private static String key(int i) {
+        return "bench:" + i;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.config.CompressingRedisSerializer;
+import com.example.redisdemo.config.RedisValueSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value serializers from {@code RedisConfig}, per format, compression setting and value shape.
+ * Serialized sizes are printed by {@code RedisValueSerializerTest}'s opt-in benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializerBenchmark {
+
+    @Param({"JSON", "SMILE"})
+    private RedisValueSerializer.Format format;
+
+    @Param({"string", "object", "list", "document"})
+    private String shape;
+
+    @Param({"false", "true"})
+    private boolean compression;
+
+    private CompressingRedisSerializer serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = new CompressingRedisSerializer(new RedisValueSerializer(format), compression, 4096);
+        value = switch (shape) {
+            case "string" -> "value-1234567890";
+            case "object" -> item(1);
+            case "list" -> items(10);
+            default -> document();
+        };
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole blackhole) {
+        blackhole.consume(serializer.deserialize(bytes));
+    }
+
+    static Map<String, Object> item(int id) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", id);
+        item.put("name", "item-" + id);
+        item.put("description", "A product description that repeats the same vocabulary across items");
+        item.put("price", id * 1.5);
+        item.put("tags", new ArrayList<>(List.of("redis", "cache", "demo")));
+        return item;
+    }
+
+    // Mutable collections only: the serializers drop type hints for the JDK's final immutable ones.
+    static Map<String, Object> document() {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("title", "catalog");
+        document.put("items", items(300));
+        return document;
+    }
+
+    static List<Object> items(int count) {
+        List<Object> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item(i));
+        }
+        return items;
+    }
+}
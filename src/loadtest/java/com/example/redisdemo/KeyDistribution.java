@@ -0,0 +1,77 @@
+package com.example.redisdemo;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks key indexes in {@code [0, keys)} either uniformly or from a Zipfian distribution, where a
+ * handful of low indexes take most of the traffic the way hot keys do in production caches.
+ */
+abstract class KeyDistribution {
+
+    abstract int next();
+
+    static KeyDistribution of(String name, int keys, double exponent) {
+        return switch (name) {
+            case "uniform" -> new Uniform(keys);
+            case "zipfian" -> new Zipfian(keys, exponent);
+            default -> throw new IllegalArgumentException("Unknown key distribution: " + name + " (uniform or zipfian)");
+        };
+    }
+
+    private static final class Uniform extends KeyDistribution {
+
+        private final int keys;
+
+        Uniform(int keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        int next() {
+            return ThreadLocalRandom.current().nextInt(keys);
+        }
+    }
+
+    // Gray et al., "Quickly Generating Billion-Record Synthetic Databases" (the YCSB generator):
+    // O(n) setup for zeta(n), then O(1) per draw.
+    private static final class Zipfian extends KeyDistribution {
+
+        private final int keys;
+        private final double theta;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+
+        Zipfian(int keys, double theta) {
+            if (theta <= 0 || theta >= 1) {
+                throw new IllegalArgumentException("Zipfian exponent must be between 0 and 1: " + theta);
+            }
+            this.keys = keys;
+            this.theta = theta;
+            this.zetaN = zeta(keys, theta);
+            this.alpha = 1 / (1 - theta);
+            this.eta = (1 - Math.pow(2.0 / keys, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        }
+
+        @Override
+        int next() {
+            double u = ThreadLocalRandom.current().nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, theta)) {
+                return Math.min(1, keys - 1);
+            }
+            return Math.min((int) (keys * Math.pow(eta * u - eta + 1, alpha)), keys - 1);
+        }
+
+        private static double zeta(int n, double theta) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.redisdemo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per operation, in microseconds. The corrected histogram measures from the
+ * moment a request was scheduled to be sent, so time spent queued behind a stalled server counts
+ * as latency (no coordinated omission); the uncorrected one measures from the actual send.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, OperationStats> operations = new LinkedHashMap<>();
+
+    LoadReport(Iterable<String> operationNames) {
+        for (String name : operationNames) {
+            operations.put(name, new OperationStats());
+        }
+    }
+
+    OperationStats get(String operation) {
+        return operations.get(operation);
+    }
+
+    void print(double seconds) {
+        System.out.printf("%-10s %10s %10s %9s %9s %9s %9s %9s %12s %7s%n",
+                "operation", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "p99 uncorr", "errors");
+        operations.forEach((name, stats) -> print(name, stats, seconds));
+        print("total", total(), seconds);
+    }
+
+    private static void print(String name, OperationStats stats, double seconds) {
+        Histogram h = stats.corrected;
+        System.out.printf("%-10s %10d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f %7d%n",
+                name, h.getTotalCount(), h.getTotalCount() / seconds,
+                millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1000.0,
+                millis(stats.uncorrected, 99), stats.errors.sum());
+    }
+
+    void write(File file, Map<String, Object> config, double seconds) throws IOException {
+        Map<String, Object> results = new LinkedHashMap<>();
+        operations.forEach((name, stats) -> results.put(name, toMap(stats, seconds)));
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("config", config);
+        document.put("operations", results);
+        document.put("total", toMap(total(), seconds));
+        file.getParentFile().mkdirs();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, document);
+    }
+
+    /**
+     * Returns the reasons this run fails the gate: an error rate, an absolute corrected p99 budget,
+     * or a corrected p99 regression against a baseline results file. Regressions below
+     * {@code noiseFloorMillis} are ignored, since sub-millisecond percentiles jitter run to run.
+     */
+    List<String> check(double maxErrorRate, double maxP99Millis, File baseline, double maxRegressionPercent,
+                       double noiseFloorMillis) throws IOException {
+        List<String> failures = new ArrayList<>();
+        OperationStats total = total();
+        long requests = total.corrected.getTotalCount() + total.errors.sum();
+        double errorRate = requests == 0 ? 0 : (double) total.errors.sum() / requests;
+        if (errorRate > maxErrorRate) {
+            failures.add(String.format("error rate %.4f exceeds %.4f", errorRate, maxErrorRate));
+        }
+        if (maxP99Millis > 0 && millis(total.corrected, 99) > maxP99Millis) {
+            failures.add(String.format("total p99 %.2f ms exceeds %.2f ms", millis(total.corrected, 99), maxP99Millis));
+        }
+        if (baseline != null) {
+            Map<?, ?> before = (Map<?, ?>) new ObjectMapper().readValue(baseline, Map.class).get("operations");
+            operations.forEach((name, stats) -> {
+                Map<?, ?> previous = before == null ? null : (Map<?, ?>) before.get(name);
+                if (previous == null || stats.corrected.getTotalCount() == 0) {
+                    return;
+                }
+                double was = ((Number) ((Map<?, ?>) previous.get("corrected")).get("p99")).doubleValue();
+                double now = millis(stats.corrected, 99);
+                System.out.printf("%-10s p99 %9.2f -> %9.2f ms%n", name, was, now);
+                if (now - was > noiseFloorMillis && was > 0 && (now - was) / was * 100 > maxRegressionPercent) {
+                    failures.add(String.format("%s p99 %.2f ms is more than %.0f%% above baseline %.2f ms",
+                            name, now, maxRegressionPercent, was));
+                }
+            });
+        }
+        return failures;
+    }
+
+    private OperationStats total() {
+        OperationStats total = new OperationStats();
+        for (OperationStats stats : operations.values()) {
+            total.corrected.add(stats.corrected);
+            total.uncorrected.add(stats.uncorrected);
+            total.errors.add(stats.errors.sum());
+        }
+        return total;
+    }
+
+    private static Map<String, Object> toMap(OperationStats stats, double seconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", stats.corrected.getTotalCount());
+        result.put("errors", stats.errors.sum());
+        result.put("throughput", stats.corrected.getTotalCount() / seconds);
+        result.put("corrected", percentiles(stats.corrected));
+        result.put("uncorrected", percentiles(stats.uncorrected));
+        return result;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            result.put("p" + (percentile == (long) percentile ? String.valueOf((long) percentile) : String.valueOf(percentile)),
+                    millis(histogram, percentile));
+        }
+        result.put("max", histogram.getMaxValue() / 1000.0);
+        result.put("unit", "ms");
+        return result;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    static final class OperationStats {
+
+        final Histogram corrected = new ConcurrentHistogram(3);
+        final Histogram uncorrected = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+
+        void record(long intendedNanos, long sentNanos, long completedNanos) {
+            corrected.recordValue(Math.max(1, (completedNanos - intendedNanos) / 1000));
+            uncorrected.recordValue(Math.max(1, (completedNanos - sentNanos) / 1000));
+        }
+    }
+}
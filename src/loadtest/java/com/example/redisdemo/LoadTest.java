@@ -0,0 +1,311 @@
+package com.example.redisdemo;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the {@code /api/redis} endpoints: requests are sent on a fixed
+ * schedule whether or not earlier ones have completed, the way independent users arrive, so a slow
+ * server builds a queue instead of slowing the generator down. Latency is measured from each
+ * request's scheduled send time (see {@link LoadReport}).
+ *
+ * <p>Without {@code loadtest.target} it starts the application on a random port backed by the
+ * in-process Redis stand-in, on the stack named by {@code loadtest.stack}: {@code servlet} (Tomcat,
+ * the default), {@code virtual} (Tomcat on virtual threads, Java 21) or {@code reactive} (WebFlux
+ * on Netty), so the stacks can be compared at the same rate. Every setting is a
+ * {@code loadtest.*} system property; the {@code loadTest} Gradle task forwards {@code -Ploadtest.*} project properties. The process exits
+ * with status 1 when the run fails its gate, so the same task can guard CI.
+ */
+public final class LoadTest {
+
+    private final String target = setting("target", "");
+    private final String stack = setting("stack", "servlet");
+    private final int rate = Integer.parseInt(setting("rate", "1000"));
+    private final int warmupSeconds = Integer.parseInt(setting("warmup", "5"));
+    private final int durationSeconds = Integer.parseInt(setting("duration", "30"));
+    private final int reportIntervalSeconds = Integer.parseInt(setting("report-interval", "10"));
+    private final String mix = setting("mix", "get=60,set=25,ttl=5,exists=5,batch_get=3,delete=2");
+    private final int keys = Integer.parseInt(setting("keys", "10000"));
+    private final String distribution = setting("distribution", "zipfian");
+    private final double zipfExponent = Double.parseDouble(setting("zipf-exponent", "0.99"));
+    private final int valueSize = Integer.parseInt(setting("value-size", "256"));
+    private final int batchSize = Integer.parseInt(setting("batch-size", "10"));
+    private final int maxInFlight = Integer.parseInt(setting("max-in-flight", "10000"));
+    private final long redisLatencyMicros = Long.parseLong(setting("redis-latency-us", "0"));
+    private final String results = setting("results", "build/results/loadtest/results.json");
+    private final double maxErrorRate = Double.parseDouble(setting("max-error-rate", "0.001"));
+    private final double maxP99Millis = Double.parseDouble(setting("max-p99-ms", "0"));
+    private final String baseline = setting("baseline", "");
+    private final double maxRegression = Double.parseDouble(setting("max-regression", "25"));
+    private final double noiseFloorMillis = Double.parseDouble(setting("noise-floor-ms", "1"));
+
+    private final KeyDistribution keyDistribution = KeyDistribution.of(distribution, keys, zipfExponent);
+    private final String[] operations = new String[100];
+    private final List<String> operationNames = new ArrayList<>();
+    private final String valueBody;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final Recorder interval = new Recorder(3);
+
+    private HttpClient client;
+    private String baseUrl;
+
+    private LoadTest() {
+        if (!List.of("servlet", "virtual", "reactive").contains(stack)) {
+            throw new IllegalArgumentException("Unknown stack: " + stack);
+        }
+        parseMix();
+        valueBody = "{\"value\":\"" + "x".repeat(valueSize) + "\"}";
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new LoadTest().run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        RedisStandInServer standIn = null;
+        ConfigurableApplicationContext context = null;
+        ExecutorService responseExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        try {
+            if (target.isEmpty()) {
+                standIn = new RedisStandInServer(0, redisLatencyMicros, TimeUnit.MICROSECONDS);
+                // Command-line arguments, so they win over application.properties.
+                List<String> args = new ArrayList<>(List.of(
+                        "--server.port=0",
+                        "--spring.data.redis.host=localhost",
+                        "--spring.data.redis.port=" + standIn.getPort(),
+                        "--server.tomcat.max-connections=" + (maxInFlight * 2),
+                        "--server.tomcat.threads.max=400",
+                        "--logging.level.root=WARN"));
+                if (stack.equals("virtual")) {
+                    args.add("--spring.threads.virtual.enabled=true");
+                } else if (stack.equals("reactive")) {
+                    args.add("--spring.profiles.active=reactive");
+                }
+                context = new SpringApplicationBuilder(RedisDemoApplication.class).run(args.toArray(new String[0]));
+                baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/redis/";
+            } else {
+                baseUrl = target.endsWith("/") ? target : target + "/";
+            }
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(responseExecutor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            populate();
+            System.out.printf("open model: %d req/s for %ds after %ds warmup, mix %s, %d %s keys, %d-byte values, target %s (%s)%n",
+                    rate, durationSeconds, warmupSeconds, mix, keys, distribution, valueSize, baseUrl,
+                    target.isEmpty() ? stack + " stack" : "external");
+
+            LoadReport report = new LoadReport(operationNames);
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+            generate(report, start, measureFrom, end);
+            awaitInFlight();
+
+            System.out.println();
+            report.print(durationSeconds);
+            if (dropped.sum() > 0) {
+                System.out.printf("dropped %d requests over the %d in-flight limit%n", dropped.sum(), maxInFlight);
+            }
+            File resultsFile = new File(results);
+            report.write(resultsFile, config(), durationSeconds);
+            System.out.println("results written to " + resultsFile.getAbsolutePath());
+
+            List<String> failures = report.check(maxErrorRate, maxP99Millis,
+                    baseline.isEmpty() ? null : new File(baseline), maxRegression, noiseFloorMillis);
+            if (dropped.sum() > 0) {
+                failures.add(dropped.sum() + " requests dropped over the in-flight limit");
+            }
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            return failures.isEmpty();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (standIn != null) {
+                standIn.close();
+            }
+            responseExecutor.shutdownNow();
+        }
+    }
+
+    // A single thread issues every request at its scheduled time. Sending is asynchronous, so the
+    // schedule never waits on the server; when the thread itself falls behind it catches up
+    // immediately and the backlog shows up in the corrected latencies.
+    private void generate(LoadReport report, long start, long measureFrom, long end) {
+        double intervalNanos = 1e9 / rate;
+        long nextReport = measureFrom + TimeUnit.SECONDS.toNanos(reportIntervalSeconds);
+        Histogram intervalHistogram = null;
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(report, intended, intended >= measureFrom);
+            if (intended >= nextReport) {
+                intervalHistogram = interval.getIntervalHistogram(intervalHistogram);
+                System.out.printf("t=%4ds %8.0f req/s  p50 %7.2f ms  p99 %7.2f ms  max %8.2f ms  in flight %d%n",
+                        TimeUnit.NANOSECONDS.toSeconds(intended - measureFrom),
+                        intervalHistogram.getTotalCount() / (double) reportIntervalSeconds,
+                        intervalHistogram.getValueAtPercentile(50) / 1000.0,
+                        intervalHistogram.getValueAtPercentile(99) / 1000.0,
+                        intervalHistogram.getMaxValue() / 1000.0,
+                        inFlight.get());
+                nextReport += TimeUnit.SECONDS.toNanos(reportIntervalSeconds);
+            }
+        }
+    }
+
+    private void send(LoadReport report, long intended, boolean measured) {
+        String operation = operations[ThreadLocalRandom.current().nextInt(operations.length)];
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+        long sent = System.nanoTime();
+        client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long completed = System.nanoTime();
+                    inFlight.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    LoadReport.OperationStats stats = report.get(operation);
+                    // GET on a key that was deleted earlier in the run is a miss, not an error.
+                    if (error != null || (response.statusCode() >= 400 && response.statusCode() != 404)) {
+                        stats.errors.increment();
+                        return;
+                    }
+                    stats.record(intended, sent, completed);
+                    interval.recordValue(Math.max(1, (completed - intended) / 1000));
+                });
+    }
+
+    private HttpRequest request(String operation) {
+        String key = key(keyDistribution.next());
+        return switch (operation) {
+            case "get" -> HttpRequest.newBuilder(URI.create(baseUrl + key)).GET().build();
+            case "set" -> json(baseUrl + key, valueBody);
+            case "ttl" -> HttpRequest.newBuilder(URI.create(baseUrl + key + "/ttl")).GET().build();
+            case "exists" -> HttpRequest.newBuilder(URI.create(baseUrl + key + "/exists")).GET().build();
+            case "delete" -> HttpRequest.newBuilder(URI.create(baseUrl + key)).DELETE().build();
+            case "batch_get" -> {
+                StringBuilder body = new StringBuilder("{\"keys\":[");
+                for (int i = 0; i < batchSize; i++) {
+                    body.append(i == 0 ? "\"" : ",\"").append(key(keyDistribution.next())).append('"');
+                }
+                yield json(baseUrl + "batch/get", body.append("]}").toString());
+            }
+            default -> throw new IllegalStateException(operation);
+        };
+    }
+
+    // Writes every key once through the batch endpoint so reads hit from the first request.
+    private void populate() throws Exception {
+        int chunk = 500;
+        for (int from = 0; from < keys; from += chunk) {
+            StringBuilder body = new StringBuilder("{\"entries\":{");
+            for (int i = from; i < Math.min(from + chunk, keys); i++) {
+                body.append(i == from ? "\"" : ",\"").append(key(i)).append("\":").append(valueBody);
+            }
+            HttpResponse<Void> response = client.send(json(baseUrl + "batch", body.append("}}").toString()),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException("Populating keys failed with HTTP " + response.statusCode());
+            }
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    // The mix is expanded into 100 slots, so picking a random slot picks an operation by weight.
+    private void parseMix() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (!List.of("get", "set", "ttl", "exists", "delete", "batch_get").contains(pair[0])) {
+                throw new IllegalArgumentException("Unknown operation in mix: " + pair[0]);
+            }
+            weights.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (total != 100) {
+            throw new IllegalArgumentException("Mix weights must add up to 100: " + mix);
+        }
+        int slot = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() > 0) {
+                operationNames.add(entry.getKey());
+            }
+            for (int i = 0; i < entry.getValue(); i++) {
+                operations[slot++] = entry.getKey();
+            }
+        }
+    }
+
+    private Map<String, Object> config() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("rate", rate);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("mix", mix);
+        config.put("keys", keys);
+        config.put("distribution", distribution);
+        config.put("valueSize", valueSize);
+        config.put("target", target.isEmpty() ? "stand-in" : target);
+        config.put("stack", target.isEmpty() ? stack : "external");
+        config.put("dropped", dropped.sum());
+        return config;
+    }
+
+    private static HttpRequest json(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String key(int index) {
+        return "loadtest:" + index;
+    }
+
+    private static String setting(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
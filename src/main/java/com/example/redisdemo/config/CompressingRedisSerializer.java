@@ -0,0 +1,151 @@
+package com.example.redisdemo.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Wraps the value serializer and Deflate-compresses values at or above a size threshold.
+ * Compressed values are written as a header byte, the uncompressed length and the raw Deflate
+ * stream; everything else is stored exactly as the delegate wrote it. Reads always inflate
+ * compressed values, so compression can be switched on or off without rewriting the keyspace.
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    // Neither JSON text nor the Smile header can start with this byte.
+    static final byte DEFLATE_HEADER = 0x02;
+
+    private static final int HEADER_LENGTH = 5;
+    private static final int MAX_UNCOMPRESSED_LENGTH = 512 * 1024 * 1024;
+
+    private final RedisSerializer<Object> delegate;
+    private final boolean enabled;
+    private final int threshold;
+
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder incompressible = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressed = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, boolean enabled, int threshold) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (!enabled || bytes == null || bytes.length < threshold) {
+            skipped.increment();
+            return bytes;
+        }
+        long start = System.nanoTime();
+        byte[] result = compress(bytes);
+        compressNanos.add(System.nanoTime() - start);
+        if (result == null) {
+            incompressible.increment();
+            return bytes;
+        }
+        compressed.increment();
+        bytesIn.add(bytes.length);
+        bytesOut.add(result.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != DEFLATE_HEADER) {
+            return delegate.deserialize(bytes);
+        }
+        long start = System.nanoTime();
+        byte[] inflated = decompress(bytes);
+        decompressNanos.add(System.nanoTime() - start);
+        decompressed.increment();
+        return delegate.deserialize(inflated);
+    }
+
+    public Map<String, Object> stats() {
+        long count = compressed.sum();
+        long attempts = count + incompressible.sum();
+        long in = bytesIn.sum();
+        long out = bytesOut.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("threshold", threshold);
+        result.put("compressed", count);
+        result.put("skipped", skipped.sum());
+        result.put("incompressible", incompressible.sum());
+        result.put("bytesIn", in);
+        result.put("bytesOut", out);
+        result.put("ratio", out == 0 ? 0.0 : (double) in / out);
+        result.put("avgCompressMicros", attempts == 0 ? 0.0 : compressNanos.sum() / 1000.0 / attempts);
+        result.put("decompressed", decompressed.sum());
+        result.put("avgDecompressMicros", decompressed.sum() == 0 ? 0.0 : decompressNanos.sum() / 1000.0 / decompressed.sum());
+        return result;
+    }
+
+    // Returns null when compression would not make the value smaller.
+    private static byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] out = new byte[bytes.length];
+            out[0] = DEFLATE_HEADER;
+            out[1] = (byte) (bytes.length >>> 24);
+            out[2] = (byte) (bytes.length >>> 16);
+            out[3] = (byte) (bytes.length >>> 8);
+            out[4] = (byte) bytes.length;
+            int length = HEADER_LENGTH;
+            while (!deflater.finished() && length < out.length) {
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            return deflater.finished() ? Arrays.copyOf(out, length) : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Compressed value is truncated");
+        }
+        int length = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16) | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+        if (length < 0 || length > MAX_UNCOMPRESSED_LENGTH) {
+            throw new SerializationException("Compressed value has an invalid length: " + length);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            byte[] out = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(out, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new SerializationException("Compressed value is truncated");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Could not inflate value: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
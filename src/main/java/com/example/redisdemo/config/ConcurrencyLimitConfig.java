@@ -0,0 +1,47 @@
+package com.example.redisdemo.config;
+
+import com.example.redisdemo.controller.ConcurrencyLimitInterceptor;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Adaptive concurrency limit on the servlet API. Health, stats, the streaming key scan, the raw
+ * endpoints and cache-aside are left out: the first two must answer under overload, the streaming
+ * responses run for as long as the client reads, and a cache-aside miss waits on the origin or on
+ * another node's load, so none of their latencies say anything about Redis. Requests count as
+ * dropped on the same Redis outages the circuit breaker counts.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.redis.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(MeterRegistry meterRegistry,
+                                                        @Value("${app.redis.limiter.initial-limit:100}") int initialLimit,
+                                                        @Value("${app.redis.limiter.min-limit:20}") int minLimit,
+                                                        @Value("${app.redis.limiter.max-limit:1000}") int maxLimit,
+                                                        @Value("${app.redis.limiter.write-share:0.75}") double writeShare) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, writeShare, meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer concurrencyLimitConfigurer(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ConcurrencyLimitInterceptor(concurrencyLimiter, RedisResilienceConfig::isOutage))
+                        .addPathPatterns("/api/redis/**")
+                        .excludePathPatterns("/api/redis/health", "/api/redis/stats/**", "/api/redis/keys", "/api/redis/raw/**",
+                                "/api/redis/cache/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.redisdemo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Times the value serializer chain (format plus compression) so serialization cost can be told
+ * apart from the Redis round trip, which Lettuce's command latency timers cover.
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final Timer serializeTimer;
+    private final Timer deserializeTimer;
+    private final DistributionSummary valueSize;
+    private final IntConsumer sizeListener;
+
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, MeterRegistry meterRegistry) {
+        this(delegate, meterRegistry, bytes -> { });
+    }
+
+    // sizeListener sees the serialized size of every value written or read.
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, MeterRegistry meterRegistry, IntConsumer sizeListener) {
+        this.delegate = delegate;
+        this.sizeListener = sizeListener;
+        this.serializeTimer = Timer.builder("redis.serialization")
+                .description("Value serialization time, including compression")
+                .tag("operation", "serialize")
+                .register(meterRegistry);
+        this.deserializeTimer = Timer.builder("redis.serialization")
+                .description("Value serialization time, including compression")
+                .tag("operation", "deserialize")
+                .register(meterRegistry);
+        this.valueSize = DistributionSummary.builder("redis.value.size")
+                .description("Serialized size of written values")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        long start = System.nanoTime();
+        byte[] bytes = delegate.serialize(value);
+        serializeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (bytes != null) {
+            valueSize.record(bytes.length);
+            sizeListener.accept(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null) {
+            return null;
+        }
+        sizeListener.accept(bytes.length);
+        long start = System.nanoTime();
+        Object value = delegate.deserialize(bytes);
+        deserializeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return value;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.redisdemo.config;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionProvider;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spreads commands over a fixed set of multiplexed connections instead of one. Each connection
+ * handed out by {@link #getConnection()} is backed by the next native connection in round-robin
+ * order, so a large value or a slow reply holds up only the commands queued behind it on its own
+ * connection. The first native connection is the factory's usual shared one; the others are
+ * opened from the same connection provider on first use. Blocking commands and transactions still
+ * get a dedicated connection, as with the shared factory.
+ */
+public class MultiplexedLettuceConnectionFactory extends LettuceConnectionFactory {
+
+    private final AtomicReferenceArray<StatefulRedisConnection<byte[], byte[]>> connections;
+    private final AtomicInteger next = new AtomicInteger();
+    // Opening a connection blocks, so a lock rather than synchronized keeps virtual threads unpinned.
+    private final ReentrantLock lock = new ReentrantLock();
+    private LettuceConnectionProvider provider;
+
+    public MultiplexedLettuceConnectionFactory(RedisStandaloneConfiguration standaloneConfig,
+                                               LettuceClientConfiguration clientConfig, int connections) {
+        super(standaloneConfig, clientConfig);
+        this.connections = new AtomicReferenceArray<>(Math.max(1, connections));
+    }
+
+    public int getConnectionCount() {
+        return connections.length();
+    }
+
+    @Override
+    protected LettuceConnection doCreateLettuceConnection(StatefulRedisConnection<byte[], byte[]> sharedConnection,
+                                                          LettuceConnectionProvider connectionProvider, long timeout, int database) {
+        if (sharedConnection == null) {
+            return super.doCreateLettuceConnection(null, connectionProvider, timeout, database);
+        }
+        int slot = Math.floorMod(next.getAndIncrement(), connections.length());
+        StatefulRedisConnection<byte[], byte[]> connection = slot == 0 ? sharedConnection : connection(slot, connectionProvider);
+        return super.doCreateLettuceConnection(connection, connectionProvider, timeout, database);
+    }
+
+    @Override
+    public void stop() {
+        releaseConnections();
+        super.stop();
+    }
+
+    @Override
+    public void destroy() {
+        releaseConnections();
+        super.destroy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private StatefulRedisConnection<byte[], byte[]> connection(int slot, LettuceConnectionProvider connectionProvider) {
+        StatefulRedisConnection<byte[], byte[]> connection = connections.get(slot);
+        if (connection != null) {
+            return connection;
+        }
+        lock.lock();
+        try {
+            connection = connections.get(slot);
+            // Once opened a connection is kept; Lettuce reconnects it like the shared one.
+            if (connection == null) {
+                provider = connectionProvider;
+                connection = connectionProvider.getConnection(StatefulRedisConnection.class);
+                connections.set(slot, connection);
+            }
+            return connection;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseConnections() {
+        lock.lock();
+        try {
+            for (int slot = 1; slot < connections.length(); slot++) {
+                StatefulRedisConnection<byte[], byte[]> connection = connections.getAndSet(slot, null);
+                if (connection != null) {
+                    provider.release(connection);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.redisdemo.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked for the
+    // reactive stack too; Netty serves every connection from a small fixed set of event-loop threads.
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
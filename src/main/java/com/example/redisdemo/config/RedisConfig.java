@@ -1,27 +1,171 @@
 package com.example.redisdemo.config;
 
+import com.example.redisdemo.service.HotKeyTracker;
+import com.example.redisdemo.service.RedisService;
+import com.example.redisdemo.service.WriteBehindBuffer;
+import com.example.redisdemo.store.InMemoryKeyValueStore;
+import com.example.redisdemo.store.RedisKeyValueStore;
+import com.example.redisdemo.store.RedisScriptRegistry;
+import com.example.redisdemo.store.ShardedKeyValueStore;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Configuration
 public class RedisConfig {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisValueSerializer redisValueSerializer(@Value("${app.redis.serializer.format:json}") RedisValueSerializer.Format format) {
+        return new RedisValueSerializer(format);
+    }
+
+    @Bean
+    public CompressingRedisSerializer compressingRedisSerializer(RedisValueSerializer valueSerializer,
+                                                                 @Value("${app.redis.compression.enabled:false}") boolean enabled,
+                                                                 @Value("${app.redis.compression.threshold:4096}") int threshold) {
+        return new CompressingRedisSerializer(valueSerializer, enabled, threshold);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HotKeyTracker hotKeyTracker(@Value("${app.redis.hot-keys.enabled:true}") boolean enabled,
+                                       @Value("${app.redis.hot-keys.width:4096}") int width,
+                                       @Value("${app.redis.hot-keys.sample-rate:16}") int sampleRate,
+                                       @Value("${app.redis.hot-keys.top-k:20}") int topK,
+                                       @Value("${app.redis.hot-keys.half-life:60s}") Duration halfLife) {
+        HotKeyTracker tracker = new HotKeyTracker(enabled, width, sampleRate, topK, halfLife);
+        tracker.start();
+        return tracker;
+    }
+
+    @Bean
+    public MeteredRedisSerializer meteredRedisSerializer(CompressingRedisSerializer compressingRedisSerializer, MeterRegistry meterRegistry,
+                                                         HotKeyTracker hotKeyTracker) {
+        return new MeteredRedisSerializer(compressingRedisSerializer, meterRegistry, hotKeyTracker::recordSize);
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory, MeteredRedisSerializer valueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(valueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(valueSerializer);
         
         template.afterPropertiesSet();
         return template;
     }
+
+    // Values stored as-is, for the binary passthrough endpoints.
+    @Bean
+    public RedisTemplate<String, byte[]> rawRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory,
+                                                                       MeteredRedisSerializer valueSerializer) {
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(valueSerializer)
+                .hashKey(new StringRedisSerializer())
+                .hashValue(valueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+    }
+
+    @Bean
+    public RedisScriptRegistry redisScriptRegistry(MeterRegistry meterRegistry) {
+        return new RedisScriptRegistry(meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.redis.store", havingValue = "memory")
+    public InMemoryKeyValueStore inMemoryKeyValueStore(MeteredRedisSerializer valueSerializer,
+                                                       @Value("${app.redis.memory.stripes:256}") int stripes,
+                                                       @Value("${app.redis.memory.tick:10ms}") Duration tick,
+                                                       @Value("${app.redis.memory.max-bytes:268435456}") long maxBytes) {
+        InMemoryKeyValueStore store = new InMemoryKeyValueStore(valueSerializer, stripes, tick, maxBytes, System::currentTimeMillis);
+        store.start();
+        return store;
+    }
+
+    // One Redis connection per node; credentials, database and timeouts come from spring.data.redis.*.
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.redis.store", havingValue = "sharded")
+    public ShardedKeyValueStore shardedKeyValueStore(MeteredRedisSerializer valueSerializer, RedisProperties properties,
+                                                     ClientResources clientResources, RedisScriptRegistry scripts,
+                                                     ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers,
+                                                     Environment environment,
+                                                     @Value("${app.redis.sharding.nodes}") String[] nodes,
+                                                     @Value("${app.redis.sharding.virtual-nodes:160}") int virtualNodes,
+                                                     @Value("${app.redis.sharding.concurrency:32}") int concurrency,
+                                                     @Value("${app.redis.batch.chunk-size:500}") int chunkSize,
+                                                     @Value("${app.redis.large-value.enabled:false}") boolean largeValues,
+                                                     @Value("${app.redis.large-value.threshold:1048576}") int largeValueThreshold,
+                                                     @Value("${app.redis.large-value.chunk-size:262144}") int largeValueChunkSize,
+                                                     @Value("${app.redis.resilience.enabled:true}") boolean resilienceEnabled,
+                                                     @Value("${app.redis.resilience.call-timeout:250ms}") Duration callTimeout) {
+        Map<String, RedisKeyValueStore> shards = new LinkedHashMap<>();
+        for (String node : nodes) {
+            String address = node.trim();
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("app.redis.sharding.nodes entries must be host:port, got " + address);
+            }
+            RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(address.substring(0, colon),
+                    Integer.parseInt(address.substring(colon + 1)));
+            standalone.setDatabase(properties.getDatabase());
+            standalone.setUsername(properties.getUsername());
+            standalone.setPassword(RedisPassword.of(properties.getPassword()));
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(standalone,
+                    RedisConnectionConfig.clientConfiguration(LettuceClientConfiguration.builder(), properties, clientResources, customizers));
+            connectionFactory.afterPropertiesSet();
+            shards.put(address, new RedisKeyValueStore(connectionFactory, valueSerializer, chunkSize,
+                    largeValues, largeValueThreshold, largeValueChunkSize, resilienceEnabled ? callTimeout : null, scripts));
+        }
+        return new ShardedKeyValueStore(shards, virtualNodes, concurrency, Threading.VIRTUAL.isActive(environment));
+    }
+
+    @Bean(destroyMethod = "close")
+    public WriteBehindBuffer writeBehindBuffer(RedisService redisService, MeterRegistry meterRegistry,
+                                               @Value("${app.redis.write-behind.capacity:10000}") int capacity,
+                                               @Value("${app.redis.write-behind.batch-size:500}") int batchSize,
+                                               @Value("${app.redis.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                               @Value("${app.redis.write-behind.max-wait:100ms}") Duration maxWait,
+                                               @Value("${app.redis.write-behind.drain-timeout:10s}") Duration drainTimeout) {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(redisService::multiSet, capacity, batchSize, flushInterval,
+                maxWait, drainTimeout, meterRegistry);
+        buffer.start();
+        return buffer;
+    }
 }
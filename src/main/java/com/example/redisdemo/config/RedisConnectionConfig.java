@@ -0,0 +1,141 @@
+package com.example.redisdemo.config;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisConnectionDetails;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+
+/**
+ * Connection topology, selected with {@code app.redis.connection.strategy}:
+ * <ul>
+ *   <li>{@code shared} (default): Spring Boot's auto-configured factory, one multiplexed
+ *   connection for every thread.</li>
+ *   <li>{@code pooled}: a commons-pool2 pool sized by {@code spring.data.redis.lettuce.pool.*};
+ *   each call borrows a connection for its duration, so commands never queue behind another
+ *   thread's. The pool's active, idle and waiting counts are exported as
+ *   {@code commons.pool2.*} gauges.</li>
+ *   <li>{@code multiplexed}: {@code app.redis.connection.connections} multiplexed connections used
+ *   round-robin (0 means one per CPU core).</li>
+ * </ul>
+ * The pooled and multiplexed factories replace the auto-configured one and support standalone
+ * Redis only. {@code app.redis.connection.io-threads} sizes the Lettuce event loop for every
+ * strategy.
+ */
+@Configuration
+public class RedisConnectionConfig {
+
+    @Bean
+    public ClientResourcesBuilderCustomizer redisIoThreadsCustomizer(@Value("${app.redis.connection.io-threads:0}") int ioThreads,
+                                                                     @Value("${app.redis.connection.computation-threads:0}") int computationThreads) {
+        return builder -> {
+            if (ioThreads > 0) {
+                builder.ioThreadPoolSize(ioThreads);
+            }
+            if (computationThreads > 0) {
+                builder.computationThreadPoolSize(computationThreads);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.redis.connection.strategy", havingValue = "pooled")
+    public LettuceConnectionFactory pooledRedisConnectionFactory(RedisProperties properties, RedisConnectionDetails connectionDetails,
+                                                                 ClientResources clientResources,
+                                                                 ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers) {
+        RedisProperties.Pool pool = properties.getLettuce().getPool();
+        GenericObjectPoolConfig<StatefulRedisConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+        // The pool registers under this JMX name, which is where redisPoolMetrics reads it from.
+        poolConfig.setJmxEnabled(true);
+        poolConfig.setJmxNamePrefix("redis");
+        poolConfig.setMaxTotal(pool.getMaxActive());
+        poolConfig.setMaxIdle(pool.getMaxIdle());
+        poolConfig.setMinIdle(pool.getMinIdle());
+        if (pool.getMaxWait() != null) {
+            poolConfig.setMaxWait(pool.getMaxWait());
+        }
+        if (pool.getTimeBetweenEvictionRuns() != null) {
+            poolConfig.setTimeBetweenEvictionRuns(pool.getTimeBetweenEvictionRuns());
+        }
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder builder =
+                LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(standalone(properties, connectionDetails),
+                clientConfiguration(builder, properties, clientResources, customizers));
+        // Without this, only blocking commands and transactions would use the pool.
+        factory.setShareNativeConnection(false);
+        return factory;
+    }
+
+    // Lettuce creates the pool on first use; the binder picks it up when its MBean appears.
+    @Bean
+    @ConditionalOnProperty(name = "app.redis.connection.strategy", havingValue = "pooled")
+    public CommonsObjectPool2Metrics redisPoolMetrics() {
+        return new CommonsObjectPool2Metrics(Tags.empty());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.redis.connection.strategy", havingValue = "multiplexed")
+    public LettuceConnectionFactory multiplexedRedisConnectionFactory(RedisProperties properties, RedisConnectionDetails connectionDetails,
+                                                                      ClientResources clientResources,
+                                                                      ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers,
+                                                                      @Value("${app.redis.connection.connections:0}") int connections) {
+        int count = connections > 0 ? connections : Runtime.getRuntime().availableProcessors();
+        return new MultiplexedLettuceConnectionFactory(standalone(properties, connectionDetails),
+                clientConfiguration(LettuceClientConfiguration.builder(), properties, clientResources, customizers), count);
+    }
+
+    private static RedisStandaloneConfiguration standalone(RedisProperties properties, RedisConnectionDetails connectionDetails) {
+        if (connectionDetails.getStandalone() == null || properties.getSentinel() != null || properties.getCluster() != null) {
+            throw new IllegalStateException("app.redis.connection.strategy pooled and multiplexed support standalone Redis only");
+        }
+        RedisConnectionDetails.Standalone standalone = connectionDetails.getStandalone();
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(standalone.getHost(), standalone.getPort());
+        configuration.setDatabase(standalone.getDatabase());
+        configuration.setUsername(connectionDetails.getUsername());
+        configuration.setPassword(RedisPassword.of(connectionDetails.getPassword()));
+        return configuration;
+    }
+
+    // Mirrors what Spring Boot applies to its own factory: timeouts, client name, SSL and customizers.
+    static LettuceClientConfiguration clientConfiguration(LettuceClientConfiguration.LettuceClientConfigurationBuilder builder,
+                                                          RedisProperties properties, ClientResources clientResources,
+                                                          ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers) {
+        builder.clientResources(clientResources);
+        if (properties.getTimeout() != null) {
+            builder.commandTimeout(properties.getTimeout());
+        }
+        if (properties.getLettuce().getShutdownTimeout() != null) {
+            builder.shutdownTimeout(properties.getLettuce().getShutdownTimeout());
+        }
+        if (properties.getClientName() != null) {
+            builder.clientName(properties.getClientName());
+        }
+        if (properties.getSsl().isEnabled()) {
+            builder.useSsl();
+        }
+        ClientOptions.Builder options = ClientOptions.builder().timeoutOptions(TimeoutOptions.enabled());
+        if (properties.getConnectTimeout() != null) {
+            options.socketOptions(SocketOptions.builder().connectTimeout(properties.getConnectTimeout()).build());
+        }
+        builder.clientOptions(options.build());
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder.build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.redisdemo.config;
+
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import io.lettuce.core.event.connection.ReconnectAttemptEvent;
+import io.lettuce.core.event.connection.ReconnectFailedEvent;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the connections Lettuce currently has open and how often it has to reconnect, from its
+ * event bus. This covers every connection strategy alike: the shared connection, the pooled and
+ * the multiplexed ones (see {@link RedisConnectionConfig}), plus the near cache's tracking
+ * connection when enabled. The pooled strategy's pool has its own gauges.
+ */
+@Component
+public class RedisConnectionMetrics implements MeterBinder, DisposableBean {
+
+    @Autowired
+    private ClientResources clientResources;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private Disposable subscription;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("redis.connections.active", active, AtomicInteger::get)
+                .description("Open Lettuce connections")
+                .register(registry);
+        Counter attempts = Counter.builder("redis.connections.reconnects")
+                .description("Reconnect attempts after a connection was lost")
+                .tag("outcome", "attempt")
+                .register(registry);
+        Counter failures = Counter.builder("redis.connections.reconnects")
+                .description("Reconnect attempts after a connection was lost")
+                .tag("outcome", "failed")
+                .register(registry);
+        subscription = clientResources.eventBus().get().subscribe(event -> {
+            if (event instanceof ConnectionActivatedEvent) {
+                active.incrementAndGet();
+            } else if (event instanceof ConnectionDeactivatedEvent) {
+                active.decrementAndGet();
+            } else if (event instanceof ReconnectAttemptEvent) {
+                attempts.increment();
+            } else if (event instanceof ReconnectFailedEvent) {
+                failures.increment();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.redisdemo.config;
+
+import com.example.redisdemo.service.RedisHealthProbe;
+import com.example.redisdemo.store.KeyValueStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+
+/**
+ * Health checks backed by the background {@link RedisHealthProbe}, so neither the Actuator probes
+ * nor {@code /api/redis/health} send commands to Redis. {@code redisReadiness} is part of the
+ * {@code /actuator/health/readiness} group and {@code redisLiveness} of
+ * {@code /actuator/health/liveness}.
+ */
+@Configuration
+public class RedisHealthConfig {
+
+    @Bean(destroyMethod = "close")
+    public RedisHealthProbe redisHealthProbe(KeyValueStore store, MeterRegistry meterRegistry,
+                                             @Value("${app.redis.health.interval:500ms}") Duration interval,
+                                             @Value("${app.redis.health.timeout:1s}") Duration timeout,
+                                             @Value("${app.redis.health.window:200}") int window,
+                                             @Value("${app.redis.health.max-p99:100ms}") Duration maxP99,
+                                             @Value("${app.redis.health.failure-threshold:3}") int failureThreshold) {
+        return new RedisHealthProbe(store::ping, interval, timeout, window, maxP99, failureThreshold, meterRegistry);
+    }
+
+    // Started once the context is refreshed, so the first ping does not open the Redis connection
+    // before the connection metrics subscribe to Lettuce's events, and before readiness is reported.
+    @EventListener
+    public void startRedisHealthProbe(ApplicationStartedEvent event) {
+        event.getApplicationContext().getBean(RedisHealthProbe.class).start();
+    }
+
+    @Bean
+    public HealthIndicator redisReadinessHealthIndicator(RedisHealthProbe probe) {
+        return () -> (probe.isReady() ? Health.up() : Health.outOfService()).withDetails(probe.stats()).build();
+    }
+
+    @Bean
+    public HealthIndicator redisLivenessHealthIndicator(RedisHealthProbe probe) {
+        return () -> probe.isLive() ? Health.up().build()
+                : Health.down().withDetail("reason", "Health probe has stopped running").build();
+    }
+}
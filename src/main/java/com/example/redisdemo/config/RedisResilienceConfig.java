@@ -0,0 +1,56 @@
+package com.example.redisdemo.config;
+
+import com.example.redisdemo.service.CircuitBreaker;
+import com.example.redisdemo.service.StaleValueCache;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisConnectionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker around {@code RedisService}'s store calls and the local stale copy its reads
+ * fall back to. Only timeouts and connection failures count against the breaker; a command Redis
+ * rejects, such as WRONGTYPE, means Redis is up.
+ */
+@Configuration
+public class RedisResilienceConfig {
+
+    @Bean
+    public CircuitBreaker redisCircuitBreaker(MeterRegistry meterRegistry,
+                                              @Value("${app.redis.resilience.circuit.window:100}") int window,
+                                              @Value("${app.redis.resilience.circuit.min-calls:20}") int minCalls,
+                                              @Value("${app.redis.resilience.circuit.failure-rate:0.5}") double failureRate,
+                                              @Value("${app.redis.resilience.circuit.slow-call:1s}") Duration slowCall,
+                                              @Value("${app.redis.resilience.circuit.open-duration:5s}") Duration openDuration,
+                                              @Value("${app.redis.resilience.circuit.half-open-calls:3}") int halfOpenCalls) {
+        return new CircuitBreaker(window, minCalls, failureRate, slowCall, openDuration, halfOpenCalls,
+                RedisResilienceConfig::isOutage, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public StaleValueCache staleValueCache(MeterRegistry meterRegistry,
+                                           @Value("${app.redis.resilience.stale.max-entries:10000}") long maxEntries,
+                                           @Value("${app.redis.resilience.stale.max-bytes:67108864}") long maxBytes,
+                                           @Value("${app.redis.resilience.stale.max-entry-bytes:1048576}") long maxEntryBytes,
+                                           @Value("${app.redis.resilience.stale.max-age:5m}") Duration maxAge) {
+        return new StaleValueCache(maxEntries, maxBytes, maxEntryBytes, maxAge, meterRegistry);
+    }
+
+    // Lettuce exceptions thrown inside a RedisCallback reach us untranslated, so both are checked.
+    // The concurrency limit uses the same test for requests it counts as dropped.
+    public static boolean isOutage(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof RedisCommandTimeoutException || cause instanceof RedisConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.redisdemo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    // The shared Lettuce connection is otherwise opened by the first request, and the class
+    // initialization inside that connect pins the request's carrier thread. Opening it before
+    // the web server starts keeps the request path free of pinning.
+    @Bean
+    public SmartInitializingSingleton redisConnectionWarmup(RedisConnectionFactory connectionFactory) {
+        return () -> {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+            } catch (Exception e) {
+                log.warn("Could not open the Redis connection at startup, the first request will open it: {}", e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.redisdemo.controller;
+
+import com.example.redisdemo.dto.RedisResponse;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.CacheAsideService;
+import com.example.redisdemo.service.CacheFillTimeoutException;
+import com.example.redisdemo.service.CircuitOpenException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache-aside reads of {@code app.redis.cache-aside.origin-url}, whose {@code {key}} placeholder is
+ * filled with the requested key. A miss fetches the origin's body as text and caches it for
+ * {@code ttl}; an origin 404 is answered with 404 and cached as nothing, any other origin failure
+ * with 502, and a miss that waited out {@code lock-wait} behind another load with 503. The origin
+ * is only ever the configured URL, never one from the request.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.redis.cache-aside.origin-url")
+@RequestMapping("/api/redis/cache")
+public class CacheAsideController {
+
+    @Autowired
+    private CacheAsideService cacheAsideService;
+
+    @Value("${app.redis.cache-aside.origin-url}")
+    private String originUrl;
+
+    @Value("${app.redis.cache-aside.ttl:60s}")
+    private Duration ttl;
+
+    @Value("${app.redis.cache-aside.origin-timeout:5s}")
+    private Duration originTimeout;
+
+    @Value("${app.redis.cache-aside.lock-wait:6s}")
+    private Duration lockWait;
+
+    private RestClient origin;
+
+    // A wait shorter than one origin call gives up on loads that are still on time.
+    @PostConstruct
+    public void start() {
+        if (lockWait.compareTo(originTimeout) < 0) {
+            throw new IllegalArgumentException("app.redis.cache-aside.lock-wait (" + lockWait
+                    + ") must be at least app.redis.cache-aside.origin-timeout (" + originTimeout + ")");
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(originTimeout);
+        requestFactory.setReadTimeout(originTimeout);
+        origin = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @GetMapping("/{key}")
+    public ResponseEntity<RedisResponse> getValue(@PathVariable String key) {
+        try {
+            ValueWithTtl result = cacheAsideService.getOrLoad(key, ttl, () -> fetch(key));
+            if (!result.isExists()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new RedisResponse(key, null, false, -2, "Not found at origin"));
+            }
+            RedisResponse response = new RedisResponse(key, result.getValue(), true, result.getTtl());
+            if (result.isStale()) {
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                        .header(HttpHeaders.AGE, Long.toString(TimeUnit.MILLISECONDS.toSeconds(result.getStaleMillis())))
+                        .body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (RestClientException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body(new RedisResponse(key, null, false, -1, "Origin error: " + e.getMessage()));
+        } catch (CacheFillTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()));
+        } catch (CircuitOpenException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()));
+        } catch (Exception e) {
+            ConcurrencyLimitInterceptor.failed(e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()));
+        }
+    }
+
+    // The origin's body, or null when it answers 404.
+    private String fetch(String key) {
+        return origin.get().uri(originUrl, key).exchange((request, response) -> {
+            if (response.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                return null;
+            }
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new RestClientException("Origin answered " + response.getStatusCode().value());
+            }
+            return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.redisdemo.controller;
+
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter.Permit;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+/**
+ * Holds an {@link AdaptiveConcurrencyLimiter} permit for the duration of each API request and
+ * answers 503 with {@code Retry-After} when none is available. GETs and batch reads are reads;
+ * everything else is a write. Write-behind requests do not reach Redis and are not limited.
+ * A request counts as dropped only when its failure is a Redis outage; the controllers answer
+ * errors themselves, so they hand the exception over with {@link #failed}.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+    private static final String FAILURE = ConcurrencyLimitInterceptor.class.getName() + ".failure";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Predicate<Throwable> isDropped;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter, Predicate<Throwable> isDropped) {
+        this.limiter = limiter;
+        this.isDropped = isDropped;
+    }
+
+    // Records the exception a handler turned into an error response for the current request.
+    public static void failed(Throwable error) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(FAILURE, error, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if ("true".equalsIgnoreCase(request.getParameter("async")) || "async".equalsIgnoreCase(request.getHeader("X-Write-Mode"))) {
+            return true;
+        }
+        Permit permit = limiter.tryAcquire(priority(request));
+        if (permit == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server is overloaded, retry later\"}");
+            return false;
+        }
+        request.setAttribute(PERMIT, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT);
+        if (permit != null) {
+            request.removeAttribute(PERMIT);
+            // A client error, a command Redis rejected or an open circuit breaker is not a sign of
+            // Redis latency, whatever status it was answered with.
+            Object failure = request.getAttribute(FAILURE);
+            ((Permit) permit).release((ex != null && isDropped.test(ex)) || (failure instanceof Throwable && isDropped.test((Throwable) failure)));
+        }
+    }
+
+    private static Priority priority(HttpServletRequest request) {
+        if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()) || request.getRequestURI().endsWith("/batch/get")) {
+            return Priority.READ;
+        }
+        return Priority.WRITE;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.redisdemo.controller;
+
+import com.example.redisdemo.dto.RedisResponse;
+import com.example.redisdemo.service.RawValueService;
+import com.example.redisdemo.store.KeyValueStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary passthrough: {@code application/octet-stream} bodies are stored and returned byte for
+ * byte, streamed in chunks on both sides. Values written here are not JSON, so read them back
+ * through this endpoint rather than {@code GET /api/redis/{key}}. A key holding a large value
+ * stored in chunks answers 409.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.redis.store", havingValue = "redis", matchIfMissing = true)
+@RequestMapping("/api/redis/raw")
+public class RawValueController {
+
+    @Autowired
+    private RawValueService rawValueService;
+
+    @PutMapping(value = "/{key}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<RedisResponse> putValue(@PathVariable String key, InputStream body,
+                                                  @RequestParam(defaultValue = "0") long timeout,
+                                                  @RequestParam(defaultValue = "SECONDS") TimeUnit timeUnit) {
+        try {
+            long size = rawValueService.write(key, body, timeout, timeUnit);
+            long ttl = KeyValueStore.effectiveTtl(KeyValueStore.expiration(timeout, timeUnit));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(new RedisResponse(key, null, true, ttl, "Stored " + size + " bytes"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()));
+        }
+    }
+
+    // Supports a single byte range; a request for several ranges gets the whole value.
+    @GetMapping("/{key}")
+    public ResponseEntity<StreamingResponseBody> getValue(@PathVariable String key,
+                                                          @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        long length;
+        try {
+            length = rawValueService.length(key);
+        } catch (InvalidDataAccessApiUsageException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        if (length < 0) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (range != null && length > 0) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start > end) {
+                        throw new IllegalArgumentException("Empty range");
+                    }
+                    status = HttpStatus.PARTIAL_CONTENT;
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+        }
+
+        long from = start;
+        long to = end;
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(to - from + 1)
+                .body(out -> rawValueService.read(key, from, to, out));
+    }
+}
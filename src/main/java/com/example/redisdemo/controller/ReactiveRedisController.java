@@ -0,0 +1,202 @@
+package com.example.redisdemo.controller;
+
+import com.example.redisdemo.dto.RedisBatchRequest;
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.RedisResponse;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.service.ReactiveRedisService;
+import com.example.redisdemo.service.RedisHealthProbe;
+import com.example.redisdemo.service.RedisService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/redis")
+public class ReactiveRedisController {
+
+    @Autowired
+    private ReactiveRedisService redisService;
+
+    @Autowired
+    private RedisHealthProbe healthProbe;
+
+    @GetMapping("/{key}")
+    public Mono<ResponseEntity<RedisResponse>> getValue(@PathVariable String key) {
+        return redisService.getWithTtl(key)
+                .map(result -> result.isExists()
+                        ? ResponseEntity.ok(new RedisResponse(key, result.getValue(), true, result.getTtl()))
+                        : ResponseEntity.notFound().<RedisResponse>build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()))));
+    }
+
+    @PostMapping("/{key}")
+    public Mono<ResponseEntity<RedisResponse>> setValue(@PathVariable String key, @RequestBody RedisRequest request) {
+        return redisService.setAndGetTtl(key, request.getValue(), request.getTimeout(), request.getTimeUnit())
+                .map(ttl -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(new RedisResponse(key, request.getValue(), true, ttl, "Value stored successfully")))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()))));
+    }
+
+    @DeleteMapping("/{key}")
+    public Mono<ResponseEntity<Map<String, Object>>> deleteValue(@PathVariable String key) {
+        return redisService.delete(key)
+                .map(deleted -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("key", key);
+                    response.put("deleted", deleted);
+                    response.put("message", deleted ? "Key deleted successfully" : "Key not found");
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> error("Error deleting key: ", e));
+    }
+
+    @GetMapping("/{key}/exists")
+    public Mono<ResponseEntity<Map<String, Object>>> keyExists(@PathVariable String key) {
+        return redisService.hasKey(key)
+                .map(exists -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("key", key);
+                    response.put("exists", exists);
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> error("Error checking key: ", e));
+    }
+
+    @PostMapping("/{key}/expire")
+    public Mono<ResponseEntity<Map<String, Object>>> setExpiration(@PathVariable String key, @RequestBody Map<String, Object> request) {
+        return Mono.defer(() -> {
+                    long timeout = Long.parseLong(request.get("timeout").toString());
+                    String timeUnitStr = request.get("timeUnit").toString();
+                    TimeUnit timeUnit = TimeUnit.valueOf(timeUnitStr.toUpperCase());
+                    return redisService.expire(key, timeout, timeUnit).map(success -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("key", key);
+                        response.put("timeout", timeout);
+                        response.put("timeUnit", timeUnitStr);
+                        response.put("success", success);
+                        response.put("message", success ? "Expiration set successfully" : "Failed to set expiration");
+                        return ResponseEntity.ok(response);
+                    });
+                })
+                .onErrorResume(e -> error("Error setting expiration: ", e));
+    }
+
+    @GetMapping("/{key}/ttl")
+    public Mono<ResponseEntity<Map<String, Object>>> getTTL(@PathVariable String key) {
+        return redisService.getExpire(key)
+                .map(ttl -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("key", key);
+                    response.put("ttl", ttl);
+                    response.put("exists", ttl != -1);
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> error("Error getting TTL: ", e));
+    }
+
+    @PostMapping("/batch/get")
+    public Mono<ResponseEntity<Map<String, Object>>> batchGet(@RequestBody RedisBatchRequest request) {
+        return redisService.multiGetWithTtl(request.getKeys())
+                .map(values -> {
+                    List<RedisResponse> results = new ArrayList<>();
+                    values.forEach((key, result) ->
+                            results.add(new RedisResponse(key, result.getValue(), result.isExists(), result.getTtl())));
+                    return ResponseEntity.ok(batchResponse(results));
+                })
+                .onErrorResume(e -> error("Error getting keys: ", e));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Map<String, Object>>> batchSet(@RequestBody RedisBatchRequest request) {
+        if (request.getEntries().values().stream().anyMatch(Objects::isNull)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Every entry needs a value");
+            return Mono.just(ResponseEntity.badRequest().body(response));
+        }
+        return redisService.multiSet(request.getEntries())
+                .map(ttls -> {
+                    List<RedisResponse> results = new ArrayList<>();
+                    ttls.forEach((key, ttl) ->
+                            results.add(new RedisResponse(key, request.getEntries().get(key).getValue(), true, ttl, "Value stored successfully")));
+                    return ResponseEntity.status(HttpStatus.CREATED).body(batchResponse(results));
+                })
+                .onErrorResume(e -> error("Error storing keys: ", e));
+    }
+
+    @PostMapping("/batch/delete")
+    public Mono<ResponseEntity<Map<String, Object>>> batchDelete(@RequestBody RedisBatchRequest request) {
+        return redisService.multiDelete(request.getKeys())
+                .map(deletions -> {
+                    List<RedisResponse> results = new ArrayList<>();
+                    deletions.forEach((key, deleted) ->
+                            results.add(new RedisResponse(key, null, false, -2, deleted ? "Key deleted successfully" : "Key not found")));
+                    return ResponseEntity.ok(batchResponse(results));
+                })
+                .onErrorResume(e -> error("Error deleting keys: ", e));
+    }
+
+    @GetMapping(value = "/keys", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<Map<String, Object>>> scanKeys(@RequestParam(required = false) String match,
+                                                              @RequestParam(defaultValue = "1000") int count,
+                                                              @RequestParam(defaultValue = "0") String cursor,
+                                                              @RequestParam(defaultValue = "false") boolean ttl,
+                                                              @RequestParam(defaultValue = "0") long limit) {
+        if (count < 1 || count > RedisService.MAX_SCAN_COUNT || !cursor.matches("\\d+") || limit < 0) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "count must be 1-" + RedisService.MAX_SCAN_COUNT + ", cursor a SCAN cursor and limit non-negative");
+            return ResponseEntity.badRequest().body(Flux.just(response));
+        }
+        return ResponseEntity.ok(redisService.scan(match, count, cursor, ttl, limit)
+                .concatMapIterable(ScanPage::toLines)
+                .onErrorResume(e -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("error", "Error scanning keys: " + e.getMessage());
+                    return Mono.just(response);
+                }));
+    }
+
+    // Reads the background probe's cached result, so a health check sends no command to Redis.
+    @GetMapping("/health")
+    public Mono<ResponseEntity<Map<String, Object>>> health() {
+        Map<String, Object> response = new HashMap<>(healthProbe.stats());
+        response.put("timestamp", System.currentTimeMillis());
+        response.put("testResult", healthProbe.isReady());
+        if (healthProbe.isReady()) {
+            response.put("status", "healthy");
+            response.put("redis", "connected");
+            return Mono.just(ResponseEntity.ok(response));
+        }
+        response.put("status", "unhealthy");
+        response.put("redis", "unavailable");
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response));
+    }
+
+    private static Map<String, Object> batchResponse(List<RedisResponse> results) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", results.size());
+        response.put("results", results);
+        return response;
+    }
+
+    private static Mono<ResponseEntity<Map<String, Object>>> error(String message, Throwable e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", message + e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response));
+    }
+}
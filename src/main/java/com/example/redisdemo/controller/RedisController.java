@@ -1,59 +1,110 @@
 package com.example.redisdemo.controller;
 
+import com.example.redisdemo.dto.RedisBatchRequest;
 import com.example.redisdemo.dto.RedisRequest;
 import com.example.redisdemo.dto.RedisResponse;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.CircuitOpenException;
+import com.example.redisdemo.service.RedisHealthProbe;
 import com.example.redisdemo.service.RedisService;
+import com.example.redisdemo.service.WriteBehindBuffer;
+import com.example.redisdemo.store.KeyValueStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.RedisCommandExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/redis")
 public class RedisController {
 
     @Autowired
     private RedisService redisService;
 
+    @Autowired
+    private WriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private RedisHealthProbe healthProbe;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/{key}")
     public ResponseEntity<RedisResponse> getValue(@PathVariable String key) {
         try {
-            Object value = redisService.get(key);
-            if (value != null) {
-                RedisResponse response = new RedisResponse(key, value, redisService.hasKey(key), redisService.getExpire(key));
+            ValueWithTtl result = redisService.getWithTtl(key);
+            if (result.isExists()) {
+                RedisResponse response = new RedisResponse(key, result.getValue(), true, result.getTtl());
+                if (result.isStale()) {
+                    // Redis is unavailable; this is the local copy from the last successful read.
+                    return ResponseEntity.ok()
+                            .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                            .header(HttpHeaders.AGE, Long.toString(TimeUnit.MILLISECONDS.toSeconds(result.getStaleMillis())))
+                            .body(response);
+                }
                 return ResponseEntity.ok(response);
             } else {
                 return ResponseEntity.notFound().build();
             }
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return error(e)
                     .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()));
         }
     }
 
     @PostMapping("/{key}")
-    public ResponseEntity<RedisResponse> setValue(@PathVariable String key, @RequestBody RedisRequest request) {
+    public ResponseEntity<RedisResponse> setValue(@PathVariable String key, @RequestBody RedisRequest request,
+                                                  @RequestParam(defaultValue = "false") boolean async,
+                                                  @RequestHeader(value = "X-Write-Mode", required = false) String writeMode) {
+        if (async || "async".equalsIgnoreCase(writeMode)) {
+            return setValueAsync(key, request);
+        }
         try {
-            if (request.getTimeout() > 0 && request.getTimeUnit() != null) {
-                redisService.set(key, request.getValue(), request.getTimeout(), request.getTimeUnit());
-            } else {
-                redisService.set(key, request.getValue());
-            }
-            
-            Object storedValue = redisService.get(key);
-            long ttl = redisService.getExpire(key);
-            RedisResponse response = new RedisResponse(key, storedValue, true, ttl, "Value stored successfully");
+            long ttl = redisService.setAndGetTtl(key, request.getValue(), request.getTimeout(), request.getTimeUnit());
+            RedisResponse response = new RedisResponse(key, request.getValue(), true, ttl, "Value stored successfully");
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return error(e)
                     .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()));
         }
     }
 
+    // Write-behind: the write is queued and flushed in a later batch, and its TTL starts then.
+    private ResponseEntity<RedisResponse> setValueAsync(String key, RedisRequest request) {
+        if (request.getValue() == null) {
+            return ResponseEntity.badRequest()
+                    .body(new RedisResponse(key, null, false, -1, "Error: value is required"));
+        }
+        if (!writeBehindBuffer.offer(key, request)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new RedisResponse(key, null, false, -1, "Error: write-behind buffer is full"));
+        }
+        long ttl = KeyValueStore.effectiveTtl(KeyValueStore.expiration(request.getTimeout(), request.getTimeUnit()));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new RedisResponse(key, request.getValue(), true, ttl, "Value queued for write-behind"));
+    }
+
     @DeleteMapping("/{key}")
     public ResponseEntity<Map<String, Object>> deleteValue(@PathVariable String key) {
         Map<String, Object> response = new HashMap<>();
@@ -65,7 +116,7 @@ public class RedisController {
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("error", "Error deleting key: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return error(e).body(response);
         }
     }
 
@@ -79,7 +130,7 @@ public class RedisController {
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("error", "Error checking key: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return error(e).body(response);
         }
     }
 
@@ -100,7 +151,7 @@ public class RedisController {
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("error", "Error setting expiration: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return error(e).body(response);
         }
     }
 
@@ -115,30 +166,226 @@ public class RedisController {
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("error", "Error getting TTL: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return error(e).body(response);
         }
     }
 
-    @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> health() {
+    // delta defaults to 1; timeout and timeUnit only apply when this call creates the counter.
+    @PostMapping("/{key}/incr")
+    public ResponseEntity<Map<String, Object>> increment(@PathVariable String key,
+                                                         @RequestBody(required = false) Map<String, Object> request) {
         Map<String, Object> response = new HashMap<>();
         try {
-            // Simple health check - try to set and get a test key
-            String testKey = "health:check:" + System.currentTimeMillis();
-            redisService.set(testKey, "ok", 5, TimeUnit.SECONDS);
-            Object value = redisService.get(testKey);
-            redisService.delete(testKey);
-            
+            Map<String, Object> body = request != null ? request : Map.of();
+            long delta = Long.parseLong(body.getOrDefault("delta", 1).toString());
+            long timeout = Long.parseLong(body.getOrDefault("timeout", 0).toString());
+            TimeUnit timeUnit = TimeUnit.valueOf(body.getOrDefault("timeUnit", "SECONDS").toString().toUpperCase());
+
+            ValueWithTtl result = redisService.increment(key, delta, timeout, timeUnit);
+            response.put("key", key);
+            response.put("value", result.getValue());
+            response.put("ttl", result.getTtl());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Error incrementing key: " + e.getMessage());
+            return (isBadInput(e) ? ResponseEntity.badRequest() : error(e)).body(response);
+        }
+    }
+
+    // Stores value only while the key holds expected; a missing or null expected means the key
+    // must not exist. 409 when the key held something else.
+    @PostMapping("/{key}/cas")
+    public ResponseEntity<Map<String, Object>> compareAndSet(@PathVariable String key, @RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+        if (request.get("value") == null) {
+            response.put("error", "value is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            long timeout = Long.parseLong(request.getOrDefault("timeout", 0).toString());
+            TimeUnit timeUnit = TimeUnit.valueOf(request.getOrDefault("timeUnit", "SECONDS").toString().toUpperCase());
+
+            boolean swapped = redisService.compareAndSet(key, request.get("expected"), request.get("value"), timeout, timeUnit);
+            response.put("key", key);
+            response.put("swapped", swapped);
+            if (!swapped) {
+                response.put("message", "Current value does not match expected");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            response.put("value", request.get("value"));
+            response.put("ttl", KeyValueStore.effectiveTtl(KeyValueStore.expiration(timeout, timeUnit)));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Error setting key: " + e.getMessage());
+            return (isBadInput(e) ? ResponseEntity.badRequest() : error(e)).body(response);
+        }
+    }
+
+    // Reads the value and resets its TTL in one step; a timeout of 0 removes the TTL.
+    @PostMapping("/{key}/touch")
+    public ResponseEntity<RedisResponse> getAndTouch(@PathVariable String key, @RequestBody Map<String, Object> request) {
+        if (request.get("timeout") == null) {
+            return ResponseEntity.badRequest()
+                    .body(new RedisResponse(key, null, false, -1, "Error: timeout is required"));
+        }
+        try {
+            long timeout = Long.parseLong(request.get("timeout").toString());
+            TimeUnit timeUnit = TimeUnit.valueOf(request.getOrDefault("timeUnit", "SECONDS").toString().toUpperCase());
+
+            ValueWithTtl result = redisService.getAndTouch(key, timeout, timeUnit);
+            if (!result.isExists()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(new RedisResponse(key, result.getValue(), true, result.getTtl()));
+        } catch (Exception e) {
+            return (isBadInput(e) ? ResponseEntity.badRequest() : error(e))
+                    .body(new RedisResponse(key, null, false, -1, "Error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/batch/get")
+    public ResponseEntity<Map<String, Object>> batchGet(@RequestBody RedisBatchRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<RedisResponse> results = new ArrayList<>();
+            redisService.multiGetWithTtl(request.getKeys()).forEach((key, result) ->
+                    results.add(new RedisResponse(key, result.getValue(), result.isExists(), result.getTtl())));
+            response.put("count", results.size());
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Error getting keys: " + e.getMessage());
+            return error(e).body(response);
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> batchSet(@RequestBody RedisBatchRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        if (request.getEntries().values().stream().anyMatch(Objects::isNull)) {
+            response.put("error", "Every entry needs a value");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            List<RedisResponse> results = new ArrayList<>();
+            redisService.multiSet(request.getEntries()).forEach((key, ttl) ->
+                    results.add(new RedisResponse(key, request.getEntries().get(key).getValue(), true, ttl, "Value stored successfully")));
+            response.put("count", results.size());
+            response.put("results", results);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            response.put("error", "Error storing keys: " + e.getMessage());
+            return error(e).body(response);
+        }
+    }
+
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Map<String, Object>> batchDelete(@RequestBody RedisBatchRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<RedisResponse> results = new ArrayList<>();
+            redisService.multiDelete(request.getKeys()).forEach((key, deleted) ->
+                    results.add(new RedisResponse(key, null, false, -2, deleted ? "Key deleted successfully" : "Key not found")));
+            response.put("count", results.size());
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Error deleting keys: " + e.getMessage());
+            return error(e).body(response);
+        }
+    }
+
+    @GetMapping(value = "/keys", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> scanKeys(@RequestParam(required = false) String match,
+                                                          @RequestParam(defaultValue = "1000") int count,
+                                                          @RequestParam(defaultValue = "0") String cursor,
+                                                          @RequestParam(defaultValue = "false") boolean ttl,
+                                                          @RequestParam(defaultValue = "0") long limit) {
+        if (count < 1 || count > RedisService.MAX_SCAN_COUNT || !cursor.matches("\\d+(\\.\\d+)*") || limit < 0) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "count must be 1-" + RedisService.MAX_SCAN_COUNT + ", cursor a SCAN cursor and limit non-negative");
+            return ResponseEntity.badRequest().body(out -> writeLine(out, response));
+        }
+        // Each page is written and flushed before the next SCAN, so a client that stops reading
+        // stops the scan. After a failure mid-stream the error is the last line; the client
+        // resumes from the last cursor line it received.
+        return ResponseEntity.ok().body(out -> {
+            try {
+                redisService.scan(match, count, cursor, ttl, limit, page -> writePage(out, page));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (Exception e) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("error", "Error scanning keys: " + e.getMessage());
+                writeLine(out, response);
+            }
+        });
+    }
+
+    // Reads the background probe's cached result, so a health check sends no command to Redis.
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, Object>> health() {
+        Map<String, Object> response = new HashMap<>(healthProbe.stats());
+        response.put("timestamp", System.currentTimeMillis());
+        response.put("testResult", healthProbe.isReady());
+        if (healthProbe.isReady()) {
             response.put("status", "healthy");
             response.put("redis", "connected");
-            response.put("timestamp", System.currentTimeMillis());
-            response.put("testResult", "ok".equals(value));
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("status", "unhealthy");
-            response.put("redis", "disconnected");
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         }
+        response.put("status", "unhealthy");
+        response.put("redis", "unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    // A malformed number or time unit in the request, or a command Redis rejected because of what
+    // the request asked for: INCR on a value that is not an integer or past the 64-bit range, an
+    // out-of-range expiry, a key of the wrong type. Rejections are told apart by their error code,
+    // so OOM, BUSY, LOADING, READONLY and the like still answer 5xx.
+    private static boolean isBadInput(Exception e) {
+        if (e instanceof IllegalArgumentException) {
+            return true;
+        }
+        String code = redisErrorCode(e);
+        return "ERR".equals(code) || "WRONGTYPE".equals(code);
+    }
+
+    // The leading error code of a Redis error reply, or null. Lettuce's exception reaches us as is
+    // from a RedisCallback and translated by Spring otherwise; the memory engine throws the latter.
+    private static String redisErrorCode(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if ((cause instanceof RedisCommandExecutionException || cause instanceof InvalidDataAccessApiUsageException)
+                    && cause.getMessage() != null) {
+                int end = cause.getMessage().indexOf(' ');
+                return end < 0 ? cause.getMessage() : cause.getMessage().substring(0, end);
+            }
+        }
+        return null;
+    }
+
+    // While the circuit breaker is open Redis is not called at all; 503 tells clients to back off.
+    // The concurrency limit is told about the exception, to shrink only on Redis outages.
+    private static ResponseEntity.BodyBuilder error(Exception e) {
+        ConcurrencyLimitInterceptor.failed(e);
+        if (e instanceof CircuitOpenException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private void writePage(OutputStream out, ScanPage page) {
+        try {
+            for (Map<String, Object> line : page.toLines()) {
+                writeLine(out, line);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write('\n');
     }
 }
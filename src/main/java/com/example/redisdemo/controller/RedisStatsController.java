@@ -0,0 +1,118 @@
+package com.example.redisdemo.controller;
+
+import com.example.redisdemo.config.CompressingRedisSerializer;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter;
+import com.example.redisdemo.service.CacheAsideService;
+import com.example.redisdemo.service.CircuitBreaker;
+import com.example.redisdemo.service.HotKeyTracker;
+import com.example.redisdemo.service.NearCache;
+import com.example.redisdemo.service.StaleValueCache;
+import com.example.redisdemo.service.WriteBehindBuffer;
+import com.example.redisdemo.store.InMemoryKeyValueStore;
+import com.example.redisdemo.store.ShardedKeyValueStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/redis/stats")
+public class RedisStatsController {
+
+    @Autowired(required = false)
+    private NearCache nearCache;
+
+    @Autowired
+    private CompressingRedisSerializer compressingRedisSerializer;
+
+    @Autowired(required = false)
+    private InMemoryKeyValueStore inMemoryKeyValueStore;
+
+    @Autowired(required = false)
+    private ShardedKeyValueStore shardedKeyValueStore;
+
+    @Autowired
+    private WriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired(required = false)
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private CircuitBreaker circuitBreaker;
+
+    @Autowired
+    private StaleValueCache staleValueCache;
+
+    @Autowired
+    private CacheAsideService cacheAsideService;
+
+    @GetMapping("/near-cache")
+    public ResponseEntity<Map<String, Object>> nearCacheStats() {
+        if (nearCache == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("enabled", false);
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.ok(nearCache.stats());
+    }
+
+    @GetMapping("/compression")
+    public ResponseEntity<Map<String, Object>> compressionStats() {
+        return ResponseEntity.ok(compressingRedisSerializer.stats());
+    }
+
+    @GetMapping("/store")
+    public ResponseEntity<Map<String, Object>> storeStats() {
+        if (shardedKeyValueStore != null) {
+            return ResponseEntity.ok(shardedKeyValueStore.stats());
+        }
+        if (inMemoryKeyValueStore == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("engine", "redis");
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.ok(inMemoryKeyValueStore.stats());
+    }
+
+    @GetMapping("/write-behind")
+    public ResponseEntity<Map<String, Object>> writeBehindStats() {
+        return ResponseEntity.ok(writeBehindBuffer.stats());
+    }
+
+    @GetMapping("/hot-keys")
+    public ResponseEntity<Map<String, Object>> hotKeyStats() {
+        return ResponseEntity.ok(hotKeyTracker.stats());
+    }
+
+    @GetMapping("/limiter")
+    public ResponseEntity<Map<String, Object>> limiterStats() {
+        if (concurrencyLimiter == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("enabled", false);
+            return ResponseEntity.ok(response);
+        }
+        Map<String, Object> response = new HashMap<>(concurrencyLimiter.stats());
+        response.put("enabled", true);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/resilience")
+    public ResponseEntity<Map<String, Object>> resilienceStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("circuitBreaker", circuitBreaker.stats());
+        response.put("staleCopies", staleValueCache.stats());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/cache-aside")
+    public ResponseEntity<Map<String, Object>> cacheAsideStats() {
+        return ResponseEntity.ok(cacheAsideService.stats());
+    }
+}
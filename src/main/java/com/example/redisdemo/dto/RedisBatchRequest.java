@@ -0,0 +1,37 @@
+package com.example.redisdemo.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RedisBatchRequest {
+    private List<String> keys = new ArrayList<>();
+    private Map<String, RedisRequest> entries = new LinkedHashMap<>();
+
+    public RedisBatchRequest() {}
+
+    public RedisBatchRequest(List<String> keys) {
+        this.keys = keys;
+    }
+
+    public RedisBatchRequest(Map<String, RedisRequest> entries) {
+        this.entries = entries;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<String> keys) {
+        this.keys = keys;
+    }
+
+    public Map<String, RedisRequest> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(Map<String, RedisRequest> entries) {
+        this.entries = entries;
+    }
+}
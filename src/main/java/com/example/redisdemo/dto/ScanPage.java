@@ -0,0 +1,55 @@
+package com.example.redisdemo.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ScanPage {
+    private final List<String> keys;
+    private final List<Long> ttls;
+    private final String cursor;
+    private final boolean finished;
+
+    public ScanPage(List<String> keys, List<Long> ttls, String cursor, boolean finished) {
+        this.keys = keys;
+        this.ttls = ttls;
+        this.cursor = cursor;
+        this.finished = finished;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    // Null unless TTLs were requested.
+    public List<Long> getTtls() {
+        return ttls;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // NDJSON records for this page: one per key, then the cursor to resume from.
+    public List<Map<String, Object>> toLines() {
+        List<Map<String, Object>> lines = new ArrayList<>(keys.size() + 1);
+        for (int i = 0; i < keys.size(); i++) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("key", keys.get(i));
+            if (ttls != null) {
+                line.put("ttl", ttls.get(i));
+            }
+            lines.add(line);
+        }
+        Map<String, Object> cursorLine = new LinkedHashMap<>();
+        cursorLine.put("cursor", cursor);
+        cursorLine.put("finished", finished);
+        lines.add(cursorLine);
+        return lines;
+    }
+}
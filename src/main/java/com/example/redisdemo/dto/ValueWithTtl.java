@@ -0,0 +1,38 @@
+package com.example.redisdemo.dto;
+
+public class ValueWithTtl {
+    private final Object value;
+    private final long ttl;
+    private final long staleMillis;
+
+    public ValueWithTtl(Object value, long ttl) {
+        this(value, ttl, -1);
+    }
+
+    // staleMillis is the age of a local copy served while Redis was unavailable, -1 for a fresh read.
+    public ValueWithTtl(Object value, long ttl, long staleMillis) {
+        this.value = value;
+        this.ttl = ttl;
+        this.staleMillis = staleMillis;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public long getStaleMillis() {
+        return staleMillis;
+    }
+
+    public boolean isStale() {
+        return staleMillis >= 0;
+    }
+
+    public boolean isExists() {
+        return value != null;
+    }
+}
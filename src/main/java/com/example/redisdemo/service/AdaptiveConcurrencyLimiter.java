@@ -0,0 +1,153 @@
+package com.example.redisdemo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient concurrency limit for requests that reach Redis. Each completed request's latency is
+ * compared with a long-term average: while they stay within {@code TOLERANCE} the limit grows by
+ * about its square root, and when latency climbs the limit shrinks in proportion (at most by half
+ * per sample), so requests queue in front of the API instead of in Tomcat and Lettuce. Samples are
+ * ignored while less than half the limit is in use, and a failed request cuts the limit by 10%.
+ * Reads may use the whole limit and writes only {@code writeShare} of it, so writes are shed first.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority { READ, WRITE }
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    // Roughly the number of samples the long-term latency average covers.
+    private static final int LONG_WINDOW = 600;
+    private static final double DROP_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double writeShare;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    private double longRttNanos;
+
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double writeShare, MeterRegistry meterRegistry) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.writeShare = Math.min(1.0, Math.max(0.0, writeShare));
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.rejectedReads = rejected("read", meterRegistry);
+        this.rejectedWrites = rejected("write", meterRegistry);
+        Gauge.builder("redis.limiter.limit", this, limiter -> limiter.limit)
+                .description("Current concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("redis.limiter.inflight", inflight, AtomicInteger::get)
+                .description("Requests holding a permit")
+                .register(meterRegistry);
+    }
+
+    // Null when the request is over the limit for its priority.
+    public Permit tryAcquire(Priority priority) {
+        double current = limit;
+        int allowed = priority == Priority.READ ? (int) current : Math.max(1, (int) (current * writeShare));
+        while (true) {
+            int count = inflight.get();
+            if (count >= allowed) {
+                (priority == Priority.READ ? rejectedReads : rejectedWrites).increment();
+                return null;
+            }
+            if (inflight.compareAndSet(count, count + 1)) {
+                return new Permit(count + 1);
+            }
+        }
+    }
+
+    // Feeds one completed request into the limit: its latency, the requests in flight when it
+    // started, and whether it failed.
+    public void record(long rttNanos, int inflightAtStart, boolean dropped) {
+        if (dropped) {
+            lock.lock();
+            try {
+                limit = Math.max(minLimit, limit * DROP_FACTOR);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        // Another sample is being applied; losing this one is cheaper than waiting.
+        if (rttNanos <= 0 || !lock.tryLock()) {
+            return;
+        }
+        try {
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+            } else {
+                longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+            }
+            // After a slow spell the average would hold the limit high for a long time; pull it down.
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+            double current = limit;
+            if (inflightAtStart < current / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+            double next = current * gradient + Math.sqrt(current);
+            next = current * (1 - SMOOTHING) + next * SMOOTHING;
+            limit = Math.min(maxLimit, Math.max(minLimit, next));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("limit", getLimit());
+        result.put("writeLimit", Math.max(1, (int) (limit * writeShare)));
+        result.put("inflight", inflight.get());
+        result.put("rejectedReads", (long) rejectedReads.count());
+        result.put("rejectedWrites", (long) rejectedWrites.count());
+        return result;
+    }
+
+    private static Counter rejected(String priority, MeterRegistry meterRegistry) {
+        return Counter.builder("redis.limiter.rejected")
+                .description("Requests rejected by the concurrency limit")
+                .tag("priority", priority)
+                .register(meterRegistry);
+    }
+
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final int inflightAtStart;
+        private boolean released;
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        // dropped marks a request that failed, typically because Redis timed out.
+        public void release(boolean dropped) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inflight.decrementAndGet();
+            record(System.nanoTime() - startNanos, inflightAtStart, dropped);
+        }
+    }
+}
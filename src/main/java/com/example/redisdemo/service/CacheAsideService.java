@@ -0,0 +1,196 @@
+package com.example.redisdemo.service;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache-aside reads on top of {@link RedisService} that keep a popular key's expiry from turning
+ * into a miss storm at the origin. A hit is recomputed early with the XFetch rule: with delta the
+ * time the key's last load took, a read refreshes once {@code -delta * beta * ln(random)} reaches
+ * the remaining TTL, so refreshes get likelier as expiry nears and start sooner for slow loads.
+ * Whoever refreshes or fills a miss first takes a lock key with SET NX, so one caller across all
+ * nodes runs the loader; the others keep the current value, or on a miss wait up to
+ * {@code lockWait} for the winner's value. A waiter that runs out of time fails with
+ * {@link CacheFillTimeoutException} rather than load too, since a slow origin is exactly when
+ * every waiter runs out at once.
+ */
+@Service
+public class CacheAsideService {
+
+    static final String LOCK_SUFFIX = ":cache-aside-lock";
+    private static final long POLL_MILLIS = 20;
+    private static final long MAX_POLL_MILLIS = 250;
+    // Weight of the newest load in the average used for keys this node has not loaded yet.
+    private static final double SMOOTHING = 0.2;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.redis.cache-aside.beta:1.0}")
+    private double beta;
+
+    @Value("${app.redis.cache-aside.lock-lease:10s}")
+    private Duration lockLease;
+
+    @Value("${app.redis.cache-aside.lock-wait:6s}")
+    private Duration lockWait;
+
+    @Value("${app.redis.cache-aside.max-tracked-keys:10000}")
+    private long maxTrackedKeys;
+
+    private Cache<String, Long> loadNanos;
+    private volatile double averageLoadNanos;
+    private final Map<String, Counter> outcomes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        loadNanos = Caffeine.newBuilder().maximumSize(maxTrackedKeys).build();
+    }
+
+    // The cached value with its TTL in seconds, loaded and cached for ttl when missing. A loader
+    // returning null caches nothing and removes the key, which then reads as missing.
+    public ValueWithTtl getOrLoad(String key, Duration ttl, Supplier<Object> loader) {
+        ValueWithTtl current = redisService.getWithTtl(key);
+        if (current.isExists()) {
+            // A stale local copy means Redis is down, so there is nowhere to store a refresh.
+            if (current.isStale() || !refreshEarly(key, current.getTtl())) {
+                count("hit");
+                return current;
+            }
+            String token = tryLock(key);
+            if (token == null) {
+                count("hit");
+                return current;
+            }
+            try {
+                count("early_refresh");
+                return load(key, ttl, loader, true);
+            } catch (RuntimeException e) {
+                // The refresh was optional and the current value has not expired, so it still answers.
+                count("refresh_failed");
+                return current;
+            } finally {
+                unlock(key, token);
+            }
+        }
+
+        long deadline = System.nanoTime() + lockWait.toNanos();
+        long pollMillis = POLL_MILLIS;
+        while (true) {
+            String token = tryLock(key);
+            if (token != null) {
+                try {
+                    // The previous holder may have stored the value just before releasing the lock.
+                    ValueWithTtl filled = redisService.getWithTtl(key);
+                    if (filled.isExists()) {
+                        count("waited");
+                        return filled;
+                    }
+                    count("loaded");
+                    return load(key, ttl, loader, false);
+                } finally {
+                    unlock(key, token);
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                count("lock_timeout");
+                throw new CacheFillTimeoutException("No value for " + key + " after waiting " + lockWait.toMillis() + "ms for another load");
+            }
+            // Waiters back off, so a long load is not polled every few milliseconds by each of them.
+            sleep(pollMillis);
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+            ValueWithTtl filled = redisService.getWithTtl(key);
+            if (filled.isExists()) {
+                count("waited");
+                return filled;
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        outcomes.forEach((outcome, counter) -> result.put(outcome, (long) counter.count()));
+        result.put("trackedKeys", loadNanos.estimatedSize());
+        result.put("averageLoadMillis", averageLoadNanos / 1_000_000.0);
+        return result;
+    }
+
+    // XFetch on the remaining TTL; a key without expiry or a load time is never refreshed early.
+    boolean refreshEarly(String key, long ttlSeconds) {
+        if (ttlSeconds < 0) {
+            return false;
+        }
+        Long known = loadNanos.getIfPresent(key);
+        double delta = known != null ? known : averageLoadNanos;
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return -delta * beta * Math.log(random) >= TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    private ValueWithTtl load(String key, Duration ttl, Supplier<Object> loader, boolean cached) {
+        long start = System.nanoTime();
+        Object value = loader.get();
+        long elapsed = System.nanoTime() - start;
+        loadNanos.put(key, elapsed);
+        averageLoadNanos = averageLoadNanos == 0 ? elapsed : averageLoadNanos + SMOOTHING * (elapsed - averageLoadNanos);
+        if (value == null) {
+            if (cached) {
+                redisService.delete(key);
+            }
+            return new ValueWithTtl(null, -2);
+        }
+        long ttlSeconds = redisService.setAndGetTtl(key, value, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        return new ValueWithTtl(value, ttlSeconds);
+    }
+
+    // The lock's token, or null when another caller holds it. The lease frees the lock of a
+    // holder that died mid-load.
+    private String tryLock(String key) {
+        String token = UUID.randomUUID().toString();
+        return redisService.setIfAbsent(key + LOCK_SUFFIX, token, lockLease.toMillis(), TimeUnit.MILLISECONDS) ? token : null;
+    }
+
+    // Deletes the lock only while it still holds our token, in one atomic step, so a holder whose
+    // lease ran out does not free a lock someone else has taken since.
+    private void unlock(String key, String token) {
+        try {
+            redisService.compareAndDelete(key + LOCK_SUFFIX, token);
+        } catch (RuntimeException e) {
+            // The lease expires the lock.
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a cache fill", e);
+        }
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, name -> Counter.builder("redis.cache.aside")
+                .description("Cache-aside reads by outcome")
+                .tag("outcome", name)
+                .register(meterRegistry)).increment();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.redisdemo.service;
+
+/**
+ * Thrown by {@link CacheAsideService} when a miss waited {@code lock-wait} for another caller's
+ * load without the value appearing, instead of calling the origin as well.
+ */
+public class CacheFillTimeoutException extends RuntimeException {
+
+    public CacheFillTimeoutException(String message) {
+        super(message);
+    }
+}
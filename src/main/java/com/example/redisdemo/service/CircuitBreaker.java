@@ -0,0 +1,183 @@
+package com.example.redisdemo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code window} calls are kept; once at
+ * least {@code minCalls} are in and the share of failed or slow ones reaches
+ * {@code failureRateThreshold}, the breaker opens and calls fail at once with
+ * {@link CircuitOpenException} for {@code openDuration}. It then half-opens and lets
+ * {@code halfOpenCalls} trial calls through: one failure opens it again, all of them succeeding
+ * closes it. Only exceptions matching {@code isFailure} count; anything else means the backend
+ * answered.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> isFailure;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private final AtomicInteger trialPermits = new AtomicInteger();
+    private int trialSuccesses;
+
+    private final Counter rejected;
+    private final Counter opened;
+
+    public CircuitBreaker(int window, int minCalls, double failureRateThreshold, Duration slowCallThreshold, Duration openDuration,
+                          int halfOpenCalls, Predicate<Throwable> isFailure, MeterRegistry meterRegistry) {
+        this.outcomes = new boolean[Math.max(1, window)];
+        this.minCalls = Math.max(1, Math.min(minCalls, outcomes.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.isFailure = isFailure;
+        this.rejected = Counter.builder("redis.circuit.rejected")
+                .description("Calls failed fast because the circuit breaker was open")
+                .register(meterRegistry);
+        this.opened = Counter.builder("redis.circuit.opened")
+                .description("Times the circuit breaker opened")
+                .register(meterRegistry);
+        Gauge.builder("redis.circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        State acquired = acquire();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            onResult(acquired, isFailure.test(e));
+            throw e;
+        }
+        onResult(acquired, System.nanoTime() - start >= slowCallNanos);
+        return result;
+    }
+
+    public void call(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // The state, moving from open to half-open once openDuration has passed.
+    public State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            lock.lock();
+            try {
+                if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                    trialPermits.set(halfOpenCalls);
+                    trialSuccesses = 0;
+                    state = State.HALF_OPEN;
+                    log.info("Redis circuit breaker is half-open, letting {} trial calls through", halfOpenCalls);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return state;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            result.put("state", state().name());
+            result.put("calls", recorded);
+            result.put("failureRate", recorded == 0 ? 0.0 : (double) failures / recorded);
+        } finally {
+            lock.unlock();
+        }
+        result.put("opened", (long) opened.count());
+        result.put("rejected", (long) rejected.count());
+        return result;
+    }
+
+    private State acquire() {
+        State current = state();
+        if (current == State.CLOSED || (current == State.HALF_OPEN && trialPermits.getAndDecrement() > 0)) {
+            return current;
+        }
+        rejected.increment();
+        throw new CircuitOpenException("Redis circuit breaker is " + (current == State.OPEN ? "open" : "half-open"));
+    }
+
+    private void onResult(State acquired, boolean failed) {
+        lock.lock();
+        try {
+            if (acquired == State.HALF_OPEN) {
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                if (failed) {
+                    open("a trial call failed");
+                } else if (++trialSuccesses >= halfOpenCalls) {
+                    reset();
+                    state = State.CLOSED;
+                    log.info("Redis circuit breaker is closed");
+                }
+                return;
+            }
+            if (state != State.CLOSED) {
+                return;
+            }
+            if (recorded == outcomes.length) {
+                failures -= outcomes[position] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            outcomes[position] = failed;
+            failures += failed ? 1 : 0;
+            position = (position + 1) % outcomes.length;
+            if (recorded >= minCalls && (double) failures / recorded >= failureRateThreshold) {
+                open(failures + " of the last " + recorded + " calls failed or were slow");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open(String reason) {
+        reset();
+        openedAt = System.nanoTime();
+        state = State.OPEN;
+        opened.increment();
+        log.warn("Redis circuit breaker is open: {}", reason);
+    }
+
+    private void reset() {
+        position = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.redisdemo.service;
+
+/**
+ * Thrown instead of calling Redis while the {@link CircuitBreaker} is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
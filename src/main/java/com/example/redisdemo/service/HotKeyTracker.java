@@ -0,0 +1,261 @@
+package com.example.redisdemo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Streaming hot-key and big-key detection. Key accesses are sampled (one in {@code sampleRate})
+ * into a count-min sketch; a key whose estimate exceeds the smallest count of the current top
+ * {@code topK} becomes a candidate, and candidates are cut back to the top {@code topK} with a
+ * heap once there are twice as many. Serialized value sizes go into a log2 histogram, and the
+ * largest values seen for a key inside {@link #measuring} calls into a second top-K. Every
+ * {@code halfLife} all counts are halved, so the figures cover a decaying window of recent
+ * traffic. The recording paths take no locks and allocate nothing for keys below the top-K floor.
+ */
+public class HotKeyTracker implements AutoCloseable {
+
+    private static final int DEPTH = 4;
+    private static final int SIZE_BUCKETS = 32;
+
+    private final boolean enabled;
+    private final int width;
+    private final int sampleRate;
+    private final int topK;
+    private final Duration halfLife;
+
+    private final AtomicLongArray sketch;
+    private final AtomicLongArray sizes = new AtomicLongArray(SIZE_BUCKETS);
+    // Bumped by every sampled access, so a striped adder keeps request threads off one cache line.
+    private final LongAdder sampled = new LongAdder();
+    private final ConcurrentHashMap<String, Long> hotCandidates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> bigCandidates = new ConcurrentHashMap<>();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private volatile long hotFloor;
+    private volatile long bigFloor;
+
+    // The key whose value the current thread is (de)serializing, for big-key attribution.
+    private final ThreadLocal<String> measuredKey = new ThreadLocal<>();
+    private ScheduledExecutorService decayer;
+
+    public HotKeyTracker(boolean enabled, int width, int sampleRate, int topK, Duration halfLife) {
+        this.enabled = enabled;
+        this.width = Integer.highestOneBit(Math.max(64, width));
+        this.sampleRate = Math.max(1, sampleRate);
+        this.topK = Math.max(1, topK);
+        this.halfLife = halfLife;
+        this.sketch = new AtomicLongArray(enabled ? DEPTH * this.width : 0);
+    }
+
+    public void start() {
+        if (!enabled || decayer != null) {
+            return;
+        }
+        decayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-hot-keys-decay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = halfLife.toMillis();
+        decayer.scheduleAtFixedRate(this::decay, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordAccess(String key) {
+        if (!enabled || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return;
+        }
+        sampled.increment();
+        int hash1 = mix(key.hashCode());
+        int hash2 = mix(hash1) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + ((hash1 + row * hash2) & (width - 1));
+            estimate = Math.min(estimate, sketch.incrementAndGet(index));
+        }
+        if (estimate > hotFloor) {
+            offer(hotCandidates, key, estimate, true);
+        }
+    }
+
+    // Runs the call with key as the owner of any value the serializer sees on this thread.
+    public <T> T measuring(String key, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        String previous = measuredKey.get();
+        measuredKey.set(key);
+        try {
+            return call.get();
+        } finally {
+            measuredKey.set(previous);
+        }
+    }
+
+    public void measuring(String key, Runnable call) {
+        measuring(key, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // Called by the value serializer with the serialized size of every value written or read.
+    public void recordSize(int bytes) {
+        if (!enabled) {
+            return;
+        }
+        sizes.incrementAndGet(sizeBucket(bytes));
+        String key = measuredKey.get();
+        if (key != null && bytes > bigFloor) {
+            offer(bigCandidates, key, bytes, false);
+        }
+    }
+
+    // Halves every count; runs every halfLife on the decay thread.
+    public void decay() {
+        for (int i = 0; i < sketch.length(); i++) {
+            halve(sketch, i);
+        }
+        for (int i = 0; i < SIZE_BUCKETS; i++) {
+            halve(sizes, i);
+        }
+        // Subtracting half keeps increments that land in between, where a reset would drop them.
+        long total = sampled.sum();
+        sampled.add((total >>> 1) - total);
+        pruneLock.lock();
+        try {
+            hotCandidates.replaceAll((key, count) -> count >>> 1);
+            hotCandidates.values().removeIf(count -> count == 0);
+            hotFloor >>>= 1;
+            // Sizes do not decay: a big key drops out once it has not been seen for a whole window.
+            bigCandidates.clear();
+            bigFloor = 0;
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        if (!enabled) {
+            return result;
+        }
+        result.put("halfLife", halfLife.toString());
+        result.put("sampleRate", sampleRate);
+        long total = sampled.sum();
+        result.put("accesses", total * sampleRate);
+
+        List<Map<String, Object>> hotKeys = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : top(hotCandidates)) {
+            Map<String, Object> hotKey = new LinkedHashMap<>();
+            hotKey.put("key", entry.getKey());
+            hotKey.put("accesses", entry.getValue() * sampleRate);
+            hotKey.put("share", total == 0 ? 0.0 : Math.min(1.0, (double) entry.getValue() / total));
+            hotKeys.add(hotKey);
+        }
+        result.put("hotKeys", hotKeys);
+
+        List<Map<String, Object>> bigKeys = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : top(bigCandidates)) {
+            Map<String, Object> bigKey = new LinkedHashMap<>();
+            bigKey.put("key", entry.getKey());
+            bigKey.put("bytes", entry.getValue());
+            bigKeys.add(bigKey);
+        }
+        result.put("bigKeys", bigKeys);
+
+        // Bucket i holds sizes up to 2^i bytes; empty buckets are left out.
+        List<Map<String, Object>> histogram = new ArrayList<>();
+        for (int i = 0; i < SIZE_BUCKETS; i++) {
+            long count = sizes.get(i);
+            if (count > 0) {
+                Map<String, Object> bucket = new LinkedHashMap<>();
+                bucket.put("upToBytes", 1L << i);
+                bucket.put("count", count);
+                histogram.add(bucket);
+            }
+        }
+        result.put("valueSizes", histogram);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (decayer != null) {
+            decayer.shutdownNow();
+        }
+    }
+
+    // Hot counts only grow between decays and big-key sizes keep the largest value seen.
+    private void offer(ConcurrentHashMap<String, Long> candidates, String key, long value, boolean hot) {
+        Long previous = candidates.get(key);
+        if (previous == null || previous < value) {
+            candidates.put(key, value);
+        }
+        if (candidates.size() > 2 * topK && pruneLock.tryLock()) {
+            try {
+                long floor = prune(candidates);
+                if (hot) {
+                    hotFloor = floor;
+                } else {
+                    bigFloor = floor;
+                }
+            } finally {
+                pruneLock.unlock();
+            }
+        }
+    }
+
+    // Keeps the top topK candidates and returns the smallest value kept.
+    private long prune(ConcurrentHashMap<String, Long> candidates) {
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(topK + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            heap.offer(Map.entry(entry.getKey(), entry.getValue()));
+            if (heap.size() > topK) {
+                candidates.remove(heap.poll().getKey());
+            }
+        }
+        return heap.isEmpty() ? 0 : heap.peek().getValue();
+    }
+
+    private List<Map.Entry<String, Long>> top(Map<String, Long> candidates) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(candidates.size());
+        candidates.forEach((key, value) -> entries.add(Map.entry(key, value)));
+        entries.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return entries.subList(0, Math.min(topK, entries.size()));
+    }
+
+    private static void halve(AtomicLongArray counts, int index) {
+        long count;
+        do {
+            count = counts.get(index);
+        } while (count != 0 && !counts.compareAndSet(index, count, count >>> 1));
+    }
+
+    private static int sizeBucket(int bytes) {
+        return bytes <= 1 ? 0 : Math.min(SIZE_BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(bytes - 1));
+    }
+
+    // Murmur3's finalizer, so keys with similar hash codes spread over the rows.
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.redisdemo.service;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process L1 cache in front of Redis reads. Caffeine provides the W-TinyLFU admission and
+ * eviction; entries are weighed by their serialized size and expire with their Redis TTL.
+ * Staleness is prevented by a dedicated RESP3 connection with broadcast CLIENT TRACKING: Redis
+ * pushes an invalidation for every modified key, whichever client wrote it. While that
+ * connection is down the cache is bypassed and cleared.
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.near-cache.enabled", havingValue = "true")
+public class NearCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCache.class);
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    @Autowired
+    private LettuceConnectionFactory connectionFactory;
+
+    @Value("${app.redis.near-cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${app.redis.near-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.redis.near-cache.max-ttl:60s}")
+    private Duration maxTtl;
+
+    @Value("${app.redis.near-cache.prefixes:}")
+    private String[] prefixes;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong invalidations = new AtomicLong();
+    private Cache<String, Entry> cache;
+    private final TrackingReconnectListener reconnectListener = new TrackingReconnectListener();
+    private RedisClient client;
+    private StatefulRedisConnection<byte[], byte[]> trackingConnection;
+    private volatile boolean tracking;
+
+    @PostConstruct
+    public void start() {
+        // Every entry weighs at least maxBytes / maxEntries, so the byte bound also caps the entry count.
+        long minimumWeight = Math.max(1, maxBytes / maxEntries);
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minimumWeight, entry.size)))
+                .expireAfter(new EntryExpiry())
+                .recordStats()
+                .build();
+
+        if (!(connectionFactory.getNativeClient() instanceof RedisClient redisClient)) {
+            log.warn("Near cache needs a standalone Redis connection, near cache stays bypassed");
+            return;
+        }
+        client = redisClient;
+        client.addListener(reconnectListener);
+        trackingConnection = client.connect(ByteArrayCodec.INSTANCE);
+        trackingConnection.addListener((PushListener) this::onPush);
+        try {
+            trackingConnection.sync().clientTracking(trackingArgs());
+            tracking = true;
+        } catch (RuntimeException e) {
+            log.warn("CLIENT TRACKING is unavailable (RESP3 and Redis 6+ are required), near cache stays bypassed", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        tracking = false;
+        if (client != null) {
+            client.removeListener(reconnectListener);
+        }
+        if (trackingConnection != null) {
+            trackingConnection.close();
+        }
+    }
+
+    public ValueWithTtl get(String key) {
+        if (!tracking) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        long ttl = entry.redisExpiresAtNanos < 0
+                ? -1
+                : TimeUnit.NANOSECONDS.toSeconds(entry.redisExpiresAtNanos - System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500));
+        return new ValueWithTtl(entry.value, ttl);
+    }
+
+    // Captured before a Redis read; the result is cached only if no invalidation for the key
+    // arrived in between, so an older read can never overwrite a newer invalidation.
+    public long generation(String key) {
+        return generations.get(stripe(key));
+    }
+
+    public void put(String key, Object value, long ttl, int size, long generation) {
+        if (!tracking || value == null || ttl == 0 || ttl < -1) {
+            return;
+        }
+        long now = System.nanoTime();
+        long redisExpiresAtNanos = ttl > 0 ? now + TimeUnit.SECONDS.toNanos(ttl) : -1;
+        long expiresAtNanos = now + maxTtl.toNanos();
+        if (ttl > 0) {
+            // Redis rounds TTL to whole seconds, so expire locally half a second early.
+            expiresAtNanos = Math.min(expiresAtNanos, redisExpiresAtNanos - TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        Entry entry = new Entry(value, size, redisExpiresAtNanos, expiresAtNanos);
+        cache.asMap().compute(key, (k, existing) -> generations.get(stripe(k)) == generation ? entry : existing);
+    }
+
+    public void invalidate(String key) {
+        generations.incrementAndGet(stripe(key));
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", true);
+        result.put("tracking", tracking);
+        result.put("size", cache.estimatedSize());
+        result.put("weightedBytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("invalidations", invalidations.get());
+        return result;
+    }
+
+    private void onPush(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List<?> list) {
+            for (Object key : list) {
+                invalidate((String) key);
+            }
+        } else {
+            // A null key list means the whole keyspace was flushed.
+            invalidateAll();
+        }
+    }
+
+    private TrackingArgs trackingArgs() {
+        TrackingArgs args = TrackingArgs.Builder.enabled().bcast();
+        return prefixes.length > 0 ? args.prefixes(prefixes) : args;
+    }
+
+    private static int stripe(String key) {
+        return key.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private class TrackingReconnectListener implements RedisConnectionStateListener {
+
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+            if (connection == trackingConnection) {
+                // Tracking state lives on the server side of the old socket; re-register before serving again.
+                trackingConnection.async().clientTracking(trackingArgs()).thenRun(() -> tracking = true);
+            }
+        }
+
+        @Override
+        public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+            if (connection == trackingConnection) {
+                // Invalidations may be lost while disconnected, so nothing cached so far can be trusted.
+                tracking = false;
+                invalidateAll();
+            }
+        }
+    }
+
+    private static class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return Math.max(0, entry.expiresAtNanos - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final int size;
+        private final long redisExpiresAtNanos;
+        private final long expiresAtNanos;
+
+        private Entry(Object value, int size, long redisExpiresAtNanos, long expiresAtNanos) {
+            this.value = value;
+            this.size = size;
+            this.redisExpiresAtNanos = redisExpiresAtNanos;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.redisdemo.service;
+
+import com.example.redisdemo.store.ChunkManifest;
+import com.example.redisdemo.store.RedisScriptRegistry;
+import com.example.redisdemo.store.RedisScriptRegistry.Script;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary values stored as-is, without the JSON serializer, streamed in {@code chunkSize} pieces so
+ * a request holds one chunk in memory however large the value is. An upload is appended to a
+ * temporary key that is renamed over the target once complete, so readers never see a partial
+ * value; a temporary key left by a failed upload expires after {@code uploadTtl}. Reads use
+ * GETRANGE per chunk, so a value replaced while it is being streamed can come out mixed. A large
+ * value the Redis engine split into chunks is not readable here, since the key holds only its
+ * manifest; overwriting it drops the chunks like any other write would. Both only apply while
+ * large values are enabled and the manifest's first chunk exists.
+ */
+@Service
+@ConditionalOnProperty(name = "app.redis.store", havingValue = "redis", matchIfMissing = true)
+public class RawValueService {
+
+    @Autowired
+    private RedisTemplate<String, byte[]> rawRedisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RedisScriptRegistry scripts;
+
+    @Value("${app.redis.raw.chunk-size:65536}")
+    private int chunkSize;
+
+    @Value("${app.redis.raw.upload-ttl:10m}")
+    private Duration uploadTtl;
+
+    @Value("${app.redis.large-value.enabled:false}")
+    private boolean largeValues;
+
+    // Value length in bytes, or -1 when the key does not exist. Throws
+    // InvalidDataAccessApiUsageException when the key holds a chunked value's manifest.
+    public long length(String key) {
+        return timer("raw_length").record(() -> rawRedisTemplate.execute((RedisCallback<Long>) connection -> {
+            byte[] rawKey = rawKey(key);
+            Long length = connection.stringCommands().strLen(rawKey);
+            if (largeValues && length != null && length == ChunkManifest.LENGTH
+                    && manifest(connection, key, connection.stringCommands().getRange(rawKey, 0, ChunkManifest.LENGTH - 1)) != null) {
+                throw new InvalidDataAccessApiUsageException(key + " holds a chunked value; read it with GET /api/redis/" + key);
+            }
+            if (length != null && length > 0) {
+                return length;
+            }
+            return Boolean.TRUE.equals(connection.keyCommands().exists(rawKey)) ? 0L : -1L;
+        }));
+    }
+
+    // Writes bytes start to end (inclusive) of the value to out, one GETRANGE per chunk.
+    public void read(String key, long start, long end, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            byte[] rawKey = rawKey(key);
+            for (long position = start; position <= end; position += chunkSize) {
+                long from = position;
+                long to = Math.min(end, from + chunkSize - 1);
+                byte[] chunk = rawRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+                        connection.stringCommands().getRange(rawKey, from, to));
+                if (chunk == null || chunk.length == 0) {
+                    // The value was shortened or removed mid-stream.
+                    break;
+                }
+                out.write(chunk);
+            }
+            out.flush();
+        } finally {
+            sample.stop(timer("raw_get"));
+        }
+    }
+
+    // Returns the number of bytes stored. A timeout of zero or less stores the value without expiry.
+    public long write(String key, InputStream in, long timeout, TimeUnit unit) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        byte[] rawKey = rawKey(key);
+        byte[] uploadKey = rawKey(ChunkManifest.uploadKey(key));
+        try {
+            byte[] buffer = new byte[chunkSize];
+            long total = 0;
+            boolean first = true;
+            int read;
+            do {
+                read = in.readNBytes(buffer, 0, chunkSize);
+                // Lettuce takes whole arrays; only the last, partial chunk is copied.
+                byte[] chunk = read == chunkSize ? buffer : Arrays.copyOf(buffer, read);
+                if (first) {
+                    rawRedisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                            .set(uploadKey, chunk, Expiration.from(uploadTtl), SetOption.upsert()));
+                    first = false;
+                } else if (read > 0) {
+                    rawRedisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().append(uploadKey, chunk));
+                }
+                total += read;
+            } while (read == chunkSize);
+
+            // The final TTL goes on the upload key, so the value appears with it in one RENAME. The
+            // script does both and returns the head of the value it replaced in the same step.
+            long millis = timeout > 0 && unit != null ? unit.toMillis(timeout) : 0;
+            ChunkManifest previous = rawRedisTemplate.execute((RedisCallback<ChunkManifest>) connection -> {
+                List<Object> reply = scripts.eval(nativeCommands(connection), Script.REPLACE, ScriptOutputType.MULTI, commandTimeout(),
+                        new byte[][] {rawKey, uploadKey}, ChunkManifest.REPLACE_RENAME, number(ChunkManifest.LENGTH), number(millis));
+                return largeValues ? manifest(connection, key, (byte[]) reply.get(0)) : null;
+            });
+            if (previous != null) {
+                byte[][] chunkKeys = new byte[previous.chunks()][];
+                for (int i = 0; i < chunkKeys.length; i++) {
+                    chunkKeys[i] = rawKey(previous.chunkKey(key, i));
+                }
+                rawRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().unlink(chunkKeys));
+            }
+            return total;
+        } catch (IOException | RuntimeException e) {
+            try {
+                rawRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(uploadKey));
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        } finally {
+            sample.stop(timer("raw_put"));
+        }
+    }
+
+    // A manifest, if the bytes have its shape and its first chunk exists; raw bytes can have the
+    // shape but have no chunks.
+    private static ChunkManifest manifest(RedisConnection connection, String key, byte[] head) {
+        ChunkManifest manifest = ChunkManifest.parse(head);
+        return manifest != null && Boolean.TRUE.equals(connection.keyCommands().exists(rawKey(manifest.chunkKey(key, 0)))) ? manifest : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisClusterAsyncCommands<byte[], byte[]> nativeCommands(RedisConnection connection) {
+        return (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+
+    private long commandTimeout() {
+        return ((LettuceConnectionFactory) rawRedisTemplate.getRequiredConnectionFactory()).getTimeout();
+    }
+
+    private static byte[] number(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("redis.raw.operation")
+                .description("RawValueService call latency, streaming included")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
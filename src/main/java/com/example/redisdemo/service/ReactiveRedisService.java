@@ -0,0 +1,183 @@
+package com.example.redisdemo.service;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.store.ChunkManifest;
+import com.example.redisdemo.store.KeyValueStore;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis access for the {@code reactive} profile. Values are read and written whole: chunked large
+ * values are not supported, so {@code app.redis.large-value.enabled} is rejected at startup, and
+ * this profile must not share a keyspace with instances that have it on. Scans still skip chunk
+ * and upload keys.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveRedisService {
+
+    @Autowired
+    private ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    @Autowired
+    private LettuceConnectionFactory connectionFactory;
+
+    @Value("${app.redis.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${app.redis.large-value.enabled:false}")
+    private boolean largeValues;
+
+    @PostConstruct
+    public void start() {
+        if (largeValues) {
+            throw new IllegalStateException("app.redis.large-value.enabled is not supported by the reactive profile");
+        }
+    }
+
+    public Mono<Long> setAndGetTtl(String key, Object value, long timeout, TimeUnit unit) {
+        Expiration expiration = KeyValueStore.expiration(timeout, unit);
+        return reactiveRedisTemplate.createMono(connection ->
+                        connection.stringCommands().set(rawKey(key), rawValue(value), expiration, SetOption.upsert()))
+                .thenReturn(KeyValueStore.effectiveTtl(expiration));
+    }
+
+    public Mono<ValueWithTtl> getWithTtl(String key) {
+        // Both commands are subscribed together on the shared connection, so they share one round trip.
+        return reactiveRedisTemplate.createMono(connection -> Mono.zip(
+                connection.stringCommands().get(rawKey(key))
+                        .map(raw -> Optional.of(deserialize(raw)))
+                        .defaultIfEmpty(Optional.empty()),
+                connection.keyCommands().ttl(rawKey(key)),
+                (value, ttl) -> new ValueWithTtl(value.orElse(null), ttl)));
+    }
+
+    // Batch operations keep at most one chunk of commands in flight on the shared connection.
+    public Mono<Map<String, ValueWithTtl>> multiGetWithTtl(Collection<String> keys) {
+        return Flux.fromIterable(new LinkedHashSet<>(keys))
+                .flatMapSequential(key -> getWithTtl(key).map(result -> Map.entry(key, result)), batchChunkSize)
+                .collect(LinkedHashMap::new, (results, entry) -> results.put(entry.getKey(), entry.getValue()));
+    }
+
+    public Mono<Map<String, Long>> multiSet(Map<String, RedisRequest> entries) {
+        return Flux.fromIterable(entries.entrySet())
+                .flatMapSequential(entry -> {
+                    RedisRequest request = entry.getValue();
+                    return setAndGetTtl(entry.getKey(), request.getValue(), request.getTimeout(), request.getTimeUnit())
+                            .map(ttl -> Map.entry(entry.getKey(), ttl));
+                }, batchChunkSize)
+                .collect(LinkedHashMap::new, (results, entry) -> results.put(entry.getKey(), entry.getValue()));
+    }
+
+    public Mono<Map<String, Boolean>> multiDelete(Collection<String> keys) {
+        return Flux.fromIterable(new LinkedHashSet<>(keys))
+                .flatMapSequential(key -> delete(key).map(deleted -> Map.entry(key, deleted)), batchChunkSize)
+                .collect(LinkedHashMap::new, (results, entry) -> results.put(entry.getKey(), entry.getValue()));
+    }
+
+    // Same contract as RedisService.scan: the next page is fetched only when downstream asks for it.
+    // Spring's reactive connection does not expose a resumable SCAN cursor, so this goes through
+    // the shared native connection, whose futures are adapted to Monos without blocking.
+    public Flux<ScanPage> scan(String match, int count, String cursor, boolean withTtl, long limit) {
+        ScanArgs args = ScanArgs.Builder.limit(count);
+        if (match != null) {
+            args.match(match);
+        }
+        return Flux.using(connectionFactory::getConnection, connection -> {
+                    RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+                    AtomicLong emitted = new AtomicLong();
+                    return scanPage(commands, ScanCursor.of(cursor), args, withTtl)
+                            .expand(page -> page.isFinished() || (limit > 0 && emitted.addAndGet(page.getKeys().size()) >= limit)
+                                    ? Mono.empty()
+                                    : scanPage(commands, ScanCursor.of(page.getCursor()), args, withTtl));
+                }, RedisConnection::close)
+                // Opening the shared connection may block on the first call.
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Object> get(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key);
+    }
+
+    public Mono<Boolean> delete(String key) {
+        return reactiveRedisTemplate.delete(key).map(count -> count > 0);
+    }
+
+    public Mono<Boolean> hasKey(String key) {
+        return reactiveRedisTemplate.hasKey(key);
+    }
+
+    public Mono<Boolean> expire(String key, long timeout, TimeUnit unit) {
+        return reactiveRedisTemplate.expire(key, Duration.of(timeout, unit.toChronoUnit()));
+    }
+
+    public Mono<Long> getExpire(String key) {
+        return reactiveRedisTemplate.createMono(connection -> connection.keyCommands().ttl(rawKey(key)));
+    }
+
+    private Mono<ScanPage> scanPage(RedisClusterAsyncCommands<byte[], byte[]> commands, ScanCursor cursor, ScanArgs args, boolean withTtl) {
+        return Mono.fromCompletionStage(() -> commands.scan(cursor, args)).flatMap(result -> {
+            List<String> keys = new ArrayList<>();
+            List<byte[]> rawKeys = new ArrayList<>();
+            for (byte[] raw : result.getKeys()) {
+                String key = reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().read(ByteBuffer.wrap(raw));
+                if (!ChunkManifest.isChunkKey(key) && !ChunkManifest.isUploadKey(key)) {
+                    keys.add(key);
+                    rawKeys.add(raw);
+                }
+            }
+            if (!withTtl) {
+                return Mono.just(new ScanPage(keys, null, result.getCursor(), result.isFinished()));
+            }
+            return Flux.fromIterable(rawKeys)
+                    .flatMapSequential(raw -> Mono.fromCompletionStage(() -> commands.ttl(raw)))
+                    .collectList()
+                    .map(ttls -> new ScanPage(keys, ttls, result.getCursor(), result.isFinished()));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisClusterAsyncCommands<byte[], byte[]> nativeCommands(RedisConnection connection) {
+        return (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+
+    private ByteBuffer rawKey(String key) {
+        return reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(key);
+    }
+
+    private ByteBuffer rawValue(Object value) {
+        return reactiveRedisTemplate.getSerializationContext().getValueSerializationPair().write(value);
+    }
+
+    private Object deserialize(ByteBuffer raw) {
+        return reactiveRedisTemplate.getSerializationContext().getValueSerializationPair().read(raw);
+    }
+}
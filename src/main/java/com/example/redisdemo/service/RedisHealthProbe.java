@@ -0,0 +1,255 @@
+package com.example.redisdemo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background latency probe, so health checks read a cached result instead of sending commands on
+ * the request path. Every {@code interval} a scheduler thread starts a ping on a separate thread,
+ * unless the previous one is still running; a ping running longer than {@code timeout} counts as
+ * failed, once for every {@code timeout} it stays hung, so a ping that never returns still reaches
+ * {@code failureThreshold}. The latencies of the last {@code window} pings, failures included, are kept.
+ *
+ * <p>Readiness fails after {@code failureThreshold} consecutive failed pings or when the p99 of the
+ * window crosses {@code maxP99}, so an instance can shed traffic while Redis is slowing down. The
+ * p99 only counts once the window holds 100 pings (or is full), since the p99 of fewer samples is
+ * just their maximum.
+ * Liveness only fails when the scheduler itself stops running: restarting the application does
+ * not help a slow or unreachable Redis.
+ */
+public class RedisHealthProbe implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisHealthProbe.class);
+
+    private final Runnable ping;
+    private final long intervalNanos;
+    private final long timeoutNanos;
+    private final long maxP99Nanos;
+    private final int failureThreshold;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] samples;
+    private int sampleCount;
+    private int nextSample;
+    private int consecutiveFailures;
+    private long lastLatencyNanos = -1;
+    private String lastError;
+    private long p99Nanos = -1;
+    private CompletableFuture<Void> inFlight;
+    private long inFlightStart;
+    private long inFlightTimeouts;
+
+    private volatile boolean ready;
+    private volatile String reason = "No ping completed yet";
+    private volatile long lastTick = System.nanoTime();
+
+    private final Timer success;
+    private final Timer failure;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService pinger;
+
+    public RedisHealthProbe(Runnable ping, Duration interval, Duration timeout, int window, Duration maxP99,
+                            int failureThreshold, MeterRegistry meterRegistry) {
+        this.ping = ping;
+        this.intervalNanos = interval.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.maxP99Nanos = maxP99.toNanos();
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.samples = new long[Math.max(1, window)];
+        this.success = timer("success", meterRegistry);
+        this.failure = timer("failure", meterRegistry);
+        Gauge.builder("redis.health.ready", this, probe -> probe.isReady() ? 1 : 0)
+                .description("1 while the health probe reports the store ready")
+                .register(meterRegistry);
+    }
+
+    // Waits up to timeout for the first ping, so readiness is known once the application starts.
+    public void start() {
+        if (scheduler != null) {
+            return;
+        }
+        pinger = Executors.newSingleThreadExecutor(daemon("redis-health-ping"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("redis-health-probe"));
+        CompletableFuture<Void> first = startPing();
+        try {
+            first.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Recorded by the ping itself or by the first tick.
+        }
+        scheduler.scheduleWithFixedDelay(this::tick, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public String reason() {
+        return reason;
+    }
+
+    // False once the scheduler has missed several ticks.
+    public boolean isLive() {
+        return scheduler != null && !scheduler.isShutdown()
+                && System.nanoTime() - lastTick < 3 * intervalNanos + timeoutNanos;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("ready", ready);
+            stats.put("reason", reason);
+            stats.put("lastLatencyMs", millis(lastLatencyNanos));
+            stats.put("p99Ms", millis(p99Nanos));
+            stats.put("maxP99Ms", millis(maxP99Nanos));
+            stats.put("samples", sampleCount);
+            stats.put("consecutiveFailures", consecutiveFailures);
+            stats.put("lastError", lastError);
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            pinger.shutdownNow();
+        }
+    }
+
+    void tick() {
+        lastTick = System.nanoTime();
+        try {
+            lock.lock();
+            try {
+                if (inFlight != null && !inFlight.isDone()) {
+                    // A hung ping fails once per elapsed timeout; the next one starts when it returns.
+                    long elapsed = lastTick - inFlightStart;
+                    while (inFlightTimeouts < elapsed / timeoutNanos) {
+                        inFlightTimeouts++;
+                        record(elapsed, "Ping timed out after " + millis(elapsed) + "ms");
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            startPing();
+        } catch (RuntimeException e) {
+            // Never let the scheduler die, liveness depends on it.
+            log.warn("Health probe tick failed", e);
+        }
+    }
+
+    private CompletableFuture<Void> startPing() {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            inFlightStart = start;
+            inFlightTimeouts = 0;
+            inFlight = CompletableFuture.runAsync(() -> {
+                String error = null;
+                try {
+                    ping.run();
+                } catch (RuntimeException e) {
+                    error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                }
+                long latency = System.nanoTime() - start;
+                if (error == null && latency >= timeoutNanos) {
+                    error = "Ping took " + millis(latency) + "ms, over the " + millis(timeoutNanos) + "ms timeout";
+                }
+                lock.lock();
+                try {
+                    // A ping already recorded as timed out is not counted twice.
+                    if (inFlightTimeouts == 0) {
+                        record(latency, error);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }, pinger);
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held.
+    private void record(long latencyNanos, String error) {
+        (error == null ? success : failure).record(latencyNanos, TimeUnit.NANOSECONDS);
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % samples.length;
+        sampleCount = Math.min(sampleCount + 1, samples.length);
+        lastLatencyNanos = latencyNanos;
+        long[] window = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(window);
+        p99Nanos = window[(int) Math.ceil(window.length * 0.99) - 1];
+
+        boolean wasReady = ready;
+        if (error != null) {
+            consecutiveFailures++;
+            lastError = error;
+        } else {
+            consecutiveFailures = 0;
+        }
+        boolean nowReady = false;
+        String nowReason;
+        if (consecutiveFailures >= failureThreshold) {
+            nowReason = consecutiveFailures + " consecutive pings failed: " + lastError;
+        } else if (sampleCount >= Math.min(samples.length, 100) && p99Nanos > maxP99Nanos) {
+            nowReason = "Ping p99 " + millis(p99Nanos) + "ms is over " + millis(maxP99Nanos) + "ms";
+        } else if (error != null && !wasReady) {
+            // Not ready until a ping has succeeded.
+            nowReason = "Ping failed: " + error;
+        } else {
+            nowReady = true;
+            nowReason = null;
+        }
+        // The reason is published first, so a reader that sees a readiness change also sees its reason.
+        reason = nowReason;
+        ready = nowReady;
+        if (wasReady != nowReady) {
+            log.warn("Redis health probe is now {}{}", nowReady ? "ready" : "not ready", nowReady ? "" : ": " + nowReason);
+        }
+    }
+
+    private static Timer timer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("redis.health.ping")
+                .description("Latency of the background health probe's pings")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static double millis(long nanos) {
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+}
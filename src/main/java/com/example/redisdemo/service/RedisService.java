@@ -1,42 +1,259 @@
 package com.example.redisdemo.service;
 
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.store.KeyValueStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class RedisService {
 
+    public static final int MAX_SCAN_COUNT = 10000;
+
+    @Autowired
+    private KeyValueStore store;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HotKeyTracker hotKeys;
+
+    @Autowired
+    private CircuitBreaker circuitBreaker;
+
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private StaleValueCache staleValues;
+
+    @Value("${app.redis.resilience.enabled:true}")
+    private boolean resilienceEnabled;
+
+    @Value("${app.redis.single-flight.enabled:true}")
+    private boolean singleFlightEnabled;
+
+    @Value("${app.redis.single-flight.max-wait:500ms}")
+    private Duration singleFlightMaxWait;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private SingleFlight<ValueWithTtl> reads;
+
+    @PostConstruct
+    public void start() {
+        reads = new SingleFlight<>("get_with_ttl", singleFlightMaxWait, meterRegistry);
+    }
 
     public void set(String key, Object value) {
-        redisTemplate.opsForValue().set(key, value);
+        hotKeys.recordAccess(key);
+        guarded(() -> timer("set").record(() -> hotKeys.measuring(key, () -> store.set(key, value, Expiration.persistent()))));
+        forget(key);
     }
 
     public void set(String key, Object value, long timeout, TimeUnit unit) {
-        redisTemplate.opsForValue().set(key, value, timeout, unit);
+        hotKeys.recordAccess(key);
+        guarded(() -> timer("set").record(() -> hotKeys.measuring(key, () -> store.set(key, value, KeyValueStore.expiration(timeout, unit)))));
+        forget(key);
+    }
+
+    public long setAndGetTtl(String key, Object value, long timeout, TimeUnit unit) {
+        hotKeys.recordAccess(key);
+        long ttl = guarded(() -> timer("set").record(() -> {
+            Expiration expiration = KeyValueStore.expiration(timeout, unit);
+            hotKeys.measuring(key, () -> store.set(key, value, expiration));
+            return KeyValueStore.effectiveTtl(expiration);
+        }));
+        forget(key);
+        return ttl;
+    }
+
+    public boolean setIfAbsent(String key, Object value, long timeout, TimeUnit unit) {
+        hotKeys.recordAccess(key);
+        boolean stored = guarded(() -> timer("set_if_absent").record(() -> store.setIfAbsent(key, value, KeyValueStore.expiration(timeout, unit))));
+        if (stored) {
+            forget(key);
+        }
+        return stored;
     }
 
     public Object get(String key) {
-        return redisTemplate.opsForValue().get(key);
+        hotKeys.recordAccess(key);
+        return guarded(() -> timer("get").record(() -> hotKeys.measuring(key, () -> store.get(key))));
+    }
+
+    // While the circuit breaker is not closed, a key with a local copy is answered from it, and
+    // refreshed in the background once the breaker half-opens. A failed read falls back to the copy.
+    public ValueWithTtl getWithTtl(String key) {
+        hotKeys.recordAccess(key);
+        if (!resilienceEnabled) {
+            return load(key);
+        }
+        CircuitBreaker.State state = circuitBreaker.state();
+        if (state != CircuitBreaker.State.CLOSED) {
+            ValueWithTtl stale = staleValues.get(key);
+            if (stale != null) {
+                if (state == CircuitBreaker.State.HALF_OPEN) {
+                    staleValues.refreshInBackground(key, () -> staleValues.put(key, circuitBreaker.call(() -> load(key))));
+                }
+                return stale;
+            }
+        }
+        try {
+            ValueWithTtl result = circuitBreaker.call(() -> load(key));
+            staleValues.put(key, result);
+            return result;
+        } catch (RuntimeException e) {
+            ValueWithTtl stale = staleValues.get(key);
+            if (stale == null) {
+                throw e;
+            }
+            return stale;
+        }
+    }
+
+    // Concurrent reads of one key, hits and misses alike, share a single store round trip and decode.
+    private ValueWithTtl load(String key) {
+        if (!singleFlightEnabled) {
+            return timer("get_with_ttl").record(() -> hotKeys.measuring(key, () -> store.getWithTtl(key)));
+        }
+        return timer("get_with_ttl").record(() -> reads.load(key, () -> hotKeys.measuring(key, () -> store.getWithTtl(key))));
+    }
+
+    public Map<String, ValueWithTtl> multiGetWithTtl(Collection<String> keys) {
+        keys.forEach(hotKeys::recordAccess);
+        return guarded(() -> timer("batch_get").record(() -> store.multiGetWithTtl(keys)));
+    }
+
+    public Map<String, Long> multiSet(Map<String, RedisRequest> entries) {
+        entries.keySet().forEach(hotKeys::recordAccess);
+        return guarded(() -> timer("batch_set").record(() -> {
+            store.multiSet(entries);
+            Map<String, Long> results = new LinkedHashMap<>();
+            entries.forEach((key, request) -> {
+                forget(key);
+                results.put(key, KeyValueStore.effectiveTtl(KeyValueStore.expiration(request.getTimeout(), request.getTimeUnit())));
+            });
+            return results;
+        }));
+    }
+
+    public Map<String, Boolean> multiDelete(Collection<String> keys) {
+        keys.forEach(hotKeys::recordAccess);
+        Map<String, Boolean> results = guarded(() -> timer("batch_delete").record(() -> store.multiDelete(keys)));
+        keys.forEach(this::forget);
+        return results;
+    }
+
+    // Walks the keyspace with SCAN, handing each page to the consumer before the next one is
+    // fetched, so memory stays bounded by one page however large the keyspace is. Stops when the
+    // scan finishes or once at least limit keys were handed out (limit <= 0 means no limit); the
+    // last page's cursor resumes the scan.
+    public void scan(String match, int count, String cursor, boolean withTtl, long limit, Consumer<ScanPage> consumer) {
+        long emitted = 0;
+        ScanPage page;
+        do {
+            String from = cursor;
+            page = guarded(() -> store.scan(match, count, from, withTtl));
+            emitted += page.getKeys().size();
+            consumer.accept(page);
+            cursor = page.getCursor();
+        } while (!page.isFinished() && (limit <= 0 || emitted < limit));
     }
 
     public boolean delete(String key) {
-        return Boolean.TRUE.equals(redisTemplate.delete(key));
+        hotKeys.recordAccess(key);
+        boolean deleted = guarded(() -> timer("delete").record(() -> store.delete(key)));
+        forget(key);
+        return deleted;
     }
 
     public boolean hasKey(String key) {
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        hotKeys.recordAccess(key);
+        return guarded(() -> timer("exists").record(() -> store.hasKey(key)));
     }
 
     public boolean expire(String key, long timeout, TimeUnit unit) {
-        return Boolean.TRUE.equals(redisTemplate.expire(key, timeout, unit));
+        hotKeys.recordAccess(key);
+        boolean updated = guarded(() -> timer("expire").record(() -> store.expire(key, timeout, unit)));
+        forget(key);
+        return updated;
     }
 
     public long getExpire(String key) {
-        return redisTemplate.getExpire(key);
+        hotKeys.recordAccess(key);
+        return guarded(() -> timer("ttl").record(() -> store.getExpire(key)));
+    }
+
+    // The compound operations below are single atomic steps in every engine; on Redis each is one
+    // EVALSHA round trip.
+    public ValueWithTtl increment(String key, long delta, long timeout, TimeUnit unit) {
+        hotKeys.recordAccess(key);
+        ValueWithTtl result = guarded(() -> timer("increment").record(() -> store.increment(key, delta, KeyValueStore.expiration(timeout, unit))));
+        forget(key);
+        return result;
+    }
+
+    public boolean compareAndSet(String key, Object expected, Object value, long timeout, TimeUnit unit) {
+        hotKeys.recordAccess(key);
+        boolean swapped = guarded(() -> timer("compare_and_set").record(() -> hotKeys.measuring(key,
+                () -> store.compareAndSet(key, expected, value, KeyValueStore.expiration(timeout, unit)))));
+        forget(key);
+        return swapped;
+    }
+
+    public boolean compareAndDelete(String key, Object expected) {
+        boolean deleted = guarded(() -> timer("compare_and_delete").record(() -> store.compareAndDelete(key, expected)));
+        forget(key);
+        return deleted;
+    }
+
+    public ValueWithTtl getAndTouch(String key, long timeout, TimeUnit unit) {
+        hotKeys.recordAccess(key);
+        ValueWithTtl result = guarded(() -> timer("get_and_touch").record(() -> hotKeys.measuring(key,
+                () -> store.getAndTouch(key, KeyValueStore.expiration(timeout, unit)))));
+        forget(key);
+        return result;
+    }
+
+    // Store calls go through the circuit breaker, so while it is open they fail at once instead of
+    // each waiting for the Redis command timeout.
+    private <T> T guarded(Supplier<T> call) {
+        return resilienceEnabled ? circuitBreaker.call(call) : call.get();
+    }
+
+    private void guarded(Runnable call) {
+        if (resilienceEnabled) {
+            circuitBreaker.call(call);
+        } else {
+            call.run();
+        }
+    }
+
+    // A write through this instance replaces whatever a concurrent read or the local copy holds.
+    private void forget(String key) {
+        reads.forget(key);
+        staleValues.invalidate(key);
+    }
+
+    // One timer per operation, covering serialization, the near cache and the store's round trips.
+    private Timer timer(String operation) {
+        return timers.computeIfAbsent(operation, name -> Timer.builder("redis.operation")
+                .description("RedisService call latency")
+                .tag("operation", name)
+                .register(meterRegistry));
     }
 }
@@ -0,0 +1,82 @@
+package com.example.redisdemo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the load and every caller
+ * that arrives while it is in flight waits for that result, hits and misses alike, instead of
+ * issuing its own. A waiter gives up after {@code maxWait} and loads on its own, so one stuck
+ * load cannot hold every reader of a key for longer than that.
+ */
+public class SingleFlight<V> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public SingleFlight(String name, Duration maxWait, MeterRegistry meterRegistry) {
+        this.maxWaitNanos = maxWait.toNanos();
+        this.coalesced = Counter.builder("redis.single.flight.coalesced")
+                .description("Reads served by another caller's in-flight load")
+                .tag("operation", name)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("redis.single.flight.timeouts")
+                .description("Coalesced reads that gave up waiting and loaded on their own")
+                .tag("operation", name)
+                .register(meterRegistry);
+    }
+
+    public V load(String key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            return await(inFlight, loader);
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    // After a write, later reads must not join a load that may have started before it.
+    public void forget(String key) {
+        flights.remove(key);
+    }
+
+    private V await(CompletableFuture<V> inFlight, Supplier<V> loader) {
+        coalesced.increment();
+        try {
+            return inFlight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight read", e);
+        }
+    }
+}
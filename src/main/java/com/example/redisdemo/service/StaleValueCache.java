@@ -0,0 +1,193 @@
+package com.example.redisdemo.service;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded local copy of recently read values, answered while Redis is unavailable. Copies are
+ * dropped after {@code maxAge} and once their Redis TTL would have run out, so a stale answer is
+ * never older than {@code maxAge} and never outlives the key. Copies are weighed by an estimate of
+ * their heap size and bounded by {@code maxBytes} as well as {@code maxEntries}; a value estimated
+ * over {@code maxEntryBytes} is not copied at all. Refreshes run on one background thread, at most
+ * one per key, and are dropped when {@code REFRESH_QUEUE} are already waiting.
+ */
+public class StaleValueCache implements AutoCloseable {
+
+    private static final int REFRESH_QUEUE = 100;
+
+    private final long maxEntryBytes;
+    private final Cache<String, Copy> copies;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor refresher;
+    private final Counter served;
+    private final Counter skipped;
+
+    public StaleValueCache(long maxEntries, long maxBytes, long maxEntryBytes, Duration maxAge, MeterRegistry meterRegistry) {
+        this.maxEntryBytes = maxEntryBytes;
+        // As in the near cache, every copy weighs at least maxBytes / maxEntries, so the byte bound
+        // also caps the entry count.
+        long minimumWeight = Math.max(1, maxBytes / Math.max(1, maxEntries));
+        this.copies = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Copy copy) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minimumWeight, copy.size)))
+                .expireAfterWrite(maxAge)
+                .build();
+        this.refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(REFRESH_QUEUE), runnable -> {
+            Thread thread = new Thread(runnable, "redis-stale-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.served = Counter.builder("redis.stale.served")
+                .description("Reads answered from the local stale copy")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("redis.stale.skipped")
+                .description("Values not copied because they were over the per-entry size limit")
+                .register(meterRegistry);
+    }
+
+    public void put(String key, ValueWithTtl value) {
+        long size = value.isExists() ? sizeOf(value.getValue(), maxEntryBytes) : 0;
+        if (value.isExists() && size <= maxEntryBytes) {
+            copies.put(key, new Copy(value, size, System.nanoTime()));
+        } else {
+            if (value.isExists()) {
+                skipped.increment();
+            }
+            copies.invalidate(key);
+        }
+    }
+
+    public void invalidate(String key) {
+        copies.invalidate(key);
+    }
+
+    // The copy with its age and remaining TTL, or null when there is none.
+    public ValueWithTtl get(String key) {
+        Copy copy = copies.getIfPresent(key);
+        if (copy == null) {
+            return null;
+        }
+        long ageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - copy.storedAt);
+        long ttl = copy.value.getTtl();
+        if (ttl > 0) {
+            long remaining = ttl - TimeUnit.MILLISECONDS.toSeconds(ageMillis);
+            if (remaining <= 0) {
+                copies.invalidate(key);
+                return null;
+            }
+            ttl = remaining;
+        }
+        served.increment();
+        return new ValueWithTtl(copy.value.getValue(), ttl, ageMillis);
+    }
+
+    public void refreshInBackground(String key, Runnable refresh) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (RuntimeException e) {
+                    // The copy stays; the next stale read schedules another refresh.
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("copies", copies.estimatedSize());
+        result.put("bytes", copies.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        result.put("served", (long) served.count());
+        result.put("skipped", (long) skipped.count());
+        result.put("refreshesPending", refresher.getQueue().size());
+        return result;
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    // Rough heap size of a deserialized value. Stops once the estimate passes limit, so a huge
+    // value is not walked in full just to be skipped.
+    static long sizeOf(Object value, long limit) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return 16;
+        }
+        long size;
+        if (value instanceof Map<?, ?> map) {
+            size = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32 + sizeOf(entry.getKey(), limit - size) + sizeOf(entry.getValue(), limit - size);
+                if (size > limit) {
+                    return size;
+                }
+            }
+            return size;
+        }
+        if (value instanceof Iterable<?> elements) {
+            size = 24;
+            for (Object element : elements) {
+                size += 8 + sizeOf(element, limit - size);
+                if (size > limit) {
+                    return size;
+                }
+            }
+            return size;
+        }
+        if (value instanceof Object[] elements) {
+            size = 16;
+            for (Object element : elements) {
+                size += 8 + sizeOf(element, limit - size);
+                if (size > limit) {
+                    return size;
+                }
+            }
+            return size;
+        }
+        // Anything else is charged a flat guess.
+        return 64;
+    }
+
+    private static final class Copy {
+
+        private final ValueWithTtl value;
+        private final long size;
+        private final long storedAt;
+
+        private Copy(ValueWithTtl value, long size, long storedAt) {
+            this.value = value;
+            this.size = size;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.redisdemo.service;
+
+import com.example.redisdemo.dto.RedisRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind queue for writers that do not need a synchronous acknowledgement. Writes are
+ * buffered by key, so a key written again before its flush keeps only the latest value, and a
+ * single flusher thread hands them to the sink in batches once {@code batchSize} keys are queued
+ * or {@code flushInterval} after the first one arrived. When {@code capacity} keys are queued a
+ * new key waits up to {@code maxWait} for room and is then rejected. A failed batch is queued
+ * again unless a newer write for the key arrived meanwhile. {@link #close()} stops accepting
+ * writes and drains what is queued for up to {@code drainTimeout}.
+ */
+public class WriteBehindBuffer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final Consumer<Map<String, RedisRequest>> sink;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxWaitNanos;
+    private final Duration drainTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushDue = lock.newCondition();
+    private final LinkedHashMap<String, RedisRequest> pending = new LinkedHashMap<>();
+    private boolean accepting = true;
+    private Thread flusher;
+
+    private final Counter accepted;
+    private final Counter merged;
+    private final Counter rejected;
+    private final Counter flushed;
+    private final Counter failed;
+
+    public WriteBehindBuffer(Consumer<Map<String, RedisRequest>> sink, int capacity, int batchSize, Duration flushInterval,
+                             Duration maxWait, Duration drainTimeout, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.drainTimeout = drainTimeout;
+        this.accepted = counter("redis.write.behind.accepted", "Writes queued for write-behind", meterRegistry);
+        this.merged = counter("redis.write.behind.merged", "Queued writes replaced by a newer write to the same key", meterRegistry);
+        this.rejected = counter("redis.write.behind.rejected", "Writes rejected because the buffer stayed full", meterRegistry);
+        this.flushed = counter("redis.write.behind.flushed", "Keys written to the store by the flusher", meterRegistry);
+        this.failed = counter("redis.write.behind.failed", "Keys in batches the store failed to write", meterRegistry);
+        Gauge.builder("redis.write.behind.pending", this, WriteBehindBuffer::pendingCount)
+                .description("Keys waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        flusher = new Thread(this::run, "redis-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Returns false when the buffer stayed full for maxWait or is shutting down.
+    public boolean offer(String key, RedisRequest request) {
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (accepting && pending.size() >= capacity && !pending.containsKey(key)) {
+                if (remaining <= 0) {
+                    rejected.increment();
+                    return false;
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            if (!accepting) {
+                rejected.increment();
+                return false;
+            }
+            // A rewrite keeps the key's place in the queue; only the latest value is flushed.
+            if (pending.put(key, request) != null) {
+                merged.increment();
+            }
+            accepted.increment();
+            if (pending.size() == 1 || pending.size() >= batchSize) {
+                flushDue.signal();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            accepting = false;
+            flushDue.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher == null) {
+            return;
+        }
+        try {
+            flusher.join(Math.max(1, drainTimeout.toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+            log.warn("Write-behind drain timed out after {}, {} queued keys were not written", drainTimeout, pendingCount());
+        }
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pendingCount());
+        stats.put("capacity", capacity);
+        stats.put("batchSize", batchSize);
+        stats.put("accepted", (long) accepted.count());
+        stats.put("merged", (long) merged.count());
+        stats.put("rejected", (long) rejected.count());
+        stats.put("flushed", (long) flushed.count());
+        stats.put("failed", (long) failed.count());
+        return stats;
+    }
+
+    private void run() {
+        try {
+            Map<String, RedisRequest> batch;
+            while ((batch = nextBatch()) != null) {
+                try {
+                    sink.accept(batch);
+                    flushed.increment(batch.size());
+                } catch (RuntimeException e) {
+                    failed.increment(batch.size());
+                    requeue(batch);
+                    log.warn("Write-behind flush of {} keys failed, retrying: {}", batch.size(), e.getMessage());
+                    // Back off so an unavailable store is not retried in a tight loop.
+                    TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits for the first queued key, then until a full batch or the flush interval; returns
+    // null once the buffer is closed and empty.
+    private Map<String, RedisRequest> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (accepting && pending.isEmpty()) {
+                flushDue.await();
+            }
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            while (accepting && pending.size() < batchSize) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                flushDue.awaitNanos(remaining);
+            }
+            if (pending.isEmpty()) {
+                return null;
+            }
+            Map<String, RedisRequest> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, RedisRequest>> entries = pending.entrySet().iterator();
+            while (entries.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, RedisRequest> entry = entries.next();
+                batch.put(entry.getKey(), entry.getValue());
+                entries.remove();
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Retried keys may briefly take the queue past capacity; new keys still wait for room.
+    private void requeue(Map<String, RedisRequest> batch) {
+        lock.lock();
+        try {
+            batch.forEach(pending::putIfAbsent);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter counter(String name, String description, MeterRegistry meterRegistry) {
+        return Counter.builder(name).description(description).register(meterRegistry);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.redisdemo.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * What the Redis engine stores under a key whose value was split into chunks: a header byte, a
+ * random generation, the chunk count and the total length. Chunk {@code i} lives under
+ * {@code <key>:chunk:<generation>:<i>}, so a rewrite puts its chunks next to the old ones and
+ * switches over with the single SET of the manifest. Public for the raw endpoints, which store
+ * under the same keys without going through the engine.
+ */
+public final class ChunkManifest {
+
+    // Neither JSON text, the Smile header nor the Deflate header can start with this byte.
+    static final byte HEADER = 0x03;
+    public static final int LENGTH = 1 + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    // Modes of the REPLACE script, which swaps a value and returns the head of the one it replaced.
+    static final byte[] REPLACE_SET = "set".getBytes(StandardCharsets.US_ASCII);
+    public static final byte[] REPLACE_RENAME = "rename".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] REPLACE_DELETE = "delete".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Pattern CHUNK_KEY = Pattern.compile(".*:chunk:[0-9a-f]{16}:\\d+");
+    private static final Pattern UPLOAD_KEY = Pattern.compile(".*:upload:[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final long generation;
+    private final int chunks;
+    private final long length;
+
+    private ChunkManifest(long generation, int chunks, long length) {
+        this.generation = generation;
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    static ChunkManifest forValue(int length, int chunkSize) {
+        int chunks = (int) ((length + (long) chunkSize - 1) / chunkSize);
+        return new ChunkManifest(ThreadLocalRandom.current().nextLong(), chunks, length);
+    }
+
+    // Null unless the bytes have a manifest's shape. Raw bytes can have it too, so callers treat
+    // the result as a manifest only once its first chunk is found.
+    public static ChunkManifest parse(byte[] raw) {
+        if (raw == null || raw.length != LENGTH || raw[0] != HEADER) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(raw, 1, LENGTH - 1);
+        long generation = buffer.getLong();
+        int chunks = buffer.getInt();
+        long length = buffer.getLong();
+        if (chunks < 1 || length < chunks || length > Integer.MAX_VALUE - 8) {
+            return null;
+        }
+        return new ChunkManifest(generation, chunks, length);
+    }
+
+    public static boolean isChunkKey(String key) {
+        return key.contains(":chunk:") && CHUNK_KEY.matcher(key).matches();
+    }
+
+    // The temporary key a raw upload is appended to before it is renamed over key. Scans skip it
+    // like a chunk key.
+    public static String uploadKey(String key) {
+        return key + ":upload:" + UUID.randomUUID();
+    }
+
+    public static boolean isUploadKey(String key) {
+        return key.contains(":upload:") && UPLOAD_KEY.matcher(key).matches();
+    }
+
+    // Whether a first chunk of this size splits the manifest's length into its chunk count.
+    boolean fits(int firstChunkLength) {
+        return firstChunkLength > 0 && (length + firstChunkLength - 1) / firstChunkLength == chunks;
+    }
+
+    byte[] toBytes() {
+        return ByteBuffer.allocate(LENGTH).put(HEADER).putLong(generation).putInt(chunks).putLong(length).array();
+    }
+
+    public String chunkKey(String key, int index) {
+        return key + ":chunk:" + String.format("%016x", generation) + ":" + index;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    public int chunks() {
+        return chunks;
+    }
+
+    int length() {
+        return (int) length;
+    }
+}
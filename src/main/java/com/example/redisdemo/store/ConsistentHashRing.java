@@ -0,0 +1,96 @@
+package com.example.redisdemo.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Consistent-hash ring with virtual nodes. Each node owns {@code virtualNodes} points on a 64-bit
+ * ring and a key belongs to the first point at or after its hash, so with N nodes adding one moves
+ * about 1/(N+1) of the keys, all of them to the new node, and removing one moves only its own keys.
+ * As in Redis Cluster, only the part of a key inside its first non-empty {@code {...}} is hashed,
+ * so keys sharing a hash tag always land on the same node.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || new HashSet<>(nodes).size() != nodes.size()) {
+            throw new IllegalArgumentException("Ring nodes must be distinct and non-empty: " + nodes);
+        }
+        this.nodes = List.copyOf(nodes);
+        int replicas = Math.max(1, virtualNodes);
+        int size = nodes.size() * replicas;
+        Integer[] order = new Integer[size];
+        long[] hashes = new long[size];
+        for (int node = 0; node < nodes.size(); node++) {
+            for (int replica = 0; replica < replicas; replica++) {
+                int i = node * replicas + replica;
+                hashes[i] = hash(nodes.get(node) + "#" + replica);
+                order[i] = i;
+            }
+        }
+        // Sort point indexes by hash (ties by node name, so the ring never depends on input order).
+        Arrays.sort(order, (a, b) -> {
+            int byHash = Long.compareUnsigned(hashes[a], hashes[b]);
+            return byHash != 0 ? byHash : this.nodes.get(a / replicas).compareTo(this.nodes.get(b / replicas));
+        });
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < order.length; i++) {
+            int point = order[i];
+            points[i] = hashes[point];
+            owners[i] = point / replicas;
+        }
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    // Index into nodes() of the node that owns the key.
+    public int nodeFor(String key) {
+        long hash = hash(hashTag(key));
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[mid], hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    static String hashTag(String key) {
+        int open = key.indexOf('{');
+        if (open >= 0) {
+            int close = key.indexOf('}', open + 1);
+            if (close > open + 1) {
+                return key.substring(open + 1, close);
+            }
+        }
+        return key;
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mix so nearby keys spread over the ring.
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,568 @@
+package com.example.redisdemo.store;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process engine for edge deployments, tests and benchmark baselines. Keys are spread over
+ * lock-striped hash maps; each stripe owns a {@link TimingWheel} holding its keys with a TTL, so
+ * a background tick expires due keys with constant work per tick and reads check the exact
+ * deadline on top of that. Values are stored as the bytes the Redis engine would write, which
+ * keeps value types identical across engines and lets {@code max-bytes} bound the footprint:
+ * once it is reached writes fail, like Redis with {@code maxmemory-policy noeviction}.
+ */
+public class InMemoryKeyValueStore implements KeyValueStore, AutoCloseable {
+
+    // Rough per-key cost of the map node, entry object and key string headers.
+    private static final int ENTRY_OVERHEAD = 112;
+
+    private final RedisSerializer<Object> serializer;
+    private final Stripe[] stripes;
+    private final long tickMillis;
+    private final long maxBytes;
+    private final LongSupplier clock;
+
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private ScheduledExecutorService ticker;
+
+    public InMemoryKeyValueStore(RedisSerializer<Object> serializer, int stripes, Duration tick, long maxBytes, LongSupplier clock) {
+        this.serializer = serializer;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+        long now = currentTick();
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(now);
+        }
+    }
+
+    // Starts the background expiry tick; without it keys still expire on access.
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "memory-store-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    // Advances every stripe's wheel to the current tick and drops the keys that came due.
+    public void expireDue() {
+        long tick = currentTick();
+        for (Stripe stripe : stripes) {
+            // An unlocked peek: a stripe whose timers are missed here is caught on the next tick.
+            if (stripe.wheel.size() == 0) {
+                continue;
+            }
+            stripe.lock.lock();
+            try {
+                stripe.wheel.advance(tick, entry -> {
+                    stripe.map.remove(entry.key);
+                    release(entry);
+                    expired.increment();
+                });
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void set(String key, Object value, Expiration expiration) {
+        byte[] bytes = serializer.serialize(value);
+        long expireAt = expiration.isPersistent() ? 0 : clock.getAsLong() + expiration.getExpirationTimeInMilliseconds();
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            put(stripe, key, bytes, expireAt);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value, Expiration expiration) {
+        byte[] bytes = serializer.serialize(value);
+        long expireAt = expiration.isPersistent() ? 0 : clock.getAsLong() + expiration.getExpirationTimeInMilliseconds();
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            if (live(stripe, key) != null) {
+                return false;
+            }
+            put(stripe, key, bytes, expireAt);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        return serializer.deserialize(read(key, null));
+    }
+
+    @Override
+    public ValueWithTtl getWithTtl(String key) {
+        long[] ttl = new long[1];
+        byte[] bytes = read(key, ttl);
+        return new ValueWithTtl(serializer.deserialize(bytes), ttl[0]);
+    }
+
+    @Override
+    public Map<String, ValueWithTtl> multiGetWithTtl(Collection<String> keys) {
+        Map<String, ValueWithTtl> results = new LinkedHashMap<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            results.put(key, getWithTtl(key));
+        }
+        return results;
+    }
+
+    @Override
+    public void multiSet(Map<String, RedisRequest> entries) {
+        entries.forEach((key, request) ->
+                set(key, request.getValue(), KeyValueStore.expiration(request.getTimeout(), request.getTimeUnit())));
+    }
+
+    @Override
+    public Map<String, Boolean> multiDelete(Collection<String> keys) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            results.put(key, delete(key));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            if (entry == null) {
+                return false;
+            }
+            remove(stripe, entry);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        return getExpire(key) != -2;
+    }
+
+    @Override
+    public boolean expire(String key, long timeout, TimeUnit unit) {
+        long timeoutMillis = unit.toMillis(timeout);
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            if (entry == null) {
+                return false;
+            }
+            if (timeoutMillis <= 0) {
+                remove(stripe, entry);
+                return true;
+            }
+            entry.expireAt = clock.getAsLong() + timeoutMillis;
+            schedule(stripe, entry);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public long getExpire(String key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            return entry == null ? -2 : ttl(entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Counters are kept as the decimal text INCRBY writes, so they read back as numbers either way.
+    @Override
+    public ValueWithTtl increment(String key, long delta, Expiration expiration) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            long value;
+            try {
+                long current = entry == null ? 0 : Long.parseLong(new String(entry.value, StandardCharsets.US_ASCII));
+                value = Math.addExact(current, delta);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new InvalidDataAccessApiUsageException("ERR value is not an integer or out of range");
+            }
+            long expireAt = entry != null ? entry.expireAt
+                    : expiration.isPersistent() ? 0 : clock.getAsLong() + expiration.getExpirationTimeInMilliseconds();
+            Entry updated = put(stripe, key, Long.toString(value).getBytes(StandardCharsets.US_ASCII), expireAt);
+            return new ValueWithTtl(value, ttl(updated));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(String key, Object expected, Object value, Expiration expiration) {
+        byte[] expectedBytes = expected == null ? null : serializer.serialize(expected);
+        byte[] bytes = serializer.serialize(value);
+        long expireAt = expiration.isPersistent() ? 0 : clock.getAsLong() + expiration.getExpirationTimeInMilliseconds();
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            if (expectedBytes == null ? entry != null : entry == null || !Arrays.equals(entry.value, expectedBytes)) {
+                return false;
+            }
+            put(stripe, key, bytes, expireAt);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean compareAndDelete(String key, Object expected) {
+        byte[] expectedBytes = serializer.serialize(expected);
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            if (entry == null || !Arrays.equals(entry.value, expectedBytes)) {
+                return false;
+            }
+            remove(stripe, entry);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public ValueWithTtl getAndTouch(String key, Expiration expiration) {
+        byte[] bytes;
+        long ttl;
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            if (entry == null) {
+                return new ValueWithTtl(null, -2);
+            }
+            if (expiration.isPersistent()) {
+                entry.expireAt = 0;
+                stripe.wheel.cancel(entry);
+            } else {
+                entry.expireAt = clock.getAsLong() + expiration.getExpirationTimeInMilliseconds();
+                schedule(stripe, entry);
+            }
+            bytes = entry.value;
+            ttl = ttl(entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+        return new ValueWithTtl(serializer.deserialize(bytes), ttl);
+    }
+
+    // The data lives in this process, so there is nothing to reach.
+    @Override
+    public void ping() {
+    }
+
+    // The cursor is the next stripe to visit. A page takes whole stripes until it has looked at
+    // count keys, so a key that stays in the store is always seen once its stripe comes up.
+    @Override
+    public ScanPage scan(String match, int count, String cursor, boolean withTtl) {
+        int index;
+        try {
+            index = Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (index < 0 || index >= stripes.length) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        List<String> keys = new ArrayList<>();
+        List<Long> ttls = withTtl ? new ArrayList<>() : null;
+        int examined = 0;
+        do {
+            Stripe stripe = stripes[index++];
+            stripe.lock.lock();
+            try {
+                long now = clock.getAsLong();
+                for (Entry entry : stripe.map.values()) {
+                    examined++;
+                    if ((entry.expireAt == 0 || entry.expireAt > now) && (match == null || glob(match, entry.key))) {
+                        keys.add(entry.key);
+                        if (ttls != null) {
+                            ttls.add(ttl(entry));
+                        }
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        } while (index < stripes.length && examined < count);
+        boolean finished = index == stripes.length;
+        return new ScanPage(keys, ttls, finished ? "0" : String.valueOf(index), finished);
+    }
+
+    public Map<String, Object> stats() {
+        long keys = 0;
+        long timers = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                keys += stripe.map.size();
+                timers += stripe.wheel.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("engine", "memory");
+        result.put("keys", keys);
+        result.put("keysWithTtl", timers);
+        result.put("usedBytes", usedBytes.get());
+        result.put("maxBytes", maxBytes);
+        result.put("expired", expired.sum());
+        result.put("rejectedWrites", rejected.sum());
+        result.put("stripes", stripes.length);
+        result.put("tickMillis", tickMillis);
+        return result;
+    }
+
+    // Returns the stored bytes, or null when the key is missing; fills ttl[0] when ttl is given.
+    private byte[] read(String key, long[] ttl) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = live(stripe, key);
+            if (ttl != null) {
+                ttl[0] = entry == null ? -2 : ttl(entry);
+            }
+            return entry == null ? null : entry.value;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Entry put(Stripe stripe, String key, byte[] bytes, long expireAt) {
+        Entry existing = stripe.map.get(key);
+        long delta = size(key, bytes) - (existing != null ? existing.size() : 0);
+        if (delta > 0 && usedBytes.addAndGet(delta) > maxBytes) {
+            usedBytes.addAndGet(-delta);
+            rejected.increment();
+            // The exception Lettuce's OOM error is translated to: the store is healthy, the write is refused.
+            throw new InvalidDataAccessApiUsageException("OOM command not allowed when used memory > 'max-bytes' (" + maxBytes + ")");
+        }
+        if (delta <= 0) {
+            usedBytes.addAndGet(delta);
+        }
+        Entry entry = existing;
+        if (entry == null) {
+            entry = new Entry(key);
+            stripe.map.put(key, entry);
+        }
+        entry.value = bytes;
+        entry.expireAt = expireAt;
+        if (expireAt == 0) {
+            stripe.wheel.cancel(entry);
+        } else {
+            schedule(stripe, entry);
+        }
+        return entry;
+    }
+
+    private void schedule(Stripe stripe, Entry entry) {
+        // The tick skips empty wheels, so bring an idle one up to date before filing a timer.
+        stripe.wheel.skipTo(currentTick());
+        stripe.wheel.schedule(entry, deadlineTick(entry.expireAt));
+    }
+
+    // The entry for the key unless it has expired; an expired entry the tick has not reached yet
+    // is removed on the spot, as Redis does on access.
+    private Entry live(Stripe stripe, String key) {
+        Entry entry = stripe.map.get(key);
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= clock.getAsLong()) {
+            remove(stripe, entry);
+            expired.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    private void remove(Stripe stripe, Entry entry) {
+        stripe.map.remove(entry.key);
+        stripe.wheel.cancel(entry);
+        release(entry);
+    }
+
+    private void release(Entry entry) {
+        usedBytes.addAndGet(-entry.size());
+    }
+
+    private long ttl(Entry entry) {
+        return entry.expireAt == 0 ? -1 : KeyValueStore.ttlSeconds(Math.max(0, entry.expireAt - clock.getAsLong()));
+    }
+
+    private long currentTick() {
+        return clock.getAsLong() / tickMillis;
+    }
+
+    // Rounded up, so the tick never expires a key before its deadline.
+    private long deadlineTick(long expireAt) {
+        return (expireAt + tickMillis - 1) / tickMillis;
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static long size(String key, byte[] value) {
+        return ENTRY_OVERHEAD + key.length() * 2L + (value != null ? value.length : 0);
+    }
+
+    // Redis glob syntax: *, ?, [abc], [^a], [a-z] and backslash escapes.
+    static boolean glob(String pattern, String text) {
+        return glob(pattern, 0, text, 0);
+    }
+
+    private static boolean glob(String pattern, int p, String text, int t) {
+        while (p < pattern.length()) {
+            char c = pattern.charAt(p);
+            switch (c) {
+                case '*' -> {
+                    while (p + 1 < pattern.length() && pattern.charAt(p + 1) == '*') {
+                        p++;
+                    }
+                    if (p + 1 == pattern.length()) {
+                        return true;
+                    }
+                    for (int i = t; i <= text.length(); i++) {
+                        if (glob(pattern, p + 1, text, i)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                case '?' -> {
+                    if (t >= text.length()) {
+                        return false;
+                    }
+                    t++;
+                    p++;
+                }
+                case '[' -> {
+                    if (t >= text.length()) {
+                        return false;
+                    }
+                    int end = p + 1;
+                    boolean negate = end < pattern.length() && pattern.charAt(end) == '^';
+                    if (negate) {
+                        end++;
+                    }
+                    boolean matched = false;
+                    char ch = text.charAt(t);
+                    while (end < pattern.length() && pattern.charAt(end) != ']') {
+                        if (pattern.charAt(end) == '\\' && end + 1 < pattern.length()) {
+                            end++;
+                            matched |= pattern.charAt(end) == ch;
+                        } else if (end + 2 < pattern.length() && pattern.charAt(end + 1) == '-' && pattern.charAt(end + 2) != ']') {
+                            char from = pattern.charAt(end);
+                            char to = pattern.charAt(end + 2);
+                            matched |= ch >= Math.min(from, to) && ch <= Math.max(from, to);
+                            end += 2;
+                        } else {
+                            matched |= pattern.charAt(end) == ch;
+                        }
+                        end++;
+                    }
+                    if (matched == negate) {
+                        return false;
+                    }
+                    t++;
+                    p = Math.min(end + 1, pattern.length());
+                }
+                default -> {
+                    if (c == '\\' && p + 1 < pattern.length()) {
+                        c = pattern.charAt(++p);
+                    }
+                    if (t >= text.length() || text.charAt(t) != c) {
+                        return false;
+                    }
+                    t++;
+                    p++;
+                }
+            }
+        }
+        return t == text.length();
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Entry> map = new HashMap<>();
+        final TimingWheel<Entry> wheel;
+
+        Stripe(long startTick) {
+            this.wheel = new TimingWheel<>(startTick);
+        }
+    }
+
+    private static final class Entry extends TimingWheel.Timer {
+        final String key;
+        byte[] value;
+        // Epoch millis, 0 for no expiry.
+        long expireAt;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        long size() {
+            return InMemoryKeyValueStore.size(key, value);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.redisdemo.store;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage engine behind {@code RedisService}, selected with {@code app.redis.store} ({@code redis},
+ * {@code sharded} or {@code memory}). Every engine follows Redis semantics: a write without expiration clears any
+ * previous TTL, and TTLs are reported in seconds rounded like the TTL command, -1 for a key
+ * without expiry and -2 for a missing key.
+ */
+public interface KeyValueStore {
+
+    void set(String key, Object value, Expiration expiration);
+
+    // SET NX: stores the value only when the key does not exist. The value is always stored whole,
+    // so this is meant for small markers such as locks.
+    boolean setIfAbsent(String key, Object value, Expiration expiration);
+
+    Object get(String key);
+
+    ValueWithTtl getWithTtl(String key);
+
+    // Results keep the order of the distinct keys.
+    Map<String, ValueWithTtl> multiGetWithTtl(Collection<String> keys);
+
+    void multiSet(Map<String, RedisRequest> entries);
+
+    Map<String, Boolean> multiDelete(Collection<String> keys);
+
+    boolean delete(String key);
+
+    boolean hasKey(String key);
+
+    // A timeout of zero or less deletes the key, as EXPIRE does.
+    boolean expire(String key, long timeout, TimeUnit unit);
+
+    long getExpire(String key);
+
+    // INCRBY in one step: a counter this call creates gets the expiration, an existing one keeps
+    // its TTL. Returns the new value as a Long with the TTL.
+    ValueWithTtl increment(String key, long delta, Expiration expiration);
+
+    // Writes value only while the key holds expected, compared as serialized bytes, or, with a
+    // null expected, only while the key is missing. The write replaces the TTL like set does.
+    boolean compareAndSet(String key, Object expected, Object value, Expiration expiration);
+
+    // Deletes the key only while it holds expected, compared as serialized bytes.
+    boolean compareAndDelete(String key, Object expected);
+
+    // The value, with the key's TTL reset to the expiration in the same step; persistent clears it.
+    ValueWithTtl getAndTouch(String key, Expiration expiration);
+
+    // One SCAN step: keys present for the whole walk are returned at least once, and count is a hint.
+    ScanPage scan(String match, int count, String cursor, boolean withTtl);
+
+    // A round trip that touches no keys, for health probes; throws when the engine is unreachable.
+    void ping();
+
+    static Expiration expiration(long timeout, TimeUnit unit) {
+        return timeout > 0 && unit != null ? Expiration.from(timeout, unit) : Expiration.persistent();
+    }
+
+    // SET always replaces the previous TTL, so the effective TTL is the requested one,
+    // rounded to seconds the same way the TTL command rounds it.
+    static long effectiveTtl(Expiration expiration) {
+        return expiration.isPersistent() ? -1 : ttlSeconds(expiration.getExpirationTimeInMilliseconds());
+    }
+
+    static long ttlSeconds(long remainingMillis) {
+        return (remainingMillis + 500) / 1000;
+    }
+
+    // A PTTL reply in TTL's terms, keeping -1 and -2 as they are.
+    static long ttlFromPttl(long pttl) {
+        return pttl < 0 ? pttl : ttlSeconds(pttl);
+    }
+}
@@ -0,0 +1,678 @@
+package com.example.redisdemo.store;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.NearCache;
+import com.example.redisdemo.store.RedisScriptRegistry.Script;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Redis engine. Multi-command operations go through the shared Lettuce connection's native
+ * async API, so commands are pipelined instead of paying one round trip each. Every reply is
+ * awaited for at most {@code app.redis.resilience.call-timeout} while the circuit breaker is on,
+ * which is tighter than the connection's command timeout, so a hung Redis fails a guarded call
+ * before it holds the request thread for long.
+ *
+ * <p>With {@code app.redis.large-value.enabled}, a serialized value of at least {@code threshold}
+ * bytes is stored as {@code chunk-size} chunks plus a {@link ChunkManifest} under the key, so no
+ * single command holds the Redis event loop or Lettuce's buffers for the whole value. Chunks are
+ * written before the manifest and outlive it, and deletes and expiries act on the manifest first,
+ * so callers see the value appear, expire and disappear as a whole. Neither chunk keys nor raw
+ * upload keys show up in scans. Manifests are honoured only while large values are enabled, and
+ * only when the first chunk exists, so raw bytes that happen to look like a manifest stay a value.
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.store", havingValue = "redis", matchIfMissing = true)
+public class RedisKeyValueStore implements KeyValueStore, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisKeyValueStore.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired(required = false)
+    private NearCache nearCache;
+
+    @Autowired
+    private RedisScriptRegistry scripts;
+
+    @Value("${app.redis.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${app.redis.large-value.enabled:false}")
+    private boolean largeValues;
+
+    @Value("${app.redis.large-value.threshold:1048576}")
+    private int largeValueThreshold;
+
+    @Value("${app.redis.large-value.chunk-size:262144}")
+    private int largeValueChunkSize;
+
+    @Value("${app.redis.resilience.enabled:true}")
+    private boolean resilienceEnabled;
+
+    @Value("${app.redis.resilience.call-timeout:250ms}")
+    private Duration callTimeout;
+
+    private LettuceConnectionFactory ownConnectionFactory;
+
+    // Chunk commands in flight at once, which bounds what a large value holds in Lettuce's buffers.
+    private static final int CHUNK_WINDOW = 8;
+    // Chunks outlive their manifest, so a reader that found the manifest finds its chunks.
+    private static final long CHUNK_TTL_GRACE_MILLIS = 60_000;
+    private static final int READ_ATTEMPTS = 3;
+
+    public RedisKeyValueStore() {
+    }
+
+    // A store on a connection of its own, for one node of the sharded engine; close() releases it.
+    // A null callTimeout waits for the connection's command timeout.
+    public RedisKeyValueStore(LettuceConnectionFactory connectionFactory, RedisSerializer<Object> valueSerializer, int batchChunkSize,
+                              boolean largeValues, int largeValueThreshold, int largeValueChunkSize, Duration callTimeout,
+                              RedisScriptRegistry scripts) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+        this.batchChunkSize = batchChunkSize;
+        this.largeValues = largeValues;
+        this.largeValueThreshold = largeValueThreshold;
+        this.largeValueChunkSize = largeValueChunkSize;
+        this.resilienceEnabled = callTimeout != null;
+        this.callTimeout = callTimeout;
+        this.scripts = scripts;
+        this.ownConnectionFactory = connectionFactory;
+    }
+
+    // Registers the scripts once the application is up, after the connection metrics are bound;
+    // when Redis is not reachable yet, the first call loads them.
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadScripts() {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                scripts.load(nativeCommands(connection), commandTimeout());
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not load Redis scripts at startup, they are loaded on first use: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownConnectionFactory != null) {
+            ownConnectionFactory.destroy();
+        }
+    }
+
+    @Override
+    public void set(String key, Object value, Expiration expiration) {
+        byte[] rawKey = rawKey(key);
+        byte[] rawValue = rawValue(value);
+        if (largeValues) {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+                write(commands, key, rawValue, expiration).finish(commands);
+                return null;
+            });
+        } else {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    await(nativeCommands(connection).set(rawKey, rawValue, setArgs(expiration, 0))));
+        }
+        invalidateNearCache(key);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value, Expiration expiration) {
+        byte[] rawKey = rawKey(key);
+        byte[] rawValue = rawValue(value);
+        boolean stored = redisTemplate.execute((RedisCallback<String>) connection ->
+                await(nativeCommands(connection).set(rawKey, rawValue, setArgs(expiration, 0).nx()))) != null;
+        if (stored) {
+            invalidateNearCache(key);
+        }
+        return stored;
+    }
+
+    @Override
+    public Object get(String key) {
+        byte[] rawKey = rawKey(key);
+        return redisTemplate.execute((RedisCallback<Object>) connection -> {
+            RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+            return redisTemplate.getValueSerializer().deserialize(resolve(commands, key, await(commands.get(rawKey))));
+        });
+    }
+
+    @Override
+    public ValueWithTtl getWithTtl(String key) {
+        if (nearCache != null) {
+            ValueWithTtl cached = nearCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long generation = nearCache != null ? nearCache.generation(key) : 0;
+        byte[] rawKey = rawKey(key);
+        return redisTemplate.execute((RedisCallback<ValueWithTtl>) connection -> {
+            // Both commands are written to the shared connection before either reply is awaited,
+            // so the pair costs a single round trip.
+            RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+            RedisFuture<byte[]> value = commands.get(rawKey);
+            RedisFuture<Long> ttl = commands.ttl(rawKey);
+            byte[] stored = await(value);
+            byte[] rawValue = resolve(commands, key, stored);
+            // A chunked value deleted while its chunks were read counts as missing.
+            long remaining = stored != null && rawValue == null ? -2 : await(ttl);
+            ValueWithTtl result = new ValueWithTtl(redisTemplate.getValueSerializer().deserialize(rawValue), remaining);
+            if (nearCache != null && rawValue != null) {
+                nearCache.put(key, result.getValue(), result.getTtl(), rawValue.length, generation);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Map<String, ValueWithTtl> multiGetWithTtl(Collection<String> keys) {
+        Map<String, ValueWithTtl> results = new LinkedHashMap<>();
+        for (List<String> chunk : chunks(keys)) {
+            byte[][] rawKeys = chunk.stream().map(this::rawKey).toArray(byte[][]::new);
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+                RedisFuture<List<KeyValue<byte[], byte[]>>> values = commands.mget(rawKeys);
+                List<RedisFuture<Long>> ttls = new ArrayList<>(rawKeys.length);
+                for (byte[] rawKey : rawKeys) {
+                    ttls.add(commands.ttl(rawKey));
+                }
+                List<KeyValue<byte[], byte[]>> fetched = await(values);
+                for (int i = 0; i < rawKeys.length; i++) {
+                    byte[] stored = fetched.get(i).getValueOrElse(null);
+                    byte[] rawValue = resolve(commands, chunk.get(i), stored);
+                    long remaining = await(ttls.get(i));
+                    Object value = redisTemplate.getValueSerializer().deserialize(rawValue);
+                    results.put(chunk.get(i), new ValueWithTtl(value, stored != null && rawValue == null ? -2 : remaining));
+                }
+                return null;
+            });
+        }
+        return results;
+    }
+
+    @Override
+    public void multiSet(Map<String, RedisRequest> entries) {
+        for (List<String> chunk : chunks(entries.keySet())) {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+                if (largeValues) {
+                    List<PendingWrite> writes = new ArrayList<>(chunk.size());
+                    for (String key : chunk) {
+                        RedisRequest request = entries.get(key);
+                        writes.add(write(commands, key, rawValue(request.getValue()),
+                                KeyValueStore.expiration(request.getTimeout(), request.getTimeUnit())));
+                    }
+                    writes.forEach(write -> write.finish(commands));
+                    chunk.forEach(this::invalidateNearCache);
+                    return null;
+                }
+                List<RedisFuture<String>> replies = new ArrayList<>(chunk.size());
+                for (String key : chunk) {
+                    RedisRequest request = entries.get(key);
+                    Expiration expiration = KeyValueStore.expiration(request.getTimeout(), request.getTimeUnit());
+                    replies.add(commands.set(rawKey(key), rawValue(request.getValue()), setArgs(expiration, 0)));
+                }
+                replies.forEach(this::await);
+                chunk.forEach(this::invalidateNearCache);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public Map<String, Boolean> multiDelete(Collection<String> keys) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (List<String> chunk : chunks(keys)) {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+                if (largeValues) {
+                    List<RedisScriptRegistry.Call<List<Object>>> replies = new ArrayList<>(chunk.size());
+                    for (String key : chunk) {
+                        replies.add(sendDelete(commands, key));
+                    }
+                    for (int i = 0; i < chunk.size(); i++) {
+                        List<Object> reply = replies.get(i).await(commandTimeout());
+                        results.put(chunk.get(i), (Long) reply.get(1) > 0);
+                        dropChunks(commands, chunk.get(i), replacedManifest(reply));
+                        invalidateNearCache(chunk.get(i));
+                    }
+                    return null;
+                }
+                List<RedisFuture<Long>> replies = new ArrayList<>(chunk.size());
+                for (String key : chunk) {
+                    replies.add(commands.del(rawKey(key)));
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.put(chunk.get(i), await(replies.get(i)) > 0);
+                    invalidateNearCache(chunk.get(i));
+                }
+                return null;
+            });
+        }
+        return results;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        boolean deleted;
+        if (largeValues) {
+            deleted = Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection -> {
+                RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+                List<Object> reply = sendDelete(commands, key).await(commandTimeout());
+                dropChunks(commands, key, replacedManifest(reply));
+                return (Long) reply.get(1) > 0;
+            }));
+        } else {
+            deleted = Boolean.TRUE.equals(redisTemplate.delete(key));
+        }
+        invalidateNearCache(key);
+        return deleted;
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        byte[] rawKey = rawKey(key);
+        return redisTemplate.execute((RedisCallback<Long>) connection -> await(nativeCommands(connection).exists(rawKey))) > 0;
+    }
+
+    @Override
+    public boolean expire(String key, long timeout, TimeUnit unit) {
+        boolean updated;
+        if (largeValues) {
+            updated = Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    expireChunked(nativeCommands(connection), key, unit.toMillis(timeout))));
+        } else {
+            byte[] rawKey = rawKey(key);
+            updated = Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    await(nativeCommands(connection).pexpire(rawKey, unit.toMillis(timeout)))));
+        }
+        invalidateNearCache(key);
+        return updated;
+    }
+
+    @Override
+    public long getExpire(String key) {
+        byte[] rawKey = rawKey(key);
+        return redisTemplate.execute((RedisCallback<Long>) connection -> await(nativeCommands(connection).ttl(rawKey)));
+    }
+
+    @Override
+    public ValueWithTtl increment(String key, long delta, Expiration expiration) {
+        byte[][] keys = {rawKey(key)};
+        List<Object> reply = redisTemplate.execute((RedisCallback<List<Object>>) connection ->
+                scripts.eval(nativeCommands(connection), Script.INCREMENT, ScriptOutputType.MULTI, commandTimeout(), keys,
+                        number(delta), number(expiration.isPersistent() ? 0 : expiration.getExpirationTimeInMilliseconds())));
+        invalidateNearCache(key);
+        return new ValueWithTtl(reply.get(0), KeyValueStore.ttlFromPttl((Long) reply.get(1)));
+    }
+
+    // A chunked value never matches, since the key holds its manifest; the new value is stored
+    // whole whatever its size.
+    @Override
+    public boolean compareAndSet(String key, Object expected, Object value, Expiration expiration) {
+        byte[][] keys = {rawKey(key)};
+        byte[] mode = (expected == null ? "absent" : "value").getBytes(StandardCharsets.US_ASCII);
+        byte[] rawExpected = expected == null ? new byte[0] : rawValue(expected);
+        byte[] rawValue = rawValue(value);
+        Long written = redisTemplate.execute((RedisCallback<Long>) connection ->
+                scripts.eval(nativeCommands(connection), Script.COMPARE_AND_SET, ScriptOutputType.INTEGER, commandTimeout(), keys,
+                        mode, rawExpected, rawValue, number(expiration.isPersistent() ? 0 : expiration.getExpirationTimeInMilliseconds())));
+        boolean swapped = written != null && written == 1;
+        if (swapped) {
+            invalidateNearCache(key);
+        }
+        return swapped;
+    }
+
+    // Like compareAndSet, a chunked value never matches, so its chunks are never orphaned.
+    @Override
+    public boolean compareAndDelete(String key, Object expected) {
+        byte[][] keys = {rawKey(key)};
+        byte[] rawExpected = rawValue(expected);
+        Long deleted = redisTemplate.execute((RedisCallback<Long>) connection ->
+                scripts.eval(nativeCommands(connection), Script.COMPARE_AND_DELETE, ScriptOutputType.INTEGER, commandTimeout(), keys,
+                        rawExpected));
+        boolean removed = deleted != null && deleted == 1;
+        if (removed) {
+            invalidateNearCache(key);
+        }
+        return removed;
+    }
+
+    // The script touches the manifest of a chunked value; its chunks are read and touched after.
+    @Override
+    public ValueWithTtl getAndTouch(String key, Expiration expiration) {
+        byte[][] keys = {rawKey(key)};
+        long millis = expiration.isPersistent() ? 0 : expiration.getExpirationTimeInMilliseconds();
+        ValueWithTtl result = redisTemplate.execute((RedisCallback<ValueWithTtl>) connection -> {
+            RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+            List<Object> reply = scripts.eval(commands, Script.GET_AND_TOUCH, ScriptOutputType.MULTI, commandTimeout(), keys, number(millis));
+            byte[] stored = (byte[]) reply.get(0);
+            ChunkManifest manifest = confirmed(commands, key, manifest(stored));
+            if (manifest != null) {
+                touchChunks(commands, key, manifest, millis);
+            }
+            byte[] rawValue = resolve(commands, key, stored);
+            long ttl = stored != null && rawValue == null ? -2 : KeyValueStore.ttlFromPttl((Long) reply.get(1));
+            return new ValueWithTtl(redisTemplate.getValueSerializer().deserialize(rawValue), ttl);
+        });
+        invalidateNearCache(key);
+        return result;
+    }
+
+    @Override
+    public void ping() {
+        redisTemplate.execute((RedisCallback<String>) RedisConnection::ping);
+    }
+
+    @Override
+    public ScanPage scan(String match, int count, String cursor, boolean withTtl) {
+        ScanArgs args = ScanArgs.Builder.limit(count);
+        if (match != null) {
+            args.match(match);
+        }
+        KeyScanCursor<byte[]> result = redisTemplate.execute((RedisCallback<KeyScanCursor<byte[]>>) connection ->
+                await(nativeCommands(connection).scan(ScanCursor.of(cursor), args)));
+        List<String> keys = new ArrayList<>(result.getKeys().size());
+        List<byte[]> rawKeys = new ArrayList<>(result.getKeys().size());
+        for (byte[] rawKey : result.getKeys()) {
+            String key = (String) redisTemplate.getKeySerializer().deserialize(rawKey);
+            if (!ChunkManifest.isChunkKey(key) && !ChunkManifest.isUploadKey(key)) {
+                keys.add(key);
+                rawKeys.add(rawKey);
+            }
+        }
+        List<Long> ttls = null;
+        if (withTtl && !keys.isEmpty()) {
+            // All TTLs of a page are written back-to-back: one round trip per page.
+            ttls = redisTemplate.execute((RedisCallback<List<Long>>) connection -> {
+                RedisClusterAsyncCommands<byte[], byte[]> commands = nativeCommands(connection);
+                List<RedisFuture<Long>> replies = new ArrayList<>(rawKeys.size());
+                for (byte[] rawKey : rawKeys) {
+                    replies.add(commands.ttl(rawKey));
+                }
+                List<Long> values = new ArrayList<>(replies.size());
+                for (RedisFuture<Long> reply : replies) {
+                    values.add(await(reply));
+                }
+                return values;
+            });
+        } else if (withTtl) {
+            ttls = List.of();
+        }
+        return new ScanPage(keys, ttls, result.getCursor(), result.isFinished());
+    }
+
+    // Sends the write of one value as a REPLACE script, which stores it and returns the head of
+    // whatever the key held in one step, so of two concurrent writers each drops the chunks of the
+    // value it actually replaced. A large value's chunks are written and awaited first.
+    private PendingWrite write(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, byte[] rawValue, Expiration expiration) {
+        byte[] stored = rawValue;
+        if (rawValue.length >= largeValueThreshold) {
+            ChunkManifest manifest = ChunkManifest.forValue(rawValue.length, largeValueChunkSize);
+            writeChunks(commands, key, manifest, rawValue, expiration);
+            stored = manifest.toBytes();
+        }
+        long millis = expiration.isPersistent() ? 0 : expiration.getExpirationTimeInMilliseconds();
+        return new PendingWrite(key, scripts.send(commands, Script.REPLACE, ScriptOutputType.MULTI, new byte[][] {rawKey(key)},
+                ChunkManifest.REPLACE_SET, number(ChunkManifest.LENGTH), number(millis), stored));
+    }
+
+    private RedisScriptRegistry.Call<List<Object>> sendDelete(RedisClusterAsyncCommands<byte[], byte[]> commands, String key) {
+        return scripts.send(commands, Script.REPLACE, ScriptOutputType.MULTI, new byte[][] {rawKey(key)},
+                ChunkManifest.REPLACE_DELETE, number(ChunkManifest.LENGTH));
+    }
+
+    // The manifest of the value a REPLACE script removed, if it was chunked.
+    private ChunkManifest replacedManifest(List<Object> reply) {
+        return manifest((byte[]) reply.get(0));
+    }
+
+    private void writeChunks(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, ChunkManifest manifest,
+                             byte[] rawValue, Expiration expiration) {
+        SetArgs args = setArgs(expiration, CHUNK_TTL_GRACE_MILLIS);
+        List<RedisFuture<String>> window = new ArrayList<>(CHUNK_WINDOW);
+        try {
+            for (int i = 0; i < manifest.chunks(); i++) {
+                int from = i * largeValueChunkSize;
+                byte[] chunk = Arrays.copyOfRange(rawValue, from, Math.min(rawValue.length, from + largeValueChunkSize));
+                window.add(commands.set(rawKey(manifest.chunkKey(key, i)), chunk, args));
+                if (window.size() == CHUNK_WINDOW) {
+                    window.forEach(this::await);
+                    window.clear();
+                }
+            }
+            window.forEach(this::await);
+        } catch (RuntimeException e) {
+            // Nothing points at these chunks yet.
+            try {
+                dropChunks(commands, key, manifest);
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+    }
+
+    // Returns the value a chunked value's manifest points at, and any other value as stored. A
+    // chunk that is gone means the value was rewritten or deleted meanwhile, so the key is read
+    // again; null when the key's value kept changing or is gone. Bytes that read back unchanged
+    // with no chunks behind them only look like a manifest and are the value.
+    private byte[] resolve(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, byte[] stored) {
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            ChunkManifest manifest = manifest(stored);
+            if (manifest == null) {
+                return stored;
+            }
+            byte[] value = readChunks(commands, key, manifest);
+            if (value != null) {
+                return value;
+            }
+            byte[] current = await(commands.get(rawKey(key)));
+            if (Arrays.equals(current, stored)) {
+                return stored;
+            }
+            stored = current;
+        }
+        return null;
+    }
+
+    private ChunkManifest manifest(byte[] stored) {
+        return largeValues ? ChunkManifest.parse(stored) : null;
+    }
+
+    // The manifest, while its first chunk exists; without one the bytes only look like a manifest.
+    private ChunkManifest confirmed(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, ChunkManifest manifest) {
+        return manifest != null && await(commands.exists(rawKey(manifest.chunkKey(key, 0)))) > 0 ? manifest : null;
+    }
+
+    // The buffer is sized once the first chunk is in and agrees with the manifest, so a manifest
+    // without chunks never allocates its claimed length.
+    private byte[] readChunks(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, ChunkManifest manifest) {
+        byte[] value = null;
+        int offset = 0;
+        List<RedisFuture<byte[]>> window = new ArrayList<>(CHUNK_WINDOW);
+        for (int i = 0; i < manifest.chunks(); i++) {
+            window.add(commands.get(rawKey(manifest.chunkKey(key, i))));
+            if (window.size() == CHUNK_WINDOW || i == manifest.chunks() - 1) {
+                for (RedisFuture<byte[]> reply : window) {
+                    byte[] chunk = await(reply);
+                    if (value == null) {
+                        if (chunk == null || !manifest.fits(chunk.length)) {
+                            return null;
+                        }
+                        value = new byte[manifest.length()];
+                    }
+                    if (chunk == null || offset + chunk.length > value.length) {
+                        return null;
+                    }
+                    System.arraycopy(chunk, 0, value, offset, chunk.length);
+                    offset += chunk.length;
+                }
+                window.clear();
+            }
+        }
+        return value != null && offset == value.length ? value : null;
+    }
+
+    // Chunks get their new TTL before the manifest, so they never expire first; a timeout of zero
+    // or less deletes the manifest first instead.
+    private boolean expireChunked(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, long timeoutMillis) {
+        byte[] rawKey = rawKey(key);
+        ChunkManifest manifest = confirmed(commands, key, previousManifest(commands.getrange(rawKey, 0, ChunkManifest.LENGTH - 1)));
+        if (manifest != null && timeoutMillis > 0) {
+            List<RedisFuture<Boolean>> replies = new ArrayList<>(manifest.chunks());
+            for (int i = 0; i < manifest.chunks(); i++) {
+                replies.add(commands.pexpire(rawKey(manifest.chunkKey(key, i)), timeoutMillis + CHUNK_TTL_GRACE_MILLIS));
+            }
+            replies.forEach(this::await);
+        }
+        boolean updated = Boolean.TRUE.equals(await(commands.pexpire(rawKey, timeoutMillis)));
+        if (timeoutMillis <= 0) {
+            dropChunks(commands, key, manifest);
+        }
+        return updated;
+    }
+
+    // Chunks keep their grace period over the manifest's new TTL.
+    private void touchChunks(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, ChunkManifest manifest, long millis) {
+        List<RedisFuture<Boolean>> replies = new ArrayList<>(manifest.chunks());
+        for (int i = 0; i < manifest.chunks(); i++) {
+            byte[] chunkKey = rawKey(manifest.chunkKey(key, i));
+            replies.add(millis > 0 ? commands.pexpire(chunkKey, millis + CHUNK_TTL_GRACE_MILLIS) : commands.persist(chunkKey));
+        }
+        replies.forEach(this::await);
+    }
+
+    private void dropChunks(RedisClusterAsyncCommands<byte[], byte[]> commands, String key, ChunkManifest manifest) {
+        manifest = confirmed(commands, key, manifest);
+        if (manifest == null) {
+            return;
+        }
+        byte[][] chunkKeys = new byte[manifest.chunks()][];
+        for (int i = 0; i < chunkKeys.length; i++) {
+            chunkKeys[i] = rawKey(manifest.chunkKey(key, i));
+        }
+        await(commands.unlink(chunkKeys));
+    }
+
+    // A key holding another type answers GETRANGE with an error; it is not a manifest either way.
+    private ChunkManifest previousManifest(RedisFuture<byte[]> previous) {
+        try {
+            return manifest(await(previous));
+        } catch (RedisCommandExecutionException e) {
+            return null;
+        }
+    }
+
+    private static SetArgs setArgs(Expiration expiration, long graceMillis) {
+        return expiration.isPersistent() ? new SetArgs() : SetArgs.Builder.px(expiration.getExpirationTimeInMilliseconds() + graceMillis);
+    }
+
+    private final class PendingWrite {
+
+        private final String key;
+        private final RedisScriptRegistry.Call<List<Object>> reply;
+
+        private PendingWrite(String key, RedisScriptRegistry.Call<List<Object>> reply) {
+            this.key = key;
+            this.reply = reply;
+        }
+
+        // Waits for the write, then drops the chunks of the value it replaced.
+        void finish(RedisClusterAsyncCommands<byte[], byte[]> commands) {
+            dropChunks(commands, key, replacedManifest(reply.await(commandTimeout())));
+        }
+    }
+
+    // Local writes invalidate immediately for read-your-writes; the tracking push covers other writers.
+    private void invalidateNearCache(String key) {
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    // Each chunk is written back-to-back and awaited as a whole: one round trip per chunk, while
+    // the chunk size bounds how long a single batch can hold the Redis event loop.
+    private List<List<String>> chunks(Collection<String> keys) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += batchChunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + batchChunkSize, distinct.size())));
+        }
+        return chunks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisClusterAsyncCommands<byte[], byte[]> nativeCommands(RedisConnection connection) {
+        return (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        return LettuceFutures.awaitOrCancel(future, commandTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    private long commandTimeout() {
+        long connectionTimeout = ((LettuceConnectionFactory) redisTemplate.getRequiredConnectionFactory()).getTimeout();
+        return resilienceEnabled ? Math.min(connectionTimeout, callTimeout.toMillis()) : connectionTimeout;
+    }
+
+    private static byte[] number(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.redisdemo.store;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Lua scripts behind the Redis engine's compound operations, read from
+ * {@code classpath:scripts/} once. Each runs with EVALSHA, so a call sends the 40-byte digest
+ * rather than the script; {@link #load} registers them with a Redis server up front, and a server
+ * that answers NOSCRIPT (restarted, failed over or flushed since) gets the script again and the
+ * call is retried once. A script runs atomically on the server, so each operation is one round
+ * trip with no window for another client's write.
+ */
+public class RedisScriptRegistry {
+
+    public enum Script {
+        INCREMENT("increment.lua"),
+        COMPARE_AND_SET("compare_and_set.lua"),
+        GET_AND_TOUCH("get_and_touch.lua"),
+        COMPARE_AND_DELETE("compare_and_delete.lua"),
+        REPLACE("replace.lua");
+
+        private final String file;
+
+        Script(String file) {
+            this.file = file;
+        }
+    }
+
+    private final Map<Script, Source> sources = new EnumMap<>(Script.class);
+    private final Counter reloads;
+
+    public RedisScriptRegistry(MeterRegistry meterRegistry) {
+        for (Script script : Script.values()) {
+            String body = read("scripts/" + script.file);
+            sources.put(script, new Source(body, sha1(body)));
+        }
+        this.reloads = Counter.builder("redis.script.reloads")
+                .description("Scripts loaded again after Redis answered NOSCRIPT")
+                .register(meterRegistry);
+    }
+
+    // SCRIPT LOAD for every script, so the first calls need no reload.
+    public void load(RedisClusterAsyncCommands<byte[], byte[]> commands, long timeoutMillis) {
+        for (Source source : sources.values()) {
+            LettuceFutures.awaitOrCancel(commands.scriptLoad(source.body), timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public <T> T eval(RedisClusterAsyncCommands<byte[], byte[]> commands, Script script, ScriptOutputType type,
+                      long timeoutMillis, byte[][] keys, byte[]... args) {
+        return this.<T>send(commands, script, type, keys, args).await(timeoutMillis);
+    }
+
+    // Sends the EVALSHA without waiting, so several calls can be pipelined; the reload after
+    // NOSCRIPT happens in await.
+    public <T> Call<T> send(RedisClusterAsyncCommands<byte[], byte[]> commands, Script script, ScriptOutputType type,
+                            byte[][] keys, byte[]... args) {
+        Source source = sources.get(script);
+        return new Call<>(commands, source, type, keys, args, commands.evalsha(source.sha, type, keys, args));
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = RedisScriptRegistry.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing script " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The digest Redis files a script under.
+    private static String sha1(String body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public final class Call<T> {
+
+        private final RedisClusterAsyncCommands<byte[], byte[]> commands;
+        private final Source source;
+        private final ScriptOutputType type;
+        private final byte[][] keys;
+        private final byte[][] args;
+        private final RedisFuture<T> reply;
+
+        private Call(RedisClusterAsyncCommands<byte[], byte[]> commands, Source source, ScriptOutputType type,
+                     byte[][] keys, byte[][] args, RedisFuture<T> reply) {
+            this.commands = commands;
+            this.source = source;
+            this.type = type;
+            this.keys = keys;
+            this.args = args;
+            this.reply = reply;
+        }
+
+        public T await(long timeoutMillis) {
+            try {
+                return LettuceFutures.awaitOrCancel(reply, timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (RedisNoScriptException e) {
+                reloads.increment();
+                LettuceFutures.awaitOrCancel(commands.scriptLoad(source.body), timeoutMillis, TimeUnit.MILLISECONDS);
+                return LettuceFutures.awaitOrCancel(commands.<T>evalsha(source.sha, type, keys, args), timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static final class Source {
+
+        private final String body;
+        private final String sha;
+
+        private Source(String body, String sha) {
+            this.body = body;
+            this.sha = sha;
+        }
+    }
+}
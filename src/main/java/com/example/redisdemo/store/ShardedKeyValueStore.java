@@ -0,0 +1,326 @@
+package com.example.redisdemo.store;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side sharding over independent stores, one per node, routed by a
+ * {@link ConsistentHashRing}. Single-key operations go to the key's node; batch operations are
+ * split per node, run on all nodes in parallel and merged back into the caller's key order.
+ *
+ * <p>A scan walks every node in parallel. Its cursor is the nodes' cursors joined with dots, in
+ * ring node order, where {@code 0} marks a node whose walk is finished; {@code 0} on its own
+ * starts a new walk. Changing the node list moves keys between nodes without migrating them, so
+ * moved keys read as missing until they are written again.
+ *
+ * <p>Fan-out calls run on a pool sized for {@code concurrency} batch requests at once, each using
+ * one pool thread per node but the last, which runs on the caller. Nothing queues for the pool:
+ * once it is busy, further calls run on the caller's thread, one node after another. Pings use a
+ * small pool of their own, so a busy fan-out pool cannot delay a health check. With virtual
+ * threads on, each call gets its own virtual thread instead.
+ */
+public class ShardedKeyValueStore implements KeyValueStore, AutoCloseable {
+
+    private final ConsistentHashRing ring;
+    private final int virtualNodes;
+    private final List<KeyValueStore> shards;
+    private final Executor fanOut;
+    private final Executor pings;
+
+    // The shards map node names to their stores, in ring order.
+    public ShardedKeyValueStore(Map<String, ? extends KeyValueStore> shards, int virtualNodes, int concurrency,
+                                boolean virtualThreads) {
+        this.ring = new ConsistentHashRing(new ArrayList<>(shards.keySet()), virtualNodes);
+        this.virtualNodes = virtualNodes;
+        this.shards = List.copyOf(shards.values());
+        int perCall = Math.max(1, this.shards.size() - 1);
+        this.fanOut = virtualThreads ? virtualThreadExecutor() : boundedPool("redis-shard-fan-out", Math.max(1, concurrency) * perCall);
+        this.pings = virtualThreads ? fanOut : boundedPool("redis-shard-ping", perCall);
+    }
+
+    public List<String> nodes() {
+        return ring.nodes();
+    }
+
+    public KeyValueStore shardFor(String key) {
+        return shards.get(ring.nodeFor(key));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("engine", "sharded");
+        stats.put("nodes", ring.nodes());
+        stats.put("virtualNodes", virtualNodes);
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadScripts() {
+        for (KeyValueStore shard : shards) {
+            if (shard instanceof RedisKeyValueStore redisShard) {
+                redisShard.loadScripts();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (pings instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+        if (fanOut instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        } else if (fanOut instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        for (KeyValueStore shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    public void set(String key, Object value, Expiration expiration) {
+        shardFor(key).set(key, value, expiration);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value, Expiration expiration) {
+        return shardFor(key).setIfAbsent(key, value, expiration);
+    }
+
+    @Override
+    public Object get(String key) {
+        return shardFor(key).get(key);
+    }
+
+    @Override
+    public ValueWithTtl getWithTtl(String key) {
+        return shardFor(key).getWithTtl(key);
+    }
+
+    @Override
+    public Map<String, ValueWithTtl> multiGetWithTtl(Collection<String> keys) {
+        Map<Integer, Map<String, ValueWithTtl>> results = fanOut(group(keys), (shard, shardKeys) -> shard.multiGetWithTtl(shardKeys));
+        return inKeyOrder(keys, results);
+    }
+
+    @Override
+    public void multiSet(Map<String, RedisRequest> entries) {
+        Map<Integer, Map<String, RedisRequest>> groups = new LinkedHashMap<>();
+        entries.forEach((key, request) ->
+                groups.computeIfAbsent(ring.nodeFor(key), node -> new LinkedHashMap<>()).put(key, request));
+        fanOut(groups, (shard, shardEntries) -> {
+            shard.multiSet(shardEntries);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, Boolean> multiDelete(Collection<String> keys) {
+        Map<Integer, Map<String, Boolean>> results = fanOut(group(keys), (shard, shardKeys) -> shard.multiDelete(shardKeys));
+        return inKeyOrder(keys, results);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return shardFor(key).delete(key);
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        return shardFor(key).hasKey(key);
+    }
+
+    @Override
+    public boolean expire(String key, long timeout, TimeUnit unit) {
+        return shardFor(key).expire(key, timeout, unit);
+    }
+
+    @Override
+    public long getExpire(String key) {
+        return shardFor(key).getExpire(key);
+    }
+
+    @Override
+    public ValueWithTtl increment(String key, long delta, Expiration expiration) {
+        return shardFor(key).increment(key, delta, expiration);
+    }
+
+    @Override
+    public boolean compareAndSet(String key, Object expected, Object value, Expiration expiration) {
+        return shardFor(key).compareAndSet(key, expected, value, expiration);
+    }
+
+    @Override
+    public boolean compareAndDelete(String key, Object expected) {
+        return shardFor(key).compareAndDelete(key, expected);
+    }
+
+    @Override
+    public ValueWithTtl getAndTouch(String key, Expiration expiration) {
+        return shardFor(key).getAndTouch(key, expiration);
+    }
+
+    // Pings every node in parallel, on the ping pool; one unreachable node fails the ping.
+    @Override
+    public void ping() {
+        Map<Integer, Void> nodes = new LinkedHashMap<>();
+        for (int node = 0; node < shards.size(); node++) {
+            nodes.put(node, null);
+        }
+        fanOut(nodes, pings, (shard, ignored) -> {
+            shard.ping();
+            return null;
+        });
+    }
+
+    @Override
+    public ScanPage scan(String match, int count, String cursor, boolean withTtl) {
+        String[] cursors = parseCursor(cursor);
+        Map<Integer, String> active = new LinkedHashMap<>();
+        for (int node = 0; node < cursors.length; node++) {
+            if (cursors[node] != null) {
+                active.put(node, cursors[node]);
+            }
+        }
+        // The count hint is shared out so a page stays near count keys however many nodes there are.
+        int shardCount = Math.max(1, count / Math.max(1, active.size()));
+        Map<Integer, ScanPage> pages = fanOut(active, (shard, shardCursor) -> shard.scan(match, shardCount, shardCursor, withTtl));
+
+        List<String> keys = new ArrayList<>();
+        List<Long> ttls = withTtl ? new ArrayList<>() : null;
+        String[] next = new String[cursors.length];
+        Arrays.fill(next, "0");
+        boolean finished = true;
+        for (Map.Entry<Integer, ScanPage> entry : pages.entrySet()) {
+            ScanPage page = entry.getValue();
+            keys.addAll(page.getKeys());
+            if (ttls != null && page.getTtls() != null) {
+                ttls.addAll(page.getTtls());
+            }
+            if (!page.isFinished()) {
+                next[entry.getKey()] = page.getCursor();
+                finished = false;
+            }
+        }
+        return new ScanPage(keys, ttls, finished ? "0" : String.join(".", next), finished);
+    }
+
+    // Null marks a node whose walk is finished.
+    private String[] parseCursor(String cursor) {
+        String[] cursors = new String[shards.size()];
+        if ("0".equals(cursor)) {
+            Arrays.fill(cursors, "0");
+            return cursors;
+        }
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != shards.size()) {
+            throw new IllegalArgumentException("Invalid cursor for " + shards.size() + " nodes: " + cursor);
+        }
+        for (int node = 0; node < parts.length; node++) {
+            if (!parts[node].matches("\\d+")) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            cursors[node] = "0".equals(parts[node]) ? null : parts[node];
+        }
+        return cursors;
+    }
+
+    private Map<Integer, List<String>> group(Collection<String> keys) {
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            groups.computeIfAbsent(ring.nodeFor(key), node -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+
+    private static <V> Map<String, V> inKeyOrder(Collection<String> keys, Map<Integer, Map<String, V>> results) {
+        Map<String, V> merged = new HashMap<>();
+        results.values().forEach(merged::putAll);
+        Map<String, V> ordered = new LinkedHashMap<>();
+        for (String key : keys) {
+            if (merged.containsKey(key)) {
+                ordered.putIfAbsent(key, merged.get(key));
+            }
+        }
+        return ordered;
+    }
+
+    private <I, R> Map<Integer, R> fanOut(Map<Integer, I> inputs, ShardCall<I, R> call) {
+        return fanOut(inputs, fanOut, call);
+    }
+
+    // Runs the call for every node in parallel: all but one on the executor, the last on the
+    // calling thread. Results are keyed by node index; the first failure is rethrown.
+    private <I, R> Map<Integer, R> fanOut(Map<Integer, I> inputs, Executor executor, ShardCall<I, R> call) {
+        Map<Integer, R> results = new LinkedHashMap<>();
+        if (inputs.isEmpty()) {
+            return results;
+        }
+        Map<Integer, CompletableFuture<R>> futures = new LinkedHashMap<>();
+        List<Map.Entry<Integer, I>> entries = new ArrayList<>(inputs.entrySet());
+        Map.Entry<Integer, I> local = entries.remove(entries.size() - 1);
+        for (Map.Entry<Integer, I> entry : entries) {
+            futures.put(entry.getKey(), CompletableFuture.supplyAsync(
+                    () -> call.apply(shards.get(entry.getKey()), entry.getValue()), executor));
+        }
+        R localResult = call.apply(shards.get(local.getKey()), local.getValue());
+        try {
+            futures.forEach((node, future) -> results.put(node, future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+        results.put(local.getKey(), localResult);
+        return results;
+    }
+
+    // Idle threads time out, so a store that sees no batch traffic holds none. There is no queue:
+    // a call the pool has no thread for runs on the caller instead of waiting behind others.
+    private static ExecutorService boundedPool(String name, int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("redis-shard-fan-out-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @FunctionalInterface
+    private interface ShardCall<I, R> {
+        R apply(KeyValueStore shard, I input);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.redisdemo.store;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck, as in the Linux kernel timer wheel): six levels
+ * of 64 slots, level n covering 64^(n+1) ticks. Scheduling and cancelling are O(1) through
+ * intrusive links in the timer itself, and each tick touches one level-0 slot plus, every 64^n
+ * ticks, one level-n slot whose timers cascade down a level. A timer therefore moves at most
+ * five times before it fires, however many timers are pending. Deadlines beyond the top level
+ * are parked in it and re-filed until they come within range.
+ *
+ * <p>Not thread-safe; {@link InMemoryKeyValueStore} gives each stripe its own wheel under the
+ * stripe lock.
+ */
+final class TimingWheel<T extends TimingWheel.Timer> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 6;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /** Base class for anything the wheel can hold; the links belong to the wheel. */
+    abstract static class Timer {
+        long deadline;
+        Timer prev;
+        Timer next;
+        int bucket = -1;
+
+        final boolean isScheduled() {
+            return bucket >= 0;
+        }
+    }
+
+    private final Timer[] buckets = new Timer[LEVELS * SLOTS];
+    // The next tick to process: every tick before it has fired.
+    private long now;
+    private int size;
+
+    TimingWheel(long startTick) {
+        this.now = startTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Moves an empty wheel forward without walking the ticks in between.
+    void skipTo(long tick) {
+        if (size == 0) {
+            now = Math.max(now, tick);
+        }
+    }
+
+    // Reschedules the timer if it is already pending. A deadline in the past fires on the next tick.
+    void schedule(T timer, long deadlineTick) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        }
+        timer.deadline = deadlineTick;
+        file(timer);
+        size++;
+    }
+
+    void cancel(T timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    // Processes every tick up to and including the given one, handing due timers to the callback.
+    @SuppressWarnings("unchecked")
+    void advance(long untilTick, Consumer<T> expired) {
+        if (size == 0) {
+            now = Math.max(now, untilTick + 1);
+            return;
+        }
+        while (now <= untilTick) {
+            for (int level = 1; level < LEVELS && (now & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+                Timer timer = detach(level * SLOTS + (int) ((now >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+                while (timer != null) {
+                    Timer next = timer.next;
+                    file(timer);
+                    timer = next;
+                }
+            }
+            Timer timer = detach((int) (now & (SLOTS - 1)));
+            while (timer != null) {
+                Timer next = timer.next;
+                if (timer.deadline <= now) {
+                    timer.prev = null;
+                    timer.next = null;
+                    size--;
+                    expired.accept((T) timer);
+                } else {
+                    file(timer);
+                }
+                timer = next;
+            }
+            now++;
+            if (size == 0) {
+                now = Math.max(now, untilTick + 1);
+            }
+        }
+    }
+
+    private void file(Timer timer) {
+        long delta = Math.min(Math.max(timer.deadline - now, 0), MAX_DELTA);
+        long expires = now + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int bucket = level * SLOTS + (int) ((expires >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        timer.bucket = bucket;
+        timer.prev = null;
+        timer.next = buckets[bucket];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        buckets[bucket] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            buckets[timer.bucket] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = -1;
+    }
+
+    // Empties a bucket and returns its former list; the timers are marked unscheduled.
+    private Timer detach(int bucket) {
+        Timer head = buckets[bucket];
+        buckets[bucket] = null;
+        for (Timer timer = head; timer != null; timer = timer.next) {
+            timer.bucket = -1;
+        }
+        return head;
+    }
+}
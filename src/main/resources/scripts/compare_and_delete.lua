@@ -0,0 +1,7 @@
+-- Compare-and-delete: removes the key only while it holds the expected value, so a lock holder
+-- whose lease ran out cannot free a lock someone else has taken since.
+-- KEYS[1] key; ARGV[1] expected value. Returns 1 when deleted, 0 otherwise.
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,18 @@
+-- Compare-and-set: writes the new value only while the key holds the expected one, or, in
+-- 'absent' mode, only while the key does not exist. The write replaces the TTL, as SET does.
+-- KEYS[1] key; ARGV[1] 'value' or 'absent'; ARGV[2] expected value; ARGV[3] new value;
+-- ARGV[4] TTL in milliseconds, 0 for none. Returns 1 when written, 0 otherwise.
+local current = redis.call('GET', KEYS[1])
+if ARGV[1] == 'absent' then
+    if current then
+        return 0
+    end
+elseif current ~= ARGV[2] then
+    return 0
+end
+if tonumber(ARGV[4]) > 0 then
+    redis.call('SET', KEYS[1], ARGV[3], 'PX', ARGV[4])
+else
+    redis.call('SET', KEYS[1], ARGV[3])
+end
+return 1
@@ -0,0 +1,12 @@
+-- Get-and-touch: the value, with the key's TTL reset to ARGV[1] milliseconds (0 removes it).
+-- KEYS[1] key. Returns {value, PTTL}, or {false, -2} for a missing key.
+local value = redis.call('GET', KEYS[1])
+if not value then
+    return {false, -2}
+end
+if tonumber(ARGV[1]) > 0 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+else
+    redis.call('PERSIST', KEYS[1])
+end
+return {value, redis.call('PTTL', KEYS[1])}
@@ -0,0 +1,10 @@
+-- Atomic counter: INCRBY, plus PEXPIRE when this call created the key, so a counter started with
+-- a TTL keeps its window however often it is incremented.
+-- KEYS[1] counter; ARGV[1] delta; ARGV[2] TTL in milliseconds for a new counter, 0 for none.
+-- Returns {value, PTTL}.
+local created = redis.call('EXISTS', KEYS[1]) == 0
+local value = redis.call('INCRBY', KEYS[1], ARGV[1])
+if created and tonumber(ARGV[2]) > 0 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return {value, redis.call('PTTL', KEYS[1])}
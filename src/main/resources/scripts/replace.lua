@@ -0,0 +1,26 @@
+-- Replaces or deletes a value in one step and returns the head of the value it held, so the caller
+-- can drop the chunks of a replaced chunked value without another writer slipping in between.
+-- KEYS[1] key; KEYS[2] source key for 'rename'; ARGV[1] 'set', 'rename' or 'delete'; ARGV[2] head
+-- length; ARGV[3] TTL in milliseconds, 0 for none ('set' and 'rename'); ARGV[4] value for 'set'.
+-- Returns the head, or false when the key held no string, and the number of keys removed.
+local head = false
+if redis.call('TYPE', KEYS[1]).ok == 'string' then
+    head = redis.call('GETRANGE', KEYS[1], 0, tonumber(ARGV[2]) - 1)
+end
+if ARGV[1] == 'delete' then
+    return {head, redis.call('DEL', KEYS[1])}
+end
+local ttl = tonumber(ARGV[3])
+if ARGV[1] == 'rename' then
+    if ttl > 0 then
+        redis.call('PEXPIRE', KEYS[2], ttl)
+    else
+        redis.call('PERSIST', KEYS[2])
+    end
+    redis.call('RENAME', KEYS[2], KEYS[1])
+elseif ttl > 0 then
+    redis.call('SET', KEYS[1], ARGV[4], 'PX', ttl)
+else
+    redis.call('SET', KEYS[1], ARGV[4])
+end
+return {head, 0}
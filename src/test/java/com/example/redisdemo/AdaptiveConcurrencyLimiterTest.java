@@ -0,0 +1,118 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.config.RedisResilienceConfig;
+import com.example.redisdemo.controller.ConcurrencyLimitInterceptor;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter.Permit;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter.Priority;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testWritesAreShedBeforeReads() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 100, 0.5, registry);
+
+        List<Permit> permits = new ArrayList<>();
+        permits.add(limiter.tryAcquire(Priority.WRITE));
+        permits.add(limiter.tryAcquire(Priority.WRITE));
+        assertNull(limiter.tryAcquire(Priority.WRITE));
+        permits.add(limiter.tryAcquire(Priority.READ));
+        permits.add(limiter.tryAcquire(Priority.READ));
+        assertNull(limiter.tryAcquire(Priority.READ));
+        assertFalse(permits.contains(null));
+
+        permits.get(0).release(false);
+        // A permit is released once, however often release is called.
+        permits.get(0).release(false);
+        assertNotNull(limiter.tryAcquire(Priority.READ));
+        assertNull(limiter.tryAcquire(Priority.READ));
+
+        assertEquals(1L, limiter.stats().get("rejectedWrites"));
+        assertEquals(2L, limiter.stats().get("rejectedReads"));
+        assertEquals(2.0, registry.get("redis.limiter.rejected").tag("priority", "read").counter().count());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyHolds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 200, 0.75, registry);
+        for (int i = 0; i < 100; i++) {
+            limiter.record(TimeUnit.MILLISECONDS.toNanos(2), limiter.getLimit(), false);
+        }
+        assertEquals(200, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyClimbs() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 200, 0.75, registry);
+        for (int i = 0; i < 50; i++) {
+            limiter.record(TimeUnit.MILLISECONDS.toNanos(2), 100, false);
+        }
+        int before = limiter.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limiter.record(TimeUnit.MILLISECONDS.toNanos(20), limiter.getLimit(), false);
+        }
+        assertTrue(limiter.getLimit() < before / 2, limiter.getLimit() + " vs " + before);
+        assertTrue(limiter.getLimit() >= 10);
+    }
+
+    @Test
+    void testIdleSamplesAndFailures() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 200, 0.75, registry);
+        // Too little load to say anything about the limit.
+        for (int i = 0; i < 50; i++) {
+            limiter.record(TimeUnit.MILLISECONDS.toNanos(2), 5, false);
+        }
+        assertEquals(100, limiter.getLimit());
+
+        limiter.record(TimeUnit.SECONDS.toNanos(2), 100, true);
+        assertEquals(90, limiter.getLimit());
+    }
+
+    @Test
+    void testOnlyRedisOutagesCountAsDropped() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 200, 0.75, registry);
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(limiter, RedisResilienceConfig::isOutage);
+
+        // Answered with 500 by the controllers, but none says anything about Redis latency.
+        List<Exception> clientErrors = List.of(new IllegalArgumentException("No enum constant TimeUnit.WEEKS"),
+                new NumberFormatException("For input string: \"x\""),
+                new RedisCommandExecutionException("WRONGTYPE Operation against a key holding the wrong kind of value"));
+        for (int i = 0; i < 30; i++) {
+            failedRequest(interceptor, clientErrors.get(i % clientErrors.size()));
+        }
+        assertEquals(100, limiter.getLimit());
+
+        failedRequest(interceptor, new RedisCommandTimeoutException("Command timed out after 250 millisecond(s)"));
+        assertEquals(90, limiter.getLimit());
+    }
+
+    private static void failedRequest(ConcurrencyLimitInterceptor interceptor, Exception error) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/redis/key/incr");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            assertTrue(interceptor.preHandle(request, response, null));
+            ConcurrencyLimitInterceptor.failed(error);
+            response.setStatus(500);
+            interceptor.afterCompletion(request, response, null, null);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.CacheAsideService;
+import com.example.redisdemo.service.RedisService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cache-aside reads against the stand-in, with a local HTTP server as the origin that counts its
+ * hits and takes {@code ORIGIN_DELAY_MILLIS} per request.
+ */
+@SpringBootTest(properties = {
+        "app.redis.limiter.enabled=false",
+        "app.redis.cache-aside.lock-wait=5s"
+})
+@AutoConfigureMockMvc
+class CacheAsideIntegrationTest {
+
+    private static final long ORIGIN_DELAY_MILLIS = 200;
+
+    private static final RedisStandInServer standIn = startStandIn();
+    private static final AtomicInteger originHits = new AtomicInteger();
+    private static final HttpServer origin = startOrigin();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheAsideService cacheAsideService;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+        registry.add("app.redis.cache-aside.origin-url",
+                () -> "http://localhost:" + origin.getAddress().getPort() + "/items/{key}");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        origin.stop(0);
+        standIn.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        standIn.flushAll();
+        originHits.set(0);
+    }
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ValueWithTtl>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(clients.submit(() -> cacheAsideService.getOrLoad("popular", Duration.ofSeconds(60),
+                        () -> fetchFromOrigin("popular"))));
+            }
+            for (Future<ValueWithTtl> result : results) {
+                assertEquals("item popular", result.get(10, TimeUnit.SECONDS).getValue());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertEquals(1, originHits.get());
+        assertFalse(redisService.hasKey("popular:cache-aside-lock"), "the lock is released after the load");
+    }
+
+    @Test
+    void testEndpointCachesOriginBody() throws Exception {
+        mockMvc.perform(get("/api/redis/cache/item-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value("item item-1"))
+                .andExpect(jsonPath("$.ttl").value(60));
+        mockMvc.perform(get("/api/redis/cache/item-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value("item item-1"));
+        assertEquals(1, originHits.get());
+        assertEquals("item item-1", redisService.get("item-1"));
+    }
+
+    @Test
+    void testOriginMissAndFailure() throws Exception {
+        mockMvc.perform(get("/api/redis/cache/missing"))
+                .andExpect(status().isNotFound());
+        assertFalse(redisService.hasKey("missing"));
+
+        mockMvc.perform(get("/api/redis/cache/broken"))
+                .andExpect(status().isBadGateway());
+        assertFalse(redisService.hasKey("broken"));
+    }
+
+    @Test
+    void testRefreshesBeforeExpiry() {
+        // A beta this large makes a refresh all but certain on every read; with the default beta a
+        // 200ms load is refreshed early only in the last moments before expiry.
+        ReflectionTestUtils.setField(cacheAsideService, "beta", 1e7);
+        try {
+            cacheAsideService.getOrLoad("expiring", Duration.ofSeconds(3), () -> fetchFromOrigin("expiring"));
+            assertEquals(1, originHits.get());
+
+            ValueWithTtl refreshed = cacheAsideService.getOrLoad("expiring", Duration.ofSeconds(3), () -> fetchFromOrigin("expiring"));
+            assertEquals("item expiring", refreshed.getValue());
+            assertEquals(2, originHits.get(), "the hit was recomputed before the key expired");
+        } finally {
+            ReflectionTestUtils.setField(cacheAsideService, "beta", 1.0);
+        }
+    }
+
+    @Test
+    void testWaitingOutTheLockDoesNotCallTheOrigin() throws Exception {
+        // Another node is loading the key and takes longer than this node waits.
+        assertTrue(redisService.setIfAbsent("slow:cache-aside-lock", "other-node", 10, TimeUnit.SECONDS));
+        ReflectionTestUtils.setField(cacheAsideService, "lockWait", Duration.ofMillis(300));
+        try {
+            mockMvc.perform(get("/api/redis/cache/slow"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            assertEquals(0, originHits.get());
+            assertEquals("other-node", redisService.get("slow:cache-aside-lock"), "the other node's lock is untouched");
+        } finally {
+            ReflectionTestUtils.setField(cacheAsideService, "lockWait", Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void testFailedEarlyRefreshKeepsTheCurrentValue() {
+        ReflectionTestUtils.setField(cacheAsideService, "beta", 1e7);
+        try {
+            cacheAsideService.getOrLoad("flaky", Duration.ofSeconds(30), () -> fetchFromOrigin("flaky"));
+            double failures = refreshFailures();
+
+            // The refresh hits the origin while it is failing.
+            ValueWithTtl hit = cacheAsideService.getOrLoad("flaky", Duration.ofSeconds(30), () -> fetchFromOrigin("broken"));
+            assertEquals("item flaky", hit.getValue());
+            assertTrue(hit.getTtl() > 0);
+            assertEquals(2, originHits.get());
+            assertEquals(failures + 1, refreshFailures());
+            assertFalse(redisService.hasKey("flaky:cache-aside-lock"), "the lock is released after the failed refresh");
+        } finally {
+            ReflectionTestUtils.setField(cacheAsideService, "beta", 1.0);
+        }
+    }
+
+    private double refreshFailures() {
+        Counter counter = meterRegistry.find("redis.cache.aside").tag("outcome", "refresh_failed").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static String fetchFromOrigin(String key) {
+        try (InputStream in = URI.create("http://localhost:" + origin.getAddress().getPort() + "/items/" + key).toURL().openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Answers /items/{key} with "item {key}", 404 for "missing" and 500 for "broken".
+    private static HttpServer startOrigin() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/items/", exchange -> {
+                originHits.incrementAndGet();
+                String key = exchange.getRequestURI().getPath().substring("/items/".length());
+                try {
+                    Thread.sleep(ORIGIN_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                int status = "missing".equals(key) ? 404 : "broken".equals(key) ? 500 : 200;
+                byte[] body = ("item " + key).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start origin", e);
+        }
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            return new RedisStandInServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
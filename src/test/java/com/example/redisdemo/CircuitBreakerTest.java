@@ -0,0 +1,92 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.service.CircuitBreaker;
+import com.example.redisdemo.service.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, Duration.ofSeconds(1), Duration.ofMillis(200), 2,
+            error -> error instanceof QueryTimeoutException, registry);
+
+    @Test
+    void testOpensAtFailureRateAndFailsFast() {
+        succeed();
+        succeed();
+        fail();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state(), "below min-calls");
+        fail();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        assertThrows(CircuitOpenException.class, () -> breaker.call(() -> {
+            throw new AssertionError("must not be called while open");
+        }));
+        assertEquals(1.0, registry.get("redis.circuit.rejected").counter().count());
+        assertEquals(1.0, registry.get("redis.circuit.opened").counter().count());
+    }
+
+    @Test
+    void testOtherErrorsDoNotCount() {
+        for (int i = 0; i < 10; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+                throw new IllegalStateException("WRONGTYPE");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testHalfOpenTrialsCloseOrReopen() throws Exception {
+        openBreaker();
+        Thread.sleep(250);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        fail();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state(), "a failed trial opens it again");
+
+        Thread.sleep(250);
+        succeed();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        succeed();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.stats().get("calls"));
+    }
+
+    @Test
+    void testHalfOpenLimitsTrialCalls() throws Exception {
+        openBreaker();
+        Thread.sleep(250);
+        // Two trials are in flight; a third call is turned away until they finish.
+        breaker.call(() -> {
+            breaker.call(() -> {
+                assertThrows(CircuitOpenException.class, () -> breaker.call(() -> "third"));
+                return "second";
+            });
+            return "first";
+        });
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void succeed() {
+        assertEquals("ok", breaker.call(() -> "ok"));
+    }
+
+    private void fail() {
+        assertThrows(QueryTimeoutException.class, () -> breaker.call(() -> {
+            throw new QueryTimeoutException("Redis command timed out");
+        }));
+    }
+}
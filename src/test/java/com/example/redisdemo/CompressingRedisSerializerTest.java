@@ -0,0 +1,114 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.config.CompressingRedisSerializer;
+import com.example.redisdemo.config.RedisValueSerializer;
+import com.example.redisdemo.config.RedisValueSerializer.Format;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressingRedisSerializerTest {
+
+    private final RedisValueSerializer json = new RedisValueSerializer(Format.JSON);
+    private final CompressingRedisSerializer serializer = new CompressingRedisSerializer(json, true, 1024);
+
+    @Test
+    void testLargeValueIsCompressed() {
+        Map<String, Object> document = largeDocument();
+
+        byte[] bytes = serializer.serialize(document);
+
+        assertEquals(0x02, bytes[0]);
+        assertTrue(bytes.length * 4 < json.serialize(document).length);
+        assertEquals(document, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testSmallValueIsStoredAsIs() {
+        assertArrayEquals(json.serialize("small"), serializer.serialize("small"));
+        assertEquals("small", serializer.deserialize(serializer.serialize("small")));
+    }
+
+    @Test
+    void testIncompressibleValueIsStoredAsIs() {
+        CompressingRedisSerializer raw = new CompressingRedisSerializer(new RedisSerializer<>() {
+            @Override
+            public byte[] serialize(Object value) {
+                return (byte[]) value;
+            }
+
+            @Override
+            public Object deserialize(byte[] bytes) {
+                return bytes;
+            }
+        }, true, 1024);
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+
+        assertArrayEquals(random, raw.serialize(random));
+        assertEquals(1L, raw.stats().get("incompressible"));
+    }
+
+    @Test
+    void testCompressedValuesStayReadableWhenDisabled() {
+        CompressingRedisSerializer disabled = new CompressingRedisSerializer(json, false, 1024);
+        Map<String, Object> document = largeDocument();
+
+        assertArrayEquals(json.serialize(document), disabled.serialize(document));
+        assertEquals(document, disabled.deserialize(serializer.serialize(document)));
+    }
+
+    @Test
+    void testWrapsSmile() {
+        CompressingRedisSerializer smile = new CompressingRedisSerializer(new RedisValueSerializer(Format.SMILE), true, 1024);
+        Map<String, Object> document = largeDocument();
+
+        assertEquals(document, smile.deserialize(smile.serialize(document)));
+        assertEquals(document, serializer.deserialize(smile.serialize(document)));
+    }
+
+    @Test
+    void testTruncatedValueIsRejected() {
+        byte[] bytes = serializer.serialize(largeDocument());
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length / 2)));
+    }
+
+    @Test
+    void testStats() {
+        serializer.deserialize(serializer.serialize(largeDocument()));
+        serializer.serialize("small");
+
+        Map<String, Object> stats = serializer.stats();
+        assertEquals(true, stats.get("enabled"));
+        assertEquals(1L, stats.get("compressed"));
+        assertEquals(1L, stats.get("skipped"));
+        assertEquals(1L, stats.get("decompressed"));
+        assertTrue((double) stats.get("ratio") > 4);
+    }
+
+    private static Map<String, Object> largeDocument() {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "item-" + i);
+            item.put("description", "A product description that repeats the same vocabulary across items");
+            item.put("price", i * 1.5);
+            items.add(item);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("title", "catalog");
+        document.put("items", items);
+        return document;
+    }
+}
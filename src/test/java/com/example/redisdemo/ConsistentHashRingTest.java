@@ -0,0 +1,86 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.store.ConsistentHashRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void testKeysSpreadEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379", "d:6379"), 160);
+
+        int[] counts = new int[4];
+        for (int i = 0; i < KEYS; i++) {
+            counts[ring.nodeFor("user:" + i)]++;
+        }
+        // With 160 points per node a node's share varies by about 1/sqrt(160), roughly 8%.
+        for (int count : counts) {
+            assertEquals(KEYS / 4.0, count, KEYS / 4.0 * 0.25, "uneven split " + Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void testAddingANodeMovesOnlyItsShare() {
+        List<String> nodes = new ArrayList<>(List.of("a:6379", "b:6379", "c:6379", "d:6379"));
+        ConsistentHashRing before = new ConsistentHashRing(nodes, 160);
+        nodes.add("e:6379");
+        ConsistentHashRing after = new ConsistentHashRing(nodes, 160);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user:" + i;
+            String from = before.nodes().get(before.nodeFor(key));
+            String to = after.nodes().get(after.nodeFor(key));
+            if (!from.equals(to)) {
+                assertEquals("e:6379", to, "a key moved between old nodes");
+                moved++;
+            }
+        }
+        // The ideal is 1/5 of the keys.
+        assertEquals(0.2, (double) moved / KEYS, 0.03);
+    }
+
+    @Test
+    void testRemovingANodeMovesOnlyItsKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a:6379", "c:6379"), 160);
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user:" + i;
+            String from = before.nodes().get(before.nodeFor(key));
+            if (!from.equals("b:6379")) {
+                assertEquals(from, after.nodes().get(after.nodeFor(key)));
+            }
+        }
+    }
+
+    @Test
+    void testOwnerDoesNotDependOnNodeOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379"), 160);
+        ConsistentHashRing reversed = new ConsistentHashRing(List.of("c:6379", "b:6379", "a:6379"), 160);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = "user:" + i;
+            assertEquals(ring.nodes().get(ring.nodeFor(key)), reversed.nodes().get(reversed.nodeFor(key)));
+        }
+    }
+
+    @Test
+    void testHashTagsShareANode() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a:6379", "b:6379", "c:6379"), 160);
+
+        int node = ring.nodeFor("{user:42}:profile");
+        for (String key : List.of("{user:42}:cart", "{user:42}:session", "user:42")) {
+            assertEquals(node, ring.nodeFor(key), key);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of("a:6379", "a:6379"), 160));
+    }
+}
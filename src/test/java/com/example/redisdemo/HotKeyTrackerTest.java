@@ -0,0 +1,104 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.service.HotKeyTracker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyTrackerTest {
+
+    private final HotKeyTracker tracker = new HotKeyTracker(true, 4096, 1, 5, Duration.ofMinutes(1));
+
+    @Test
+    void testFindsHotKeysAmongColdOnes() {
+        for (int round = 0; round < 1000; round++) {
+            tracker.recordAccess("hot");
+            if (round % 2 == 0) {
+                tracker.recordAccess("warm");
+            }
+            tracker.recordAccess("cold:" + round);
+        }
+
+        List<Map<String, Object>> hotKeys = hotKeys();
+        assertEquals(5, hotKeys.size());
+        assertEquals("hot", hotKeys.get(0).get("key"));
+        assertEquals("warm", hotKeys.get(1).get("key"));
+        // Count-min only overestimates, and barely with this few distinct keys.
+        long hot = (Long) hotKeys.get(0).get("accesses");
+        assertTrue(hot >= 1000 && hot < 1010, "estimate " + hot);
+        assertEquals(2500L, tracker.stats().get("accesses"));
+        assertEquals(0.4, (Double) hotKeys.get(0).get("share"), 0.01);
+    }
+
+    @Test
+    void testBigKeysAndSizeHistogram() {
+        tracker.measuring("big", () -> tracker.recordSize(100_000));
+        tracker.measuring("small", () -> tracker.recordSize(100));
+        tracker.measuring("big", () -> tracker.recordSize(50_000));
+        // Sizes seen outside a measuring call only count towards the histogram.
+        tracker.recordSize(1_000_000);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> bigKeys = (List<Map<String, Object>>) tracker.stats().get("bigKeys");
+        assertEquals(2, bigKeys.size());
+        assertEquals("big", bigKeys.get(0).get("key"));
+        assertEquals(100_000L, bigKeys.get(0).get("bytes"));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> sizes = (List<Map<String, Object>>) tracker.stats().get("valueSizes");
+        assertEquals(List.of(128L, 65536L, 131072L, 1048576L), sizes.stream().map(bucket -> bucket.get("upToBytes")).toList());
+        assertEquals(1L, sizes.get(0).get("count"));
+    }
+
+    @Test
+    void testDecayHalvesCounts() {
+        for (int i = 0; i < 100; i++) {
+            tracker.recordAccess("hot");
+        }
+        tracker.measuring("big", () -> tracker.recordSize(4096));
+        tracker.decay();
+
+        assertEquals(50L, hotKeys().get(0).get("accesses"));
+        assertEquals(50L, tracker.stats().get("accesses"));
+        assertEquals(List.of(), tracker.stats().get("bigKeys"));
+
+        tracker.decay();
+        for (int i = 0; i < 100; i++) {
+            tracker.recordAccess("new");
+        }
+        assertEquals("new", hotKeys().get(0).get("key"));
+        assertEquals(25L, hotKeys().get(1).get("accesses"));
+    }
+
+    @Test
+    void testSampledCountsAreScaledBack() {
+        HotKeyTracker sampled = new HotKeyTracker(true, 4096, 16, 5, Duration.ofMinutes(1));
+        for (int i = 0; i < 32_000; i++) {
+            sampled.recordAccess("hot");
+        }
+        // About 2000 samples, so the scaled count is within a few percent of the true one.
+        long accesses = (Long) sampled.stats().get("accesses");
+        assertTrue(accesses > 28_000 && accesses < 36_000, "accesses " + accesses);
+
+        sampled.decay();
+        long decayed = (Long) sampled.stats().get("accesses");
+        assertTrue(Math.abs(decayed - accesses / 2) <= 16, "decayed " + decayed);
+    }
+
+    @Test
+    void testDisabledTrackerRecordsNothing() {
+        HotKeyTracker disabled = new HotKeyTracker(false, 4096, 1, 5, Duration.ofMinutes(1));
+        disabled.recordAccess("key");
+        assertEquals("value", disabled.measuring("key", () -> "value"));
+        assertEquals(Map.of("enabled", false), disabled.stats());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> hotKeys() {
+        return (List<Map<String, Object>>) tracker.stats().get("hotKeys");
+    }
+}
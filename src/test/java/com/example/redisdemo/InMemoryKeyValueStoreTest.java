@@ -0,0 +1,216 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.config.RedisValueSerializer;
+import com.example.redisdemo.config.RedisValueSerializer.Format;
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.store.InMemoryKeyValueStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryKeyValueStoreTest {
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    private final InMemoryKeyValueStore store = store(1L << 30);
+
+    @Test
+    void testSetAndGetWithTtl() {
+        store.set("key", "value", Expiration.from(60, TimeUnit.SECONDS));
+        store.set("persistent", new LinkedHashMap<>(Map.of("a", 1)), Expiration.persistent());
+
+        ValueWithTtl result = store.getWithTtl("key");
+        assertEquals("value", result.getValue());
+        assertEquals(60, result.getTtl());
+        assertEquals(Map.of("a", 1), store.get("persistent"));
+        assertEquals(-1, store.getExpire("persistent"));
+        assertEquals(-2, store.getExpire("missing"));
+        assertFalse(store.getWithTtl("missing").isExists());
+        assertEquals(-2, store.getWithTtl("missing").getTtl());
+    }
+
+    @Test
+    void testSetWithoutExpirationClearsTtl() {
+        store.set("key", "value", Expiration.from(60, TimeUnit.SECONDS));
+        store.set("key", "other", Expiration.persistent());
+
+        assertEquals(-1, store.getExpire("key"));
+        advance(Duration.ofMinutes(2));
+        assertEquals("other", store.get("key"));
+    }
+
+    @Test
+    void testExpire() {
+        store.set("key", "value", Expiration.persistent());
+
+        assertTrue(store.expire("key", 30, TimeUnit.SECONDS));
+        assertEquals(30, store.getExpire("key"));
+        assertFalse(store.expire("missing", 30, TimeUnit.SECONDS));
+        assertTrue(store.expire("key", 0, TimeUnit.SECONDS));
+        assertFalse(store.hasKey("key"));
+    }
+
+    @Test
+    void testKeyExpiresOnAccessBeforeTheTick() {
+        store.set("key", "value", Expiration.from(1500, TimeUnit.MILLISECONDS));
+
+        clock.addAndGet(1499);
+        assertTrue(store.hasKey("key"));
+        clock.addAndGet(1);
+        assertNull(store.get("key"));
+        assertEquals(0L, store.stats().get("keys"));
+    }
+
+    @Test
+    void testTickExpiresKeysAcrossWheelLevels() {
+        // From one 10ms tick up to about 3.6 hours, so timers cascade down from the fourth wheel level.
+        long[] ttls = {10, 640, 650, 41_000, 50_000, 2_700_000, 13_000_000};
+        for (int i = 0; i < ttls.length; i++) {
+            store.set("key:" + i, i, Expiration.milliseconds(ttls[i]));
+        }
+        store.set("forever", "value", Expiration.persistent());
+
+        long elapsed = 0;
+        for (int i = 0; i < ttls.length; i++) {
+            long step = ttls[i] - elapsed - 1;
+            clock.addAndGet(step);
+            store.expireDue();
+            elapsed += step;
+            assertEquals((long) ttls.length - i + 1, store.stats().get("keys"), "expired early at " + elapsed + "ms");
+
+            clock.addAndGet(1);
+            store.expireDue();
+            elapsed += 1;
+            assertEquals((long) ttls.length - i, store.stats().get("keys"), "not expired at " + elapsed + "ms");
+        }
+        assertEquals(0L, store.stats().get("keysWithTtl"));
+        assertEquals((long) ttls.length, store.stats().get("expired"));
+    }
+
+    @Test
+    void testTickExpiresManyKeys() {
+        int keys = 180_000;
+        Map<String, RedisRequest> entries = new LinkedHashMap<>();
+        for (int i = 0; i < keys; i++) {
+            entries.put("bulk:" + i, new RedisRequest(i, 1 + i % 600, TimeUnit.SECONDS));
+        }
+        store.multiSet(entries);
+
+        for (int second = 1; second <= 600; second++) {
+            advance(Duration.ofSeconds(1));
+            long remaining = (long) store.stats().get("keys");
+            assertEquals(keys - (long) second * (keys / 600), remaining, "after " + second + "s");
+        }
+        assertEquals(0L, store.stats().get("usedBytes"));
+    }
+
+    @Test
+    void testScanVisitsEveryKeyOnce() {
+        for (int i = 0; i < 1000; i++) {
+            store.set("scan:" + i, i, Expiration.persistent());
+            store.set("other:" + i, i, Expiration.persistent());
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = "0";
+        ScanPage page;
+        do {
+            page = store.scan("scan:*", 100, cursor, true);
+            seen.addAll(page.getKeys());
+            assertEquals(page.getKeys().size(), page.getTtls().size());
+            cursor = page.getCursor();
+        } while (!page.isFinished());
+
+        assertEquals(1000, seen.size());
+        assertEquals(1000, seen.stream().distinct().count());
+        assertTrue(seen.stream().allMatch(key -> key.startsWith("scan:")));
+    }
+
+    @Test
+    void testScanGlob() {
+        store.set("user:1", 1, Expiration.persistent());
+        store.set("user:22", 2, Expiration.persistent());
+        store.set("user:a", 3, Expiration.persistent());
+
+        assertEquals(2, scanAll("user:?").size());
+        assertEquals(List.of("user:22"), scanAll("user:??"));
+        assertEquals(2, scanAll("user:[0-9]*").size());
+        assertEquals(List.of("user:a"), scanAll("user:[^0-9]"));
+    }
+
+    @Test
+    void testWritesFailAtMaxBytes() {
+        InMemoryKeyValueStore small = store(4096);
+        small.set("a", "x".repeat(1000), Expiration.persistent());
+
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> small.set("b", "x".repeat(4000), Expiration.persistent()));
+        // Overwriting with a smaller value and deleting still work at the limit.
+        small.set("a", "small", Expiration.persistent());
+        assertTrue(small.delete("a"));
+        assertEquals(1L, small.stats().get("rejectedWrites"));
+        assertEquals(0L, small.stats().get("usedBytes"));
+    }
+
+    @Test
+    void testCompoundOperations() {
+        ValueWithTtl counter = store.increment("counter", 2, Expiration.from(60, TimeUnit.SECONDS));
+        assertEquals(2L, counter.getValue());
+        assertEquals(60, counter.getTtl());
+        advance(Duration.ofSeconds(10));
+        assertEquals(50, store.increment("counter", 3, Expiration.from(60, TimeUnit.SECONDS)).getTtl());
+        assertEquals(5, store.get("counter"));
+        store.set("text", "not a number", Expiration.persistent());
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> store.increment("text", 1, Expiration.persistent()));
+
+        assertTrue(store.compareAndSet("doc", null, "v1", Expiration.persistent()));
+        assertFalse(store.compareAndSet("doc", null, "v2", Expiration.persistent()));
+        assertFalse(store.compareAndSet("doc", "v0", "v2", Expiration.persistent()));
+        assertTrue(store.compareAndSet("doc", "v1", "v2", Expiration.from(30, TimeUnit.SECONDS)));
+        assertEquals("v2", store.get("doc"));
+        assertEquals(30, store.getExpire("doc"));
+
+        ValueWithTtl touched = store.getAndTouch("doc", Expiration.from(300, TimeUnit.SECONDS));
+        assertEquals("v2", touched.getValue());
+        assertEquals(300, touched.getTtl());
+        assertEquals(-1, store.getAndTouch("doc", Expiration.persistent()).getTtl());
+        assertFalse(store.getAndTouch("missing", Expiration.persistent()).isExists());
+
+        assertFalse(store.compareAndDelete("doc", "v1"));
+        assertTrue(store.compareAndDelete("doc", "v2"));
+        assertFalse(store.compareAndDelete("doc", "v2"));
+        assertFalse(store.hasKey("doc"));
+    }
+
+    private List<String> scanAll(String match) {
+        List<String> keys = new ArrayList<>();
+        String cursor = "0";
+        ScanPage page;
+        do {
+            page = store.scan(match, 10, cursor, false);
+            keys.addAll(page.getKeys());
+            cursor = page.getCursor();
+        } while (!page.isFinished());
+        return keys;
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toMillis());
+        store.expireDue();
+    }
+
+    private InMemoryKeyValueStore store(long maxBytes) {
+        return new InMemoryKeyValueStore(new RedisValueSerializer(Format.JSON), 16, Duration.ofMillis(10), maxBytes, clock::get);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.CircuitBreaker;
+import com.example.redisdemo.service.RedisService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The application on the in-process engine: no Redis server is involved at all.
+ */
+@SpringBootTest(properties = {
+        "app.redis.store=memory",
+        "app.redis.memory.max-bytes=1048576"
+})
+@AutoConfigureMockMvc
+class InMemoryStoreIntegrationTest {
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CircuitBreaker circuitBreaker;
+
+    @Test
+    void testServiceOperations() {
+        RedisEmbeddedIntegrationTest.TestObject object = new RedisEmbeddedIntegrationTest.TestObject("memory", 7);
+        assertEquals(60, redisService.setAndGetTtl("memory:object", object, 60, TimeUnit.SECONDS));
+        redisService.set("memory:plain", "value");
+
+        ValueWithTtl result = redisService.getWithTtl("memory:object");
+        RedisEmbeddedIntegrationTest.TestObject stored = assertInstanceOf(RedisEmbeddedIntegrationTest.TestObject.class, result.getValue());
+        assertEquals("memory", stored.getName());
+        assertEquals(60, result.getTtl());
+        assertEquals(-1, redisService.getExpire("memory:plain"));
+        assertTrue(redisService.expire("memory:plain", 10, TimeUnit.SECONDS));
+        assertEquals(10, redisService.getExpire("memory:plain"));
+        assertTrue(redisService.delete("memory:plain"));
+        assertFalse(redisService.hasKey("memory:plain"));
+    }
+
+    @Test
+    void testBatchAndScan() {
+        Map<String, RedisRequest> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            entries.put("memory:batch:" + i, new RedisRequest("value-" + i, i % 2 == 0 ? 60 : 0, TimeUnit.SECONDS));
+        }
+        Map<String, Long> ttls = redisService.multiSet(entries);
+        assertEquals(60L, ttls.get("memory:batch:0"));
+        assertEquals(-1L, ttls.get("memory:batch:1"));
+
+        Map<String, ValueWithTtl> values = redisService.multiGetWithTtl(List.of("memory:batch:3", "memory:batch:missing"));
+        assertEquals("value-3", values.get("memory:batch:3").getValue());
+        assertFalse(values.get("memory:batch:missing").isExists());
+
+        List<String> keys = new ArrayList<>();
+        redisService.scan("memory:batch:*", 10, "0", true, 0, (ScanPage page) -> keys.addAll(page.getKeys()));
+        assertEquals(50, keys.size());
+        assertEquals(50, redisService.multiDelete(keys).values().stream().filter(Boolean::booleanValue).count());
+    }
+
+    @Test
+    void testEndpoints() throws Exception {
+        mockMvc.perform(post("/api/redis/memory:http")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"value\":\"hello\",\"timeout\":30,\"timeUnit\":\"SECONDS\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/redis/memory:http"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value("hello"))
+                .andExpect(jsonPath("$.ttl").value(30));
+        mockMvc.perform(get("/api/redis/stats/store"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.engine").value("memory"));
+        mockMvc.perform(get("/api/redis/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testWriteBehind() throws Exception {
+        mockMvc.perform(post("/api/redis/memory:async")
+                        .header("X-Write-Mode", "async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"value\":\"first\",\"timeout\":30,\"timeUnit\":\"SECONDS\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.ttl").value(30));
+        mockMvc.perform(post("/api/redis/memory:async?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"value\":\"second\",\"timeout\":30,\"timeUnit\":\"SECONDS\"}"))
+                .andExpect(status().isAccepted());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"second".equals(redisService.get("memory:async")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("second", redisService.get("memory:async"));
+        assertEquals(30, redisService.getExpire("memory:async"));
+
+        mockMvc.perform(get("/api/redis/stats/write-behind"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pending").value(0));
+    }
+
+    @Test
+    void testFullStoreDoesNotOpenTheBreaker() throws Exception {
+        redisService.set("memory:small", "value");
+        List<String> written = new ArrayList<>();
+        int rejected = 0;
+        try {
+            for (int i = 0; i < 40; i++) {
+                try {
+                    redisService.set("memory:large:" + i, "x".repeat(100_000));
+                    written.add("memory:large:" + i);
+                } catch (InvalidDataAccessApiUsageException e) {
+                    rejected++;
+                }
+            }
+            // Like Redis at maxmemory, refused writes mean the store is up, not an outage.
+            assertTrue(rejected >= 20, "writes past max-bytes are refused");
+            assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+            mockMvc.perform(get("/api/redis/memory:small"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.value").value("value"));
+        } finally {
+            redisService.multiDelete(written);
+            redisService.delete("memory:small");
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.RawValueService;
+import com.example.redisdemo.service.RedisService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunked large values against the stand-in, with a threshold and chunk size small enough that a
+ * few kilobytes span several chunks.
+ */
+@SpringBootTest(properties = {
+        "app.redis.large-value.enabled=true",
+        "app.redis.large-value.threshold=1024",
+        "app.redis.large-value.chunk-size=512"
+})
+class LargeValueIntegrationTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private RedisTemplate<String, byte[]> rawRedisTemplate;
+
+    @Autowired
+    private RawValueService rawValueService;
+
+    private final String large = "large-".repeat(1000);
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        standIn.flushAll();
+    }
+
+    @Test
+    void testRoundTripWithTtl() {
+        redisService.set("big", large, 60, TimeUnit.SECONDS);
+
+        assertEquals(large, redisService.get("big"));
+        ValueWithTtl withTtl = redisService.getWithTtl("big");
+        assertEquals(large, withTtl.getValue());
+        assertEquals(60, withTtl.getTtl());
+
+        // About 6KB of JSON in 512-byte chunks, next to the manifest.
+        List<String> chunkKeys = chunkKeys();
+        assertEquals(12, chunkKeys.size());
+        assertEquals(13, standIn.size());
+        for (String chunkKey : chunkKeys) {
+            assertTrue(redisService.getExpire(chunkKey) > 60, "chunks outlive the manifest");
+        }
+
+        redisService.set("small", "small");
+        assertEquals("small", redisService.get("small"));
+        assertEquals(14, standIn.size());
+    }
+
+    @Test
+    void testOverwriteAndDeleteDropChunks() {
+        redisService.set("big", large);
+        List<String> first = chunkKeys();
+        redisService.set("big", large + "-2");
+        assertEquals(large + "-2", redisService.get("big"));
+        assertTrue(chunkKeys().stream().noneMatch(first::contains), "replaced chunks are unlinked");
+
+        redisService.set("big", "small now");
+        assertEquals("small now", redisService.get("big"));
+        assertEquals(1, standIn.size());
+
+        redisService.set("big", large);
+        assertTrue(redisService.delete("big"));
+        assertNull(redisService.get("big"));
+        assertEquals(0, standIn.size());
+    }
+
+    @Test
+    void testConcurrentOverwritesLeaveNoChunksBehind() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                int id = writer;
+                results.add(writers.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        redisService.set("big", large + id + ":" + i);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertTrue(((String) redisService.get("big")).startsWith(large));
+        assertEquals(12, chunkKeys().size(), "only the surviving value's chunks remain");
+        assertTrue(redisService.delete("big"));
+        assertEquals(List.of(), chunkKeys());
+        assertEquals(0, standIn.size());
+    }
+
+    @Test
+    void testExpireMovesChunkTtls() {
+        redisService.set("big", large);
+        assertTrue(redisService.expire("big", 600, TimeUnit.SECONDS));
+
+        assertEquals(600, redisService.getExpire("big"));
+        for (String chunkKey : chunkKeys()) {
+            assertTrue(redisService.getExpire(chunkKey) > 600);
+        }
+
+        assertTrue(redisService.expire("big", 0, TimeUnit.SECONDS));
+        assertNull(redisService.get("big"));
+        assertEquals(0, standIn.size());
+    }
+
+    @Test
+    void testBatchesAndScanHideChunks() {
+        Map<String, RedisRequest> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            entries.put("big:" + i, new RedisRequest(large + i, 60, TimeUnit.SECONDS));
+        }
+        redisService.multiSet(entries);
+
+        Map<String, ValueWithTtl> values = redisService.multiGetWithTtl(entries.keySet());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(large + i, values.get("big:" + i).getValue());
+            assertEquals(60, values.get("big:" + i).getTtl());
+        }
+
+        List<String> scanned = new ArrayList<>();
+        List<Long> ttls = new ArrayList<>();
+        redisService.scan("*", 10, "0", true, 0, page -> {
+            scanned.addAll(page.getKeys());
+            ttls.addAll(page.getTtls());
+        });
+        assertEquals(3, scanned.size());
+        assertTrue(scanned.containsAll(entries.keySet()));
+        assertTrue(ttls.stream().allMatch(ttl -> ttl == 60));
+
+        redisService.multiDelete(entries.keySet());
+        assertEquals(0, standIn.size());
+    }
+
+    @Test
+    void testRawEndpointsRespectChunkedValues() throws IOException {
+        redisService.set("big", large);
+        assertEquals(12, chunkKeys().size());
+
+        // The key holds only the manifest, which is not the value.
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> rawValueService.length("big"));
+
+        byte[] raw = "raw bytes".getBytes();
+        assertEquals(raw.length, rawValueService.write("big", new ByteArrayInputStream(raw), 0, null));
+        assertEquals(raw.length, rawValueService.length("big"));
+        assertTrue(chunkKeys().isEmpty(), "the replaced value's chunks are dropped");
+        assertEquals(1, standIn.size());
+    }
+
+    @Test
+    void testRawBytesShapedLikeAManifestStayAValue() throws IOException {
+        // Header byte, generation 0x2a, one chunk, ten bytes: a manifest with no chunks behind it.
+        byte[] lookalike = ByteBuffer.allocate(21).put((byte) 0x03).putLong(0x2a).putInt(2).putLong(10).array();
+        String unrelated = "blob:chunk:000000000000002a:1";
+        rawRedisTemplate.opsForValue().set(unrelated, "someone else's".getBytes());
+        rawValueService.write("blob", new ByteArrayInputStream(lookalike), 0, null);
+
+        assertEquals(21, rawValueService.length("blob"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rawValueService.read("blob", 0, 20, out);
+        assertArrayEquals(lookalike, out.toByteArray());
+
+        rawValueService.write("blob", new ByteArrayInputStream("replaced".getBytes()), 0, null);
+        assertEquals(8, rawValueService.length("blob"));
+        assertNotNull(rawRedisTemplate.opsForValue().get(unrelated), "keys under a lookalike's generation are left alone");
+    }
+
+    private List<String> chunkKeys() {
+        try (Cursor<String> cursor = rawRedisTemplate.scan(ScanOptions.scanOptions().match("*:chunk:*").count(100).build())) {
+            return cursor.stream().toList();
+        }
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            return new RedisStandInServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.NearCache;
+import com.example.redisdemo.service.RedisService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class NearCacheIntegrationTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+        registry.add("app.redis.near-cache.enabled", () -> "true");
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.close();
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        long invalidationsBefore = invalidations();
+        standIn.flushAll();
+        nearCache.invalidateAll();
+        // The flush push arrives asynchronously too, and would clear whatever the test cached first.
+        awaitInvalidations(invalidationsBefore + 2);
+    }
+
+    @Test
+    void testSecondReadIsServedLocally() throws InterruptedException {
+        long invalidationsBefore = invalidations();
+        redisService.set("near:key", "value", 30, TimeUnit.SECONDS);
+        // The write's own tracking push arrives asynchronously; a late one would evict the first read.
+        awaitInvalidations(invalidationsBefore + 2);
+
+        long hitsBefore = hits();
+        ValueWithTtl first = redisService.getWithTtl("near:key");
+        ValueWithTtl second = redisService.getWithTtl("near:key");
+
+        assertEquals("value", first.getValue());
+        assertEquals("value", second.getValue());
+        assertTrue(second.getTtl() > 0 && second.getTtl() <= 30);
+        assertEquals(hitsBefore + 1, hits());
+    }
+
+    @Test
+    void testLocalWriteInvalidates() {
+        redisService.set("near:key", "old");
+        redisService.getWithTtl("near:key");
+
+        redisService.setAndGetTtl("near:key", "new", 0, null);
+
+        assertEquals("new", redisService.getWithTtl("near:key").getValue());
+    }
+
+    @Test
+    void testExternalWriteInvalidatesThroughTracking() throws InterruptedException {
+        redisService.set("near:key", "old");
+        redisService.getWithTtl("near:key");
+        assertEquals("old", redisService.getWithTtl("near:key").getValue());
+
+        // Written around RedisService, so only the tracking push can invalidate the local copy.
+        redisTemplate.opsForValue().set("near:key", "new");
+
+        long deadline = System.currentTimeMillis() + 2000;
+        Object value = redisService.getWithTtl("near:key").getValue();
+        while (!"new".equals(value) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            value = redisService.getWithTtl("near:key").getValue();
+        }
+        assertEquals("new", value);
+    }
+
+    @Test
+    void testMissingKeysAreNotCached() {
+        assertFalse(redisService.getWithTtl("near:missing").isExists());
+        redisTemplate.opsForValue().set("near:missing", "now-present");
+
+        assertEquals("now-present", redisService.getWithTtl("near:missing").getValue());
+    }
+
+    private long invalidations() {
+        return (Long) nearCache.stats().get("invalidations");
+    }
+
+    private void awaitInvalidations(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (invalidations() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private long hits() {
+        Map<String, Object> stats = nearCache.stats();
+        assertEquals(true, stats.get("tracking"));
+        return (Long) stats.get("hits");
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            return new RedisStandInServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.service.RawValueService;
+import com.example.redisdemo.service.RedisService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Binary passthrough against the stand-in, with chunks small enough that every value spans several.
+ */
+@SpringBootTest(properties = "app.redis.raw.chunk-size=1024")
+@AutoConfigureMockMvc
+class RawValueIntegrationTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RawValueService rawValueService;
+
+    @Autowired
+    private RedisService redisService;
+
+    private final byte[] blob = new byte[10_000];
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        standIn.flushAll();
+        new Random(42).nextBytes(blob);
+    }
+
+    @Test
+    void testPutAndGet() throws Exception {
+        mockMvc.perform(put("/api/redis/raw/raw:blob").param("timeout", "60")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(blob))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ttl").value(60))
+                .andExpect(jsonPath("$.message").value("Stored 10000 bytes"));
+
+        byte[] body = fetch(get("/api/redis/raw/raw:blob"), status().isOk());
+        assertArrayEquals(blob, body);
+        // The upload key was renamed over the target, nothing is left behind.
+        assertEquals(1, standIn.size());
+        assertEquals(60, redisService.getExpire("raw:blob"));
+
+        mockMvc.perform(get("/api/redis/raw/raw:blob"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10000"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+        mockMvc.perform(get("/api/redis/raw/raw:missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testOverwriteClearsTtlAndEmptyValues() throws Exception {
+        mockMvc.perform(put("/api/redis/raw/raw:blob").param("timeout", "1").param("timeUnit", "MINUTES")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(blob))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ttl").value(60));
+        mockMvc.perform(put("/api/redis/raw/raw:blob")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[0]))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ttl").value(-1));
+
+        assertEquals(-1, redisService.getExpire("raw:blob"));
+        assertEquals(0, fetch(get("/api/redis/raw/raw:blob"), status().isOk()).length);
+    }
+
+    @Test
+    void testRangeReads() throws Exception {
+        rawValueService.write("raw:blob", new ByteArrayInputStream(blob), 0, null);
+
+        byte[] middle = fetch(get("/api/redis/raw/raw:blob").header(HttpHeaders.RANGE, "bytes=1000-3499"), status().isPartialContent());
+        assertArrayEquals(Arrays.copyOfRange(blob, 1000, 3500), middle);
+        byte[] suffix = fetch(get("/api/redis/raw/raw:blob").header(HttpHeaders.RANGE, "bytes=-10"), status().isPartialContent());
+        assertArrayEquals(Arrays.copyOfRange(blob, 9990, 10000), suffix);
+        byte[] open = fetch(get("/api/redis/raw/raw:blob").header(HttpHeaders.RANGE, "bytes=9000-"), status().isPartialContent());
+        assertArrayEquals(Arrays.copyOfRange(blob, 9000, 10000), open);
+
+        mockMvc.perform(get("/api/redis/raw/raw:blob").header(HttpHeaders.RANGE, "bytes=0-99"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-99/10000"));
+        mockMvc.perform(get("/api/redis/raw/raw:blob").header(HttpHeaders.RANGE, "bytes=20000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10000"));
+    }
+
+    @Test
+    void testFailedUploadKeepsPreviousValue() throws Exception {
+        rawValueService.write("raw:blob", new ByteArrayInputStream(blob), 0, null);
+
+        InputStream broken = new SequenceInputStream(new ByteArrayInputStream(new byte[3000]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("client went away");
+            }
+        });
+        assertThrows(IOException.class, () -> rawValueService.write("raw:blob", broken, 0, null));
+
+        assertEquals(1, standIn.size());
+        assertArrayEquals(blob, fetch(get("/api/redis/raw/raw:blob"), status().isOk()));
+    }
+
+    @Test
+    void testManifestLookalikeIsAValue() throws Exception {
+        // A chunked value's manifest header, but large values are off here.
+        byte[] lookalike = ByteBuffer.allocate(21).put((byte) 0x03).putLong(7).putInt(1).putLong(100).array();
+        mockMvc.perform(put("/api/redis/raw/raw:lookalike")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(lookalike))
+                .andExpect(status().isCreated());
+
+        assertArrayEquals(lookalike, fetch(get("/api/redis/raw/raw:lookalike"), status().isOk()));
+    }
+
+    @Test
+    void testScanSkipsUploadInProgress() throws Exception {
+        List<String> scanned = new ArrayList<>();
+        // Scans once the first chunk has been written to the upload key.
+        InputStream upload = new SequenceInputStream(new ByteArrayInputStream(blob, 0, 1024), new InputStream() {
+            private InputStream rest;
+
+            @Override
+            public int read() throws IOException {
+                if (rest == null) {
+                    assertEquals(1, standIn.size());
+                    redisService.scan("*", 10, "0", false, 0, page -> scanned.addAll(page.getKeys()));
+                    rest = new ByteArrayInputStream(blob, 1024, blob.length - 1024);
+                }
+                return rest.read();
+            }
+        });
+        rawValueService.write("raw:blob", upload, 0, null);
+
+        assertEquals(List.of(), scanned);
+        assertArrayEquals(blob, fetch(get("/api/redis/raw/raw:blob"), status().isOk()));
+    }
+
+    private byte[] fetch(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(expectedStatus)
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            return new RedisStandInServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
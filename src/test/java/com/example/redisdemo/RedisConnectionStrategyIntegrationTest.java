@@ -0,0 +1,100 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.config.MultiplexedLettuceConnectionFactory;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.RedisService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every connection strategy against the stand-in, under concurrent callers.
+ */
+class RedisConnectionStrategyIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"shared", "pooled", "multiplexed"})
+    void testConcurrentReadsAndWrites(String strategy) throws Exception {
+        try (RedisStandInServer standIn = new RedisStandInServer();
+             ConfigurableApplicationContext context = start(standIn, strategy)) {
+            RedisService redisService = context.getBean(RedisService.class);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    int thread = t;
+                    results.add(executor.submit(() -> {
+                        for (int i = 0; i < 200; i++) {
+                            String key = "strategy:" + thread + ":" + i;
+                            redisService.set(key, "value-" + i, 60, TimeUnit.SECONDS);
+                            ValueWithTtl result = redisService.getWithTtl(key);
+                            assertEquals("value-" + i, result.getValue());
+                            assertEquals(60, result.getTtl());
+                        }
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            LettuceConnectionFactory factory = context.getBean(LettuceConnectionFactory.class);
+            switch (strategy) {
+                case "shared" -> assertTrue(factory.getShareNativeConnection());
+                case "pooled" -> {
+                    assertFalse(factory.getShareNativeConnection());
+                    assertTrue(standIn.connections() <= 4, "pool exceeded max-active: " + standIn.connections());
+                    assertPoolGauges(context.getBean(MeterRegistry.class));
+                }
+                default -> {
+                    assertEquals(4, assertInstanceOf(MultiplexedLettuceConnectionFactory.class, factory).getConnectionCount());
+                    assertEquals(4, standIn.connections());
+                }
+            }
+        }
+    }
+
+    // The binder registers a pool's gauges shortly after its MBean appears. Pools of other
+    // contexts in the same JVM show up too, under their own names.
+    private static void assertPoolGauges(MeterRegistry registry) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.find("commons.pool2.num.idle").tag("name", "redis").gauge() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Gauge idle = registry.find("commons.pool2.num.idle").tag("name", "redis").gauge();
+        assertNotNull(idle, "pool gauges are registered");
+        assertTrue(idle.value() >= 1 && idle.value() <= 4, "idle connections: " + idle.value());
+        assertEquals(0.0, registry.get("commons.pool2.num.active").tag("name", "redis").gauge().value());
+        assertEquals(0.0, registry.get("commons.pool2.num.waiters").tag("name", "redis").gauge().value());
+    }
+
+    private static ConfigurableApplicationContext start(RedisStandInServer standIn, String strategy) {
+        return new SpringApplicationBuilder(RedisDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.data.redis.host=localhost",
+                        "--spring.data.redis.port=" + standIn.getPort(),
+                        "--app.redis.connection.strategy=" + strategy,
+                        "--app.redis.connection.connections=4",
+                        "--app.redis.connection.io-threads=2",
+                        "--spring.data.redis.lettuce.pool.max-active=4",
+                        "--logging.level.root=WARN");
+    }
+}
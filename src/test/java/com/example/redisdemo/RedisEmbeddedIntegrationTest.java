@@ -24,9 +24,9 @@ class RedisEmbeddedIntegrationTest {
 
     @DynamicPropertySource
     static void redisProperties(DynamicPropertyRegistry registry) {
-        registry.add("spring.redis.host", () -> "localhost");
-        registry.add("spring.redis.port", () -> "6379");
-        registry.add("spring.redis.timeout", () -> "2000ms");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> "6379");
+        registry.add("spring.data.redis.timeout", () -> "2000ms");
     }
 
     @BeforeEach
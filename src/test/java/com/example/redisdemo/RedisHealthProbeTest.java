@@ -0,0 +1,170 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.service.RedisHealthProbe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisHealthProbeTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RedisHealthProbe probe;
+
+    @AfterEach
+    void tearDown() {
+        probe.close();
+    }
+
+    @Test
+    void testReadyAfterFirstPing() {
+        AtomicInteger pings = new AtomicInteger();
+        probe = start(pings::incrementAndGet, Duration.ofMinutes(1), 10, 3);
+
+        assertTrue(probe.isReady());
+        assertTrue(probe.isLive());
+        assertEquals(1, pings.get());
+        assertEquals(1, probe.stats().get("samples"));
+        assertEquals(1, registry.get("redis.health.ping").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testConsecutiveFailuresFailReadiness() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean();
+        probe = start(() -> {
+            if (failing.get()) {
+                throw new IllegalStateException("connection refused");
+            }
+        }, Duration.ofMillis(10), 10, 3);
+        assertTrue(probe.isReady());
+
+        failing.set(true);
+        await(() -> !probe.isReady());
+        assertTrue(probe.reason().contains("connection refused"), probe.reason());
+        assertEquals(3, probe.stats().get("consecutiveFailures"));
+        assertTrue(probe.isLive());
+
+        failing.set(false);
+        await(probe::isReady);
+    }
+
+    @Test
+    void testSlowPingsFailReadiness() throws Exception {
+        AtomicLong delayMillis = new AtomicLong();
+        probe = start(() -> sleep(delayMillis.get()), Duration.ofMillis(5), 5, 3);
+        assertTrue(probe.isReady());
+
+        delayMillis.set(60);
+        await(() -> !probe.isReady());
+        assertTrue(probe.reason().contains("p99"), probe.reason());
+        assertEquals(0, probe.stats().get("consecutiveFailures"));
+
+        // Recovers once the slow pings leave the window.
+        delayMillis.set(0);
+        await(probe::isReady);
+    }
+
+    @Test
+    void testHungPingTimesOutWithoutPilingUp() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean hang = new AtomicBoolean();
+        AtomicInteger pings = new AtomicInteger();
+        probe = new RedisHealthProbe(() -> {
+            pings.incrementAndGet();
+            if (hang.get()) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, Duration.ofMillis(10), Duration.ofMillis(50), 10, Duration.ofSeconds(1), 1, registry);
+        probe.start();
+        try {
+            hang.set(true);
+            await(() -> !probe.isReady());
+            assertTrue(probe.reason().contains("timed out"), probe.reason());
+            int started = pings.get();
+            Thread.sleep(100);
+            // No new ping starts while one is still running, and the probe itself stays live.
+            assertEquals(started, pings.get());
+            assertTrue(probe.isLive());
+        } finally {
+            hang.set(false);
+            release.countDown();
+        }
+        await(probe::isReady);
+    }
+
+    @Test
+    void testPingThatNeverReturnsReachesTheDefaultThreshold() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean hang = new AtomicBoolean();
+        AtomicInteger pings = new AtomicInteger();
+        probe = new RedisHealthProbe(() -> {
+            pings.incrementAndGet();
+            if (hang.get()) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, Duration.ofMillis(10), Duration.ofMillis(50), 10, Duration.ofSeconds(1), 3, registry);
+        probe.start();
+        try {
+            hang.set(true);
+            await(() -> pings.get() > 1);
+            int started = pings.get();
+            // One failure per elapsed timeout, so the single hung ping fails readiness on its own.
+            await(() -> !probe.isReady());
+            assertTrue(probe.reason().contains("3 consecutive pings failed"), probe.reason());
+            assertEquals(started, pings.get());
+        } finally {
+            hang.set(false);
+            release.countDown();
+        }
+        await(probe::isReady);
+    }
+
+    @Test
+    void testNotLiveAfterClose() {
+        probe = start(() -> { }, Duration.ofMillis(10), 10, 3);
+        assertTrue(probe.isLive());
+
+        probe.close();
+        assertFalse(probe.isLive());
+    }
+
+    private RedisHealthProbe start(Runnable ping, Duration interval, int window, int failureThreshold) {
+        RedisHealthProbe started = new RedisHealthProbe(ping, interval, Duration.ofSeconds(1), window,
+                Duration.ofMillis(30), failureThreshold, registry);
+        started.start();
+        return started;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -22,8 +22,8 @@ class RedisLocalhostIntegrationTest {
 
     @DynamicPropertySource
     static void redisProperties(DynamicPropertyRegistry registry) {
-        registry.add("spring.redis.host", () -> "localhost");
-        registry.add("spring.redis.port", () -> "6379");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> "6379");
     }
 
     @BeforeEach
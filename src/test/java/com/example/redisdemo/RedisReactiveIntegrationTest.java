@@ -0,0 +1,186 @@
+package com.example.redisdemo;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class RedisReactiveIntegrationTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        standIn.flushAll();
+    }
+
+    @Test
+    void testRunsOnReactiveStack() {
+        assertInstanceOf(ReactiveWebServerApplicationContext.class, applicationContext);
+    }
+
+    @Test
+    void testSetAndGet() {
+        webTestClient.post().uri("/api/redis/reactive:key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("value", "hello", "timeout", 60, "timeUnit", "SECONDS"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.value").isEqualTo("hello")
+                .jsonPath("$.ttl").isEqualTo(60);
+
+        webTestClient.get().uri("/api/redis/reactive:key")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.key").isEqualTo("reactive:key")
+                .jsonPath("$.value").isEqualTo("hello")
+                .jsonPath("$.exists").isEqualTo(true)
+                .jsonPath("$.ttl").isEqualTo(60);
+    }
+
+    @Test
+    void testMissingKey() {
+        webTestClient.get().uri("/api/redis/reactive:missing")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.get().uri("/api/redis/reactive:missing/ttl")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.ttl").isEqualTo(-2);
+    }
+
+    @Test
+    void testBatchAndDelete() {
+        webTestClient.post().uri("/api/redis/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("entries", Map.of("reactive:a", Map.of("value", "a"), "reactive:b", Map.of("value", 2))))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(2);
+
+        webTestClient.post().uri("/api/redis/batch/get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("keys", List.of("reactive:a", "reactive:b", "reactive:c")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results[0].value").isEqualTo("a")
+                .jsonPath("$.results[1].value").isEqualTo(2)
+                .jsonPath("$.results[2].exists").isEqualTo(false);
+
+        webTestClient.delete().uri("/api/redis/reactive:a")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deleted").isEqualTo(true);
+
+        webTestClient.get().uri("/api/redis/reactive:a/exists")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.exists").isEqualTo(false);
+    }
+
+    @Test
+    void testScanKeys() {
+        for (int i = 0; i < 5; i++) {
+            webTestClient.post().uri("/api/redis/reactive:scan:" + i)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("value", i))
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+        // Keys shaped like another instance's chunks and uploads are not listed.
+        for (String internal : List.of("reactive:scan:big:chunk:000000000000002a:0",
+                "reactive:scan:raw:upload:123e4567-e89b-12d3-a456-426614174000")) {
+            webTestClient.post().uri("/api/redis/" + internal)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("value", "internal"))
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+
+        List<Map> lines = webTestClient.get().uri("/api/redis/keys?match=reactive:scan:*&count=2&ttl=true")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Map.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(5, lines.stream().filter(line -> line.containsKey("key")).count());
+        assertTrue(lines.stream().filter(line -> line.containsKey("key")).allMatch(line -> line.get("ttl").equals(-1)));
+        assertEquals(Map.of("cursor", "0", "finished", true), lines.get(lines.size() - 1));
+    }
+
+    @Test
+    void testLargeValuesAreRejected() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(RedisDemoApplication.class)
+                .profiles("reactive");
+        Exception e = assertThrows(Exception.class, () -> builder.run("--server.port=0",
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + standIn.getPort(),
+                "--app.redis.large-value.enabled=true",
+                "--logging.level.root=OFF").close());
+        assertTrue(NestedExceptionUtils.getMostSpecificCause(e).getMessage().contains("app.redis.large-value.enabled"), e.toString());
+    }
+
+    @Test
+    void testHealth() {
+        webTestClient.get().uri("/api/redis/health")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("healthy")
+                .jsonPath("$.testResult").isEqualTo(true);
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            return new RedisStandInServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
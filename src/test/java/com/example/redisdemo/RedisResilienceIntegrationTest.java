@@ -0,0 +1,128 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.service.CircuitBreaker;
+import com.example.redisdemo.service.RedisService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A Redis outage against the stand-in: stalled replies time out, the breaker opens after two
+ * failures, and reads are answered from the local copy until a background refresh closes it again.
+ * The command and call timeouts are the shipped defaults.
+ */
+@SpringBootTest(properties = {
+        "app.redis.single-flight.enabled=false",
+        "app.redis.resilience.circuit.window=4",
+        "app.redis.resilience.circuit.min-calls=2",
+        "app.redis.resilience.circuit.open-duration=1s",
+        "app.redis.resilience.circuit.half-open-calls=1"
+})
+@AutoConfigureMockMvc
+class RedisResilienceIntegrationTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private CircuitBreaker circuitBreaker;
+
+    @Autowired
+    private LettuceConnectionFactory connectionFactory;
+
+    @Value("${app.redis.resilience.call-timeout}")
+    private Duration callTimeout;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.stall(false);
+        standIn.close();
+    }
+
+    @Test
+    void testServesStaleCopiesWhileRedisIsDown() throws Exception {
+        redisService.set("cached", "before", 600, TimeUnit.SECONDS);
+        mockMvc.perform(get("/api/redis/cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.WARNING));
+
+        standIn.stall(true);
+        try {
+            // The read times out and falls back to the copy; the miss has nothing to fall back to.
+            long stalledStart = System.nanoTime();
+            mockMvc.perform(get("/api/redis/cached"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(HttpHeaders.WARNING))
+                    .andExpect(jsonPath("$.value").value("before"));
+            long stalledMillis = (System.nanoTime() - stalledStart) / 1_000_000;
+            assertEquals(2000, connectionFactory.getTimeout());
+            assertTrue(stalledMillis >= callTimeout.toMillis(), "the read waited for the call timeout");
+            assertTrue(stalledMillis < 1000, "a hung Redis fails a call well before the 1s slow-call threshold, took " + stalledMillis + "ms");
+            mockMvc.perform(get("/api/redis/missing"))
+                    .andExpect(status().isInternalServerError());
+            assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+
+            long start = System.nanoTime();
+            mockMvc.perform(get("/api/redis/missing"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+            mockMvc.perform(get("/api/redis/cached"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(HttpHeaders.AGE));
+            assertTrue(System.nanoTime() - start < 500_000_000L, "an open breaker does not wait for the command timeouts");
+        } finally {
+            standIn.stall(false);
+        }
+
+        Thread.sleep(1100);
+        // Half-open: the copy is served and refreshed in the background, which closes the breaker.
+        mockMvc.perform(get("/api/redis/cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.WARNING));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (circuitBreaker.state() != CircuitBreaker.State.CLOSED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        mockMvc.perform(get("/api/redis/cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.WARNING));
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            return new RedisStandInServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.RedisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The script-backed operations against the stand-in, which runs the shipped scripts' Java
+ * equivalents and answers NOSCRIPT like Redis until a script is loaded.
+ */
+@SpringBootTest(properties = "app.redis.limiter.enabled=false")
+@AutoConfigureMockMvc
+class RedisScriptIntegrationTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        standIn.flushAll();
+    }
+
+    @Test
+    void testCounterKeepsItsFirstTtl() throws Exception {
+        mockMvc.perform(post("/api/redis/hits/incr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"timeout\": 60, \"timeUnit\": \"SECONDS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value(1))
+                .andExpect(jsonPath("$.ttl").value(60));
+        mockMvc.perform(post("/api/redis/hits/incr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": 5, \"timeout\": 600, \"timeUnit\": \"SECONDS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value(6))
+                .andExpect(jsonPath("$.ttl").value(60));
+        mockMvc.perform(get("/api/redis/hits"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value(6));
+    }
+
+    @Test
+    void testConcurrentIncrementsAreNotLost() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(clients.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        redisService.increment("counter", 1, 0, TimeUnit.SECONDS);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        ValueWithTtl counter = redisService.increment("counter", 0, 0, TimeUnit.SECONDS);
+        assertEquals(400L, counter.getValue());
+        assertEquals(-1, counter.getTtl());
+    }
+
+    @Test
+    void testCompareAndSet() throws Exception {
+        mockMvc.perform(post("/api/redis/doc/cas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"value\": {\"version\": 1}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swapped").value(true));
+        mockMvc.perform(post("/api/redis/doc/cas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"value\": {\"version\": 1}}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/redis/doc/cas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"expected\": {\"version\": 1}, \"value\": {\"version\": 2}, \"timeout\": 30}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ttl").value(30));
+        mockMvc.perform(post("/api/redis/doc/cas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"expected\": {\"version\": 1}, \"value\": {\"version\": 3}}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.swapped").value(false));
+        mockMvc.perform(get("/api/redis/doc"))
+                .andExpect(jsonPath("$.value.version").value(2))
+                .andExpect(jsonPath("$.ttl").value(30));
+
+        assertFalse(redisService.compareAndDelete("doc", new LinkedHashMap<>(Map.of("version", 1))));
+        assertTrue(redisService.compareAndDelete("doc", new LinkedHashMap<>(Map.of("version", 2))));
+        assertFalse(redisService.hasKey("doc"));
+    }
+
+    @Test
+    void testGetAndTouchAndReloadAfterNoScript() throws Exception {
+        redisService.set("session", "data", 5, TimeUnit.SECONDS);
+        standIn.flushScripts();
+        double reloads = meterRegistry.counter("redis.script.reloads").count();
+
+        mockMvc.perform(post("/api/redis/session/touch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"timeout\": 300, \"timeUnit\": \"SECONDS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value("data"))
+                .andExpect(jsonPath("$.ttl").value(300));
+        assertEquals(reloads + 1, meterRegistry.counter("redis.script.reloads").count());
+        assertEquals(300, redisService.getExpire("session"));
+
+        mockMvc.perform(post("/api/redis/missing/touch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"timeout\": 300}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testBadInputIsRejected() throws Exception {
+        mockMvc.perform(post("/api/redis/hits/incr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": \"many\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/redis/doc/cas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"value\": 1, \"timeout\": \"soon\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/redis/doc/touch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"timeout\": 30, \"timeUnit\": \"WEEKS\"}"))
+                .andExpect(status().isBadRequest());
+
+        redisService.set("text", "not a number");
+        mockMvc.perform(post("/api/redis/text/incr"))
+                .andExpect(status().isBadRequest());
+        assertEquals("not a number", redisService.get("text"));
+
+        // Overflow is a different Redis error text with the same ERR code.
+        redisService.increment("max", Long.MAX_VALUE, 0, TimeUnit.SECONDS);
+        mockMvc.perform(post("/api/redis/max/incr"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("overflow")));
+        assertEquals(Long.MAX_VALUE, redisService.increment("max", 0, 0, TimeUnit.SECONDS).getValue());
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            return new RedisStandInServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.AdaptiveConcurrencyLimiter;
+import com.example.redisdemo.service.RedisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every access is sampled, so the hot-key counts are exact.
+@SpringBootTest(properties = "app.redis.hot-keys.sample-rate=1")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class RedisStandInIntegrationTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+        registry.add("app.redis.batch.chunk-size", () -> "2");
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        standIn.flushAll();
+    }
+
+    @Test
+    void testGetWithTtl() {
+        redisService.set("standin:ttl", "value", 30, TimeUnit.SECONDS);
+
+        ValueWithTtl result = redisService.getWithTtl("standin:ttl");
+
+        assertTrue(result.isExists());
+        assertEquals("value", result.getValue());
+        assertTrue(result.getTtl() > 0 && result.getTtl() <= 30);
+    }
+
+    @Test
+    void testGetWithTtlWithoutExpiration() {
+        redisService.set("standin:persistent", "value");
+
+        ValueWithTtl result = redisService.getWithTtl("standin:persistent");
+
+        assertEquals("value", result.getValue());
+        assertEquals(-1, result.getTtl());
+    }
+
+    @Test
+    void testGetWithTtlMissingKey() {
+        ValueWithTtl result = redisService.getWithTtl("standin:missing");
+
+        assertFalse(result.isExists());
+        assertNull(result.getValue());
+        assertEquals(-2, result.getTtl());
+    }
+
+    @Test
+    void testSetAndGetTtl() {
+        long ttl = redisService.setAndGetTtl("standin:write", "value", 30, TimeUnit.SECONDS);
+
+        assertEquals(30, ttl);
+        assertEquals(redisService.getExpire("standin:write"), ttl);
+        assertEquals("value", redisService.get("standin:write"));
+    }
+
+    @Test
+    void testSetAndGetTtlClearsExpiration() {
+        redisService.set("standin:write", "old", 30, TimeUnit.SECONDS);
+
+        long ttl = redisService.setAndGetTtl("standin:write", "new", 0, null);
+
+        assertEquals(-1, ttl);
+        assertEquals(-1, redisService.getExpire("standin:write"));
+        assertEquals("new", redisService.get("standin:write"));
+    }
+
+    @Test
+    void testSetAndGetTtlSubSecond() {
+        long ttl = redisService.setAndGetTtl("standin:write", "value", 1500, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, ttl);
+        assertEquals("value", redisService.get("standin:write"));
+    }
+
+    @Test
+    void testBatchOperations() {
+        Map<String, RedisRequest> entries = new LinkedHashMap<>();
+        entries.put("standin:batch:1", new RedisRequest("one", 30, TimeUnit.SECONDS));
+        entries.put("standin:batch:2", new RedisRequest("two"));
+        entries.put("standin:batch:3", new RedisRequest(new RedisEmbeddedIntegrationTest.TestObject("three", 3)));
+
+        Map<String, Long> ttls = redisService.multiSet(entries);
+
+        assertEquals(List.of(30L, -1L, -1L), List.copyOf(ttls.values()));
+
+        Map<String, ValueWithTtl> values = redisService.multiGetWithTtl(
+                List.of("standin:batch:1", "standin:batch:2", "standin:batch:missing", "standin:batch:3"));
+
+        assertEquals(List.of("standin:batch:1", "standin:batch:2", "standin:batch:missing", "standin:batch:3"),
+                List.copyOf(values.keySet()));
+        assertEquals("one", values.get("standin:batch:1").getValue());
+        assertEquals(30, values.get("standin:batch:1").getTtl());
+        assertEquals("two", values.get("standin:batch:2").getValue());
+        assertFalse(values.get("standin:batch:missing").isExists());
+        assertEquals(-2, values.get("standin:batch:missing").getTtl());
+        assertInstanceOf(RedisEmbeddedIntegrationTest.TestObject.class, values.get("standin:batch:3").getValue());
+
+        Map<String, Boolean> deleted = redisService.multiDelete(List.of("standin:batch:1", "standin:batch:missing", "standin:batch:3"));
+
+        assertEquals(Map.of("standin:batch:1", true, "standin:batch:missing", false, "standin:batch:3", true), deleted);
+        assertTrue(redisService.hasKey("standin:batch:2"));
+        assertFalse(redisService.hasKey("standin:batch:3"));
+    }
+
+    @Test
+    void testScan() {
+        for (int i = 0; i < 25; i++) {
+            redisService.set("standin:scan:" + i, "value", 60, TimeUnit.SECONDS);
+        }
+        redisService.set("standin:other", "value");
+
+        List<ScanPage> pages = new ArrayList<>();
+        redisService.scan("standin:scan:*", 10, "0", true, 0, pages::add);
+
+        List<String> keys = pages.stream().flatMap(page -> page.getKeys().stream()).toList();
+        assertEquals(25, keys.size());
+        assertTrue(keys.stream().allMatch(key -> key.startsWith("standin:scan:")));
+        assertTrue(pages.stream().flatMap(page -> page.getTtls().stream()).allMatch(ttl -> ttl > 0 && ttl <= 60));
+        assertTrue(pages.get(pages.size() - 1).isFinished());
+        assertEquals("0", pages.get(pages.size() - 1).getCursor());
+    }
+
+    @Test
+    void testScanResumesFromCursor() {
+        for (int i = 0; i < 25; i++) {
+            redisService.set("standin:scan:" + i, "value");
+        }
+
+        List<ScanPage> first = new ArrayList<>();
+        redisService.scan(null, 10, "0", false, 10, first::add);
+        ScanPage last = first.get(first.size() - 1);
+        assertFalse(last.isFinished());
+        assertNull(last.getTtls());
+
+        List<ScanPage> rest = new ArrayList<>();
+        redisService.scan(null, 10, last.getCursor(), false, 0, rest::add);
+
+        List<String> keys = new ArrayList<>();
+        first.forEach(page -> keys.addAll(page.getKeys()));
+        rest.forEach(page -> keys.addAll(page.getKeys()));
+        assertEquals(25, keys.size());
+        assertEquals(25, keys.stream().distinct().count());
+    }
+
+    @Test
+    void testScanEndpointStreamsNdjson() throws Exception {
+        redisService.set("standin:stream:1", "value", 60, TimeUnit.SECONDS);
+        redisService.set("standin:stream:2", "value");
+
+        MvcResult result = mockMvc.perform(get("/api/redis/keys").param("match", "standin:stream:*").param("ttl", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertTrue(lines.contains("{\"key\":\"standin:stream:1\",\"ttl\":60}"), body);
+        assertTrue(lines.contains("{\"key\":\"standin:stream:2\",\"ttl\":-1}"), body);
+        assertEquals("{\"cursor\":\"0\",\"finished\":true}", lines.get(lines.size() - 1));
+
+        mockMvc.perform(get("/api/redis/keys").param("count", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testMetrics() throws Exception {
+        long gets = meterRegistry.timer("redis.operation", "operation", "get_with_ttl").count();
+        long sets = meterRegistry.timer("redis.operation", "operation", "set").count();
+
+        redisService.setAndGetTtl("standin:metrics", "value", 60, TimeUnit.SECONDS);
+        redisService.getWithTtl("standin:metrics");
+
+        assertEquals(gets + 1, meterRegistry.timer("redis.operation", "operation", "get_with_ttl").count());
+        assertEquals(sets + 1, meterRegistry.timer("redis.operation", "operation", "set").count());
+        assertTrue(meterRegistry.timer("redis.serialization", "operation", "deserialize").count() > 0);
+        assertTrue(meterRegistry.get("redis.connections.active").gauge().value() >= 1);
+
+        String body = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("redis_operation_seconds_bucket{operation=\"get_with_ttl\""), body);
+        assertTrue(body.contains("redis_serialization_seconds_bucket{operation=\"serialize\""), body);
+        assertTrue(body.contains("redis_value_size_bytes_bucket"), body);
+        assertTrue(body.contains("lettuce_command_completion_seconds_bucket"), body);
+    }
+
+    @Test
+    void testGetWithTtlLatency() {
+        redisService.set("standin:bench", "value", 60, TimeUnit.SECONDS);
+        int iterations = 200;
+
+        long[] separate = new long[iterations];
+        long[] pipelined = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            redisService.get("standin:bench");
+            redisService.hasKey("standin:bench");
+            redisService.getExpire("standin:bench");
+            separate[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            redisService.getWithTtl("standin:bench");
+            pipelined[i] = System.nanoTime() - start;
+        }
+
+        String report = String.format("get+hasKey+getExpire p50=%dus p99=%dus, getWithTtl p50=%dus p99=%dus",
+                percentile(separate, 50), percentile(separate, 99),
+                percentile(pipelined, 50), percentile(pipelined, 99));
+        System.out.println(report);
+        assertTrue(percentile(pipelined, 50) < percentile(separate, 50), report);
+    }
+
+    @Test
+    void testHealthChecksWriteNothing() throws Exception {
+        mockMvc.perform(get("/api/redis/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("healthy"));
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+        mockMvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk());
+        assertEquals(0, standIn.size());
+    }
+
+    @Test
+    void testHotKeyStats() throws Exception {
+        redisService.set("stats:big", "x".repeat(100_000));
+        for (int i = 0; i < 500; i++) {
+            redisService.get("stats:hot");
+        }
+
+        // Other tests share the tracker, so only look for this test's keys.
+        mockMvc.perform(get("/api/redis/stats/hot-keys"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.hotKeys[?(@.key == 'stats:hot')].accesses").value(hasItem(greaterThanOrEqualTo(500))))
+                .andExpect(jsonPath("$.bigKeys[0].key").value("stats:big"))
+                .andExpect(jsonPath("$.valueSizes").isNotEmpty());
+    }
+
+    @Test
+    void testOverloadIsShedWith503() throws Exception {
+        List<AdaptiveConcurrencyLimiter.Permit> held = new ArrayList<>();
+        try {
+            AdaptiveConcurrencyLimiter.Permit permit;
+            while ((permit = concurrencyLimiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.READ)) != null) {
+                held.add(permit);
+            }
+            mockMvc.perform(get("/api/redis/shed"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            // Health checks are never shed.
+            mockMvc.perform(get("/api/redis/health"))
+                    .andExpect(status().isOk());
+            // Neither is cache-aside; with no origin configured it falls through to 404.
+            mockMvc.perform(get("/api/redis/cache/shed"))
+                    .andExpect(status().isNotFound());
+        } finally {
+            held.forEach(permit -> permit.release(false));
+        }
+        mockMvc.perform(get("/api/redis/shed"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static long percentile(long[] samplesNanos, int percentile) {
+        long[] sorted = samplesNanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(index, 0)]);
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            // 1ms one-way reply latency so round trips dominate, as they do against a remote Redis
+            return new RedisStandInServer(0, 1, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,793 @@
+package com.example.redisdemo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal in-process RESP2/RESP3 server used as a local Redis stand-in for tests and benchmarks.
+ * Supports the string, key and scan commands the application issues, plus broadcast-mode
+ * CLIENT TRACKING invalidation pushes for RESP3 clients. Lua is not interpreted: EVAL and EVALSHA
+ * run the scripts the application ships under {@code scripts/}, recognized by digest, as Java
+ * equivalents, and answer NOSCRIPT until a script is loaded. An optional one-way latency delays
+ * every reply without blocking command processing, so pipelined commands overlap the way they
+ * do against a remote Redis.
+ */
+public class RedisStandInServer implements Closeable {
+
+    private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NIL = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+    private final Map<String, Script> scripts = Map.of(
+            sha1(resource("scripts/increment.lua")), this::incrementScript,
+            sha1(resource("scripts/compare_and_set.lua")), this::compareAndSetScript,
+            sha1(resource("scripts/get_and_touch.lua")), this::getAndTouchScript,
+            sha1(resource("scripts/compare_and_delete.lua")), this::compareAndDeleteScript,
+            sha1(resource("scripts/replace.lua")), this::replaceScript);
+    private final Set<String> loadedScripts = ConcurrentHashMap.newKeySet();
+    private final Object scriptLock = new Object();
+    private final Set<Client> trackingClients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong clientIds = new AtomicLong();
+    private final ServerSocket serverSocket;
+    private final ScheduledExecutorService replyScheduler;
+    private final long latencyMicros;
+    private volatile boolean running = true;
+    private volatile boolean stalled;
+
+    public RedisStandInServer() throws IOException {
+        this(0, 0, TimeUnit.MICROSECONDS);
+    }
+
+    public RedisStandInServer(int port, long latency, TimeUnit unit) throws IOException {
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.latencyMicros = unit.toMicros(latency);
+        this.replyScheduler = latencyMicros > 0 ? Executors.newSingleThreadScheduledExecutor(daemon("stand-in-reply")) : null;
+        Thread acceptor = daemon("stand-in-accept").newThread(this::acceptLoop);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    // Connections accepted since start, closed ones included.
+    public long connections() {
+        return clientIds.get();
+    }
+
+    // While stalled, commands are read but not answered until the stall ends, like a hung Redis.
+    public void stall(boolean stalled) {
+        this.stalled = stalled;
+    }
+
+    // SCRIPT FLUSH, as after a Redis restart: the next EVALSHA of each script answers NOSCRIPT.
+    public void flushScripts() {
+        loadedScripts.clear();
+    }
+
+    public void flushAll() {
+        store.clear();
+        invalidate(null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        if (replyScheduler != null) {
+            replyScheduler.shutdownNow();
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                daemon("stand-in-conn").newThread(() -> serve(socket)).start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Client client = new Client(clientIds.incrementAndGet(), new BufferedOutputStream(socket.getOutputStream()));
+            try {
+                while (running) {
+                    List<byte[]> command = readCommand(in);
+                    while (stalled) {
+                        Thread.sleep(5);
+                    }
+                    byte[] reply = execute(client, command);
+                    if (replyScheduler == null) {
+                        client.send(reply, in.available() == 0);
+                    } else {
+                        replyScheduler.schedule(() -> client.send(reply, true), latencyMicros, TimeUnit.MICROSECONDS);
+                    }
+                }
+            } finally {
+                trackingClients.remove(client);
+            }
+        } catch (IOException e) {
+            // connection closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] execute(Client client, List<byte[]> command) {
+        String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+        try {
+            switch (name) {
+                case "PING":
+                    return command.size() > 1 ? bulk(command.get(1)) : "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+                case "ECHO":
+                    return bulk(command.get(1));
+                case "HELLO":
+                    return hello(client, command);
+                case "CLIENT":
+                    return client(client, command);
+                case "SELECT":
+                case "AUTH":
+                    return OK;
+                case "FLUSHALL":
+                case "FLUSHDB":
+                    flushAll();
+                    return OK;
+                case "DBSIZE":
+                    return integer(store.size());
+                case "GET":
+                    return bulk(value(key(command, 1)));
+                case "SET":
+                    return set(command);
+                case "SETEX":
+                    write(key(command, 1), new Entry(command.get(3), System.currentTimeMillis() + Long.parseLong(text(command, 2)) * 1000));
+                    return OK;
+                case "PSETEX":
+                    write(key(command, 1), new Entry(command.get(3), System.currentTimeMillis() + Long.parseLong(text(command, 2))));
+                    return OK;
+                case "MGET":
+                    return mget(command);
+                case "DEL":
+                case "UNLINK":
+                    return delete(command);
+                case "EXISTS":
+                    return exists(command);
+                case "TTL":
+                    return ttl(key(command, 1), false);
+                case "PTTL":
+                    return ttl(key(command, 1), true);
+                case "EXPIRE":
+                    return expire(key(command, 1), Long.parseLong(text(command, 2)) * 1000);
+                case "PEXPIRE":
+                    return expire(key(command, 1), Long.parseLong(text(command, 2)));
+                case "PERSIST":
+                    return persist(key(command, 1));
+                case "STRLEN": {
+                    byte[] value = value(key(command, 1));
+                    return integer(value == null ? 0 : value.length);
+                }
+                case "GETRANGE":
+                    return getRange(command);
+                case "APPEND":
+                    return append(command);
+                case "INCR":
+                    return increment(key(command, 1), 1);
+                case "INCRBY":
+                    return increment(key(command, 1), Long.parseLong(text(command, 2)));
+                case "RENAME":
+                    return rename(command);
+                case "SCAN":
+                    return scan(command);
+                case "SCRIPT":
+                    return script(command);
+                case "EVAL": {
+                    String sha = sha1(new String(command.get(1), StandardCharsets.UTF_8));
+                    loadedScripts.add(sha);
+                    return eval(sha, command);
+                }
+                case "EVALSHA": {
+                    String sha = text(command, 1).toLowerCase(Locale.ROOT);
+                    if (!loadedScripts.contains(sha)) {
+                        return error("NOSCRIPT No matching script. Please use EVAL.");
+                    }
+                    return eval(sha, command);
+                }
+                default:
+                    return error("ERR unknown command '" + name + "'");
+            }
+        } catch (RuntimeException e) {
+            return error("ERR " + e.getMessage());
+        }
+    }
+
+    private byte[] set(List<byte[]> command) {
+        String key = key(command, 1);
+        long expireAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        boolean keepTtl = false;
+        boolean get = false;
+        for (int i = 3; i < command.size(); i++) {
+            String option = text(command, i).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "EX" -> expireAt = System.currentTimeMillis() + Long.parseLong(text(command, ++i)) * 1000;
+                case "PX" -> expireAt = System.currentTimeMillis() + Long.parseLong(text(command, ++i));
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                case "KEEPTTL" -> keepTtl = true;
+                case "GET" -> get = true;
+                default -> {
+                    return error("ERR syntax error");
+                }
+            }
+        }
+        Entry previous = live(key);
+        if ((nx && previous != null) || (xx && previous == null)) {
+            return get ? bulk(previous == null ? null : previous.value) : NIL;
+        }
+        if (keepTtl && previous != null) {
+            expireAt = previous.expireAt;
+        }
+        write(key, new Entry(command.get(2), expireAt));
+        return get ? bulk(previous == null ? null : previous.value) : OK;
+    }
+
+    private byte[] mget(List<byte[]> command) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, '*', command.size() - 1);
+        for (int i = 1; i < command.size(); i++) {
+            out.writeBytes(bulk(value(key(command, i))));
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] delete(List<byte[]> command) {
+        int deleted = 0;
+        for (int i = 1; i < command.size(); i++) {
+            String key = key(command, i);
+            if (live(key) != null && remove(key)) {
+                deleted++;
+            }
+        }
+        return integer(deleted);
+    }
+
+    private byte[] exists(List<byte[]> command) {
+        int count = 0;
+        for (int i = 1; i < command.size(); i++) {
+            if (live(key(command, i)) != null) {
+                count++;
+            }
+        }
+        return integer(count);
+    }
+
+    private byte[] ttl(String key, boolean millis) {
+        Entry entry = live(key);
+        if (entry == null) {
+            return integer(-2);
+        }
+        if (entry.expireAt == 0) {
+            return integer(-1);
+        }
+        long remaining = entry.expireAt - System.currentTimeMillis();
+        return integer(millis ? remaining : (remaining + 500) / 1000);
+    }
+
+    private byte[] expire(String key, long millis) {
+        Entry entry = live(key);
+        if (entry == null) {
+            return integer(0);
+        }
+        write(key, new Entry(entry.value, System.currentTimeMillis() + millis));
+        return integer(1);
+    }
+
+    private byte[] persist(String key) {
+        Entry entry = live(key);
+        if (entry == null || entry.expireAt == 0) {
+            return integer(0);
+        }
+        write(key, new Entry(entry.value, 0));
+        return integer(1);
+    }
+
+    private byte[] getRange(List<byte[]> command) {
+        byte[] value = value(key(command, 1));
+        if (value == null || value.length == 0) {
+            return bulk(new byte[0]);
+        }
+        int start = normalize(Long.parseLong(text(command, 2)), value.length);
+        int end = Math.min(normalize(Long.parseLong(text(command, 3)), value.length), value.length - 1);
+        return bulk(start > end ? new byte[0] : Arrays.copyOfRange(value, start, end + 1));
+    }
+
+    private byte[] append(List<byte[]> command) {
+        String key = key(command, 1);
+        Entry entry = live(key);
+        byte[] suffix = command.get(2);
+        if (entry == null) {
+            write(key, new Entry(suffix, 0));
+            return integer(suffix.length);
+        }
+        byte[] joined = Arrays.copyOf(entry.value, entry.value.length + suffix.length);
+        System.arraycopy(suffix, 0, joined, entry.value.length, suffix.length);
+        write(key, new Entry(joined, entry.expireAt));
+        return integer(joined.length);
+    }
+
+    private byte[] increment(String key, long delta) {
+        Entry entry = live(key);
+        long current;
+        try {
+            current = entry == null ? 0 : Long.parseLong(new String(entry.value, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return error("ERR value is not an integer or out of range");
+        }
+        long next;
+        try {
+            next = Math.addExact(current, delta);
+        } catch (ArithmeticException e) {
+            return error("ERR increment or decrement would overflow");
+        }
+        write(key, new Entry(Long.toString(next).getBytes(StandardCharsets.US_ASCII), entry == null ? 0 : entry.expireAt));
+        return integer(next);
+    }
+
+    private byte[] rename(List<byte[]> command) {
+        Entry entry = live(key(command, 1));
+        if (entry == null) {
+            return error("ERR no such key");
+        }
+        remove(key(command, 1));
+        write(key(command, 2), entry);
+        return OK;
+    }
+
+    private byte[] scan(List<byte[]> command) {
+        int cursor = Integer.parseInt(text(command, 1));
+        int count = 10;
+        Pattern match = null;
+        for (int i = 2; i < command.size(); i++) {
+            String option = text(command, i).toUpperCase(Locale.ROOT);
+            if ("COUNT".equals(option)) {
+                count = Integer.parseInt(text(command, ++i));
+            } else if ("MATCH".equals(option)) {
+                match = glob(text(command, ++i));
+            }
+        }
+        List<String> keys = new ArrayList<>(new TreeMap<>(store).keySet());
+        List<String> page = new ArrayList<>();
+        int next = cursor;
+        while (next < keys.size() && next < cursor + count) {
+            String key = keys.get(next++);
+            if (live(key) != null && (match == null || match.matcher(key).matches())) {
+                page.add(key);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, '*', 2);
+        out.writeBytes(bulk(Integer.toString(next >= keys.size() ? 0 : next).getBytes(StandardCharsets.US_ASCII)));
+        writeHeader(out, '*', page.size());
+        for (String key : page) {
+            out.writeBytes(bulk(key.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] script(List<byte[]> command) {
+        String subcommand = text(command, 1).toUpperCase(Locale.ROOT);
+        switch (subcommand) {
+            case "LOAD": {
+                String sha = sha1(new String(command.get(2), StandardCharsets.UTF_8));
+                loadedScripts.add(sha);
+                return bulk(bytes(sha));
+            }
+            case "FLUSH":
+                flushScripts();
+                return OK;
+            case "EXISTS": {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                writeHeader(out, '*', command.size() - 2);
+                for (int i = 2; i < command.size(); i++) {
+                    out.writeBytes(integer(loadedScripts.contains(text(command, i).toLowerCase(Locale.ROOT)) ? 1 : 0));
+                }
+                return out.toByteArray();
+            }
+            default:
+                return error("ERR unknown SCRIPT subcommand '" + subcommand + "'");
+        }
+    }
+
+    // Scripts run one at a time, so they are atomic with respect to each other.
+    private byte[] eval(String sha, List<byte[]> command) {
+        Script script = scripts.get(sha);
+        if (script == null) {
+            return error("ERR the stand-in has no equivalent for script " + sha);
+        }
+        int numKeys = Integer.parseInt(text(command, 2));
+        List<String> keys = new ArrayList<>();
+        for (int i = 3; i < 3 + numKeys; i++) {
+            keys.add(key(command, i));
+        }
+        List<byte[]> args = command.subList(3 + numKeys, command.size());
+        synchronized (scriptLock) {
+            return script.run(keys, args);
+        }
+    }
+
+    private byte[] incrementScript(List<String> keys, List<byte[]> args) {
+        String key = keys.get(0);
+        boolean created = live(key) == null;
+        byte[] value = increment(key, Long.parseLong(new String(args.get(0), StandardCharsets.US_ASCII)));
+        if (value[0] == '-') {
+            // Like Redis, an error inside the script fails the whole script.
+            return value;
+        }
+        long ttlMillis = Long.parseLong(new String(args.get(1), StandardCharsets.US_ASCII));
+        if (created && ttlMillis > 0) {
+            expire(key, ttlMillis);
+        }
+        return array(value, ttl(key, true));
+    }
+
+    private byte[] compareAndSetScript(List<String> keys, List<byte[]> args) {
+        String key = keys.get(0);
+        Entry current = live(key);
+        boolean matches = "absent".equals(new String(args.get(0), StandardCharsets.US_ASCII))
+                ? current == null
+                : current != null && Arrays.equals(current.value, args.get(1));
+        if (!matches) {
+            return integer(0);
+        }
+        long ttlMillis = Long.parseLong(new String(args.get(3), StandardCharsets.US_ASCII));
+        write(key, new Entry(args.get(2), ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0));
+        return integer(1);
+    }
+
+    private byte[] compareAndDeleteScript(List<String> keys, List<byte[]> args) {
+        String key = keys.get(0);
+        Entry current = live(key);
+        if (current == null || !Arrays.equals(current.value, args.get(0))) {
+            return integer(0);
+        }
+        return integer(remove(key) ? 1 : 0);
+    }
+
+    private byte[] replaceScript(List<String> keys, List<byte[]> args) {
+        String key = keys.get(0);
+        String mode = new String(args.get(0), StandardCharsets.US_ASCII);
+        Entry previous = live(key);
+        byte[] head = previous == null ? null
+                : Arrays.copyOf(previous.value, Math.min(previous.value.length, Integer.parseInt(new String(args.get(1), StandardCharsets.US_ASCII))));
+        if ("delete".equals(mode)) {
+            return array(bulk(head), integer(previous != null && remove(key) ? 1 : 0));
+        }
+        long ttlMillis = Long.parseLong(new String(args.get(2), StandardCharsets.US_ASCII));
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0;
+        if ("rename".equals(mode)) {
+            Entry source = live(keys.get(1));
+            if (source == null) {
+                return error("ERR no such key");
+            }
+            remove(keys.get(1));
+            write(key, new Entry(source.value, expireAt));
+        } else {
+            write(key, new Entry(args.get(3), expireAt));
+        }
+        return array(bulk(head), integer(0));
+    }
+
+    private byte[] getAndTouchScript(List<String> keys, List<byte[]> args) {
+        String key = keys.get(0);
+        Entry entry = live(key);
+        if (entry == null) {
+            return array(NIL, integer(-2));
+        }
+        long ttlMillis = Long.parseLong(new String(args.get(0), StandardCharsets.US_ASCII));
+        if (ttlMillis > 0) {
+            expire(key, ttlMillis);
+        } else {
+            persist(key);
+        }
+        return array(bulk(entry.value), ttl(key, true));
+    }
+
+    private static byte[] array(byte[]... replies) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, '*', replies.length);
+        for (byte[] reply : replies) {
+            out.writeBytes(reply);
+        }
+        return out.toByteArray();
+    }
+
+    private static String resource(String name) {
+        try (InputStream in = RedisStandInServer.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha1(String body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] hello(Client client, List<byte[]> command) {
+        if (command.size() > 1) {
+            int protocol = Integer.parseInt(text(command, 1));
+            if (protocol != 2 && protocol != 3) {
+                return error("NOPROTO unsupported protocol version");
+            }
+            client.resp3 = protocol == 3;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (client.resp3) {
+            writeHeader(out, '%', 7);
+        } else {
+            writeHeader(out, '*', 14);
+        }
+        out.writeBytes(bulk(bytes("server")));
+        out.writeBytes(bulk(bytes("redis")));
+        out.writeBytes(bulk(bytes("version")));
+        out.writeBytes(bulk(bytes("7.2.0")));
+        out.writeBytes(bulk(bytes("proto")));
+        out.writeBytes(integer(client.resp3 ? 3 : 2));
+        out.writeBytes(bulk(bytes("id")));
+        out.writeBytes(integer(client.id));
+        out.writeBytes(bulk(bytes("mode")));
+        out.writeBytes(bulk(bytes("standalone")));
+        out.writeBytes(bulk(bytes("role")));
+        out.writeBytes(bulk(bytes("master")));
+        out.writeBytes(bulk(bytes("modules")));
+        writeHeader(out, '*', 0);
+        return out.toByteArray();
+    }
+
+    private byte[] client(Client client, List<byte[]> command) {
+        String subcommand = command.size() > 1 ? text(command, 1).toUpperCase(Locale.ROOT) : "";
+        switch (subcommand) {
+            case "ID":
+                return integer(client.id);
+            case "TRACKING": {
+                boolean enable = "ON".equalsIgnoreCase(text(command, 2));
+                if (!enable) {
+                    trackingClients.remove(client);
+                    return OK;
+                }
+                if (!client.resp3) {
+                    return error("ERR CLIENT TRACKING without REDIRECT needs RESP3");
+                }
+                for (int i = 3; i < command.size(); i++) {
+                    if (!"BCAST".equalsIgnoreCase(text(command, i))) {
+                        return error("ERR only BCAST tracking is supported by the stand-in");
+                    }
+                }
+                trackingClients.add(client);
+                return OK;
+            }
+            default:
+                return OK;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        store.put(key, entry);
+        invalidate(key);
+    }
+
+    private boolean remove(String key) {
+        boolean removed = store.remove(key) != null;
+        if (removed) {
+            invalidate(key);
+        }
+        return removed;
+    }
+
+    private void invalidate(String key) {
+        if (trackingClients.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, '>', 2);
+        out.writeBytes(bulk(bytes("invalidate")));
+        if (key == null) {
+            out.writeBytes("_\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else {
+            writeHeader(out, '*', 1);
+            out.writeBytes(bulk(key.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+        byte[] push = out.toByteArray();
+        for (Client client : trackingClients) {
+            client.send(push, true);
+        }
+    }
+
+    private Entry live(String key) {
+        Entry entry = store.get(key);
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= System.currentTimeMillis()) {
+            if (store.remove(key, entry)) {
+                invalidate(key);
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    private byte[] value(String key) {
+        Entry entry = live(key);
+        return entry == null ? null : entry.value;
+    }
+
+    private static int normalize(long index, int length) {
+        long normalized = index < 0 ? length + index : index;
+        return (int) Math.max(0, Math.min(normalized, Integer.MAX_VALUE));
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String key(List<byte[]> command, int index) {
+        return new String(command.get(index), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String text(List<byte[]> command, int index) {
+        return new String(command.get(index), StandardCharsets.US_ASCII);
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            throw new EOFException();
+        }
+        if (type != '*') {
+            throw new IOException("Inline commands are not supported");
+        }
+        int count = (int) readNumber(in);
+        List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected bulk string");
+            }
+            int length = (int) readNumber(in);
+            byte[] arg = in.readNBytes(length);
+            in.skipNBytes(2);
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private static long readNumber(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            if (c == '-') {
+                negative = true;
+            } else {
+                value = value * 10 + (c - '0');
+            }
+        }
+        in.read();
+        return negative ? -value : value;
+    }
+
+    private static byte[] bulk(byte[] value) {
+        if (value == null) {
+            return NIL;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length + 16);
+        writeHeader(out, '$', value.length);
+        out.writeBytes(value);
+        out.writeBytes(new byte[]{'\r', '\n'});
+        return out.toByteArray();
+    }
+
+    private static byte[] integer(long value) {
+        return (":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] error(String message) {
+        return ("-" + message + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeHeader(ByteArrayOutputStream out, char type, long length) {
+        out.writeBytes((type + Long.toString(length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Entry(byte[] value, long expireAt) {
+    }
+
+    private interface Script {
+        byte[] run(List<String> keys, List<byte[]> args);
+    }
+
+    private static final class Client {
+        private final long id;
+        private final OutputStream out;
+        private volatile boolean resp3;
+
+        private Client(long id, OutputStream out) {
+            this.id = id;
+            this.out = out;
+        }
+
+        private synchronized void send(byte[] data, boolean flush) {
+            try {
+                out.write(data);
+                if (flush) {
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                // connection closed by the client
+            }
+        }
+    }
+}
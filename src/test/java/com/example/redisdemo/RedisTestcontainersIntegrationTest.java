@@ -1,5 +1,6 @@
 package com.example.redisdemo;
 
+import com.example.redisdemo.dto.ValueWithTtl;
 import com.example.redisdemo.service.RedisService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,14 +32,16 @@ class RedisTestcontainersIntegrationTest {
 
     @DynamicPropertySource
     static void redisProperties(DynamicPropertyRegistry registry) {
-        registry.add("spring.redis.host", redis::getHost);
-        registry.add("spring.redis.port", () -> redis.getMappedPort(6379).toString());
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379).toString());
     }
 
     @BeforeEach
     void setUp() {
         redisService.delete("testcontainers:key");
         redisService.delete("testcontainers:expire");
+        redisService.delete("testcontainers:counter");
+        redisService.delete("testcontainers:doc");
     }
 
     @Test
@@ -135,6 +138,51 @@ class RedisTestcontainersIntegrationTest {
         assertTrue(redisService.hasKey(key));
     }
 
+    // The shipped Lua scripts on a real Redis server, which the stand-in only emulates.
+    @Test
+    void testIncrementScript() {
+        String key = "testcontainers:counter";
+
+        ValueWithTtl first = redisService.increment(key, 2, 60, TimeUnit.SECONDS);
+        assertEquals(2L, first.getValue());
+        assertEquals(60, first.getTtl());
+
+        ValueWithTtl second = redisService.increment(key, 3, 600, TimeUnit.SECONDS);
+        assertEquals(5L, second.getValue());
+        assertTrue(second.getTtl() > 0 && second.getTtl() <= 60);
+
+        redisService.set("testcontainers:key", "not a number");
+        assertThrows(RuntimeException.class, () -> redisService.increment("testcontainers:key", 1, 0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCompareAndSetScript() {
+        String key = "testcontainers:doc";
+
+        assertTrue(redisService.compareAndSet(key, null, "v1", 0, TimeUnit.SECONDS));
+        assertFalse(redisService.compareAndSet(key, null, "v2", 0, TimeUnit.SECONDS));
+        assertFalse(redisService.compareAndSet(key, "v0", "v2", 0, TimeUnit.SECONDS));
+        assertTrue(redisService.compareAndSet(key, "v1", "v2", 30, TimeUnit.SECONDS));
+        assertEquals("v2", redisService.get(key));
+        assertEquals(30, redisService.getExpire(key));
+
+        assertFalse(redisService.compareAndDelete(key, "v1"));
+        assertTrue(redisService.compareAndDelete(key, "v2"));
+        assertFalse(redisService.hasKey(key));
+    }
+
+    @Test
+    void testGetAndTouchScript() {
+        String key = "testcontainers:doc";
+        redisService.set(key, "data", 5, TimeUnit.SECONDS);
+
+        ValueWithTtl touched = redisService.getAndTouch(key, 300, TimeUnit.SECONDS);
+        assertEquals("data", touched.getValue());
+        assertEquals(300, touched.getTtl());
+        assertEquals(-1, redisService.getAndTouch(key, 0, TimeUnit.SECONDS).getTtl());
+        assertFalse(redisService.getAndTouch("testcontainers:missing", 30, TimeUnit.SECONDS).isExists());
+    }
+
     public static class TestObject {
         private String name;
         private int age;
@@ -0,0 +1,126 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.config.RedisValueSerializer;
+import com.example.redisdemo.config.RedisValueSerializer.Format;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisValueSerializerTest {
+
+    private final RedisValueSerializer json = new RedisValueSerializer(Format.JSON);
+    private final RedisValueSerializer smile = new RedisValueSerializer(Format.SMILE);
+
+    @Test
+    void testSmileRoundTrip() {
+        for (Object value : sampleValues()) {
+            assertEquals(value, smile.deserialize(smile.serialize(value)));
+        }
+    }
+
+    @Test
+    void testJsonFormatIsUnchanged() {
+        GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+        for (Object value : sampleValues()) {
+            assertArrayEquals(legacy.serialize(value), json.serialize(value));
+        }
+    }
+
+    @Test
+    void testBothFormatsAreReadable() {
+        for (Object value : sampleValues()) {
+            assertEquals(value, smile.deserialize(json.serialize(value)));
+            assertEquals(value, json.deserialize(smile.serialize(value)));
+        }
+    }
+
+    @Test
+    void testNullAndEmpty() {
+        assertArrayEquals(new byte[0], smile.serialize(null));
+        assertNull(smile.deserialize(null));
+        assertNull(smile.deserialize(new byte[0]));
+    }
+
+    @Test
+    void testSmileIsSmallerForStructuredValues() {
+        Map<String, Object> value = sampleObject();
+
+        assertTrue(smile.serialize(value).length < json.serialize(value).length);
+    }
+
+    // Opt-in: BENCHMARK=true ./gradlew test --tests RedisValueSerializerTest
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = "true")
+    void benchmarkFormats() {
+        Map<String, Object> samples = new LinkedHashMap<>();
+        samples.put("string", "value-1234567890");
+        samples.put("object", sampleObject());
+        samples.put("list", sampleList());
+        for (Map.Entry<String, Object> sample : samples.entrySet()) {
+            for (RedisValueSerializer serializer : List.of(json, smile)) {
+                report(sample.getKey(), serializer, sample.getValue());
+            }
+        }
+    }
+
+    private static void report(String name, RedisSerializer<Object> serializer, Object value) {
+        byte[] bytes = serializer.serialize(value);
+        int iterations = 200_000;
+        long blackhole = 0;
+        for (int i = 0; i < iterations; i++) {
+            blackhole += serializer.serialize(value).length;
+            blackhole += serializer.deserialize(bytes).hashCode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += serializer.serialize(value).length;
+        }
+        long serializeNanos = (System.nanoTime() - start) / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += serializer.deserialize(bytes).hashCode();
+        }
+        long deserializeNanos = (System.nanoTime() - start) / iterations;
+        System.out.printf("%-6s %-6s %5d bytes  ser %6d ns/op  de %6d ns/op  (%d)%n", name,
+                ((RedisValueSerializer) serializer).getFormat(), bytes.length, serializeNanos, deserializeNanos, blackhole & 1);
+    }
+
+    private static List<Object> sampleValues() {
+        return List.of("value", "", "한글 값", 42, -7, 3.5, true, sampleObject(), sampleList());
+    }
+
+    private static Map<String, Object> sampleObject() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("id", 12345);
+        value.put("name", "Redis Demo User");
+        value.put("email", "user@example.com");
+        value.put("active", true);
+        value.put("score", 98.5);
+        value.put("tags", new ArrayList<>(List.of("redis", "cache", "demo")));
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("city", "Seoul");
+        address.put("zip", "04524");
+        value.put("address", address);
+        return value;
+    }
+
+    private static List<Object> sampleList() {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "item-" + i);
+            item.put("price", i * 1.5);
+            list.add(item);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.config.RedisValueSerializer;
+import com.example.redisdemo.config.RedisValueSerializer.Format;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.store.InMemoryKeyValueStore;
+import com.example.redisdemo.store.ShardedKeyValueStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The sharded store's thread pools, over in-memory nodes whose batch reads can be held.
+ */
+class ShardedKeyValueStoreTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch held = new CountDownLatch(2);
+    private ShardedKeyValueStore store;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        store.close();
+    }
+
+    @Test
+    void testPingIsNotQueuedBehindBusyBatches() throws Exception {
+        store = new ShardedKeyValueStore(nodes(3), 160, 1, false);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add("key" + i);
+        }
+        // One batch takes both fan-out threads of a pool sized for a single concurrent request.
+        CompletableFuture<Map<String, ValueWithTtl>> batch = CompletableFuture.supplyAsync(() -> store.multiGetWithTtl(keys));
+        assertTrue(held.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> ping = CompletableFuture.runAsync(store::ping);
+        ping.get(1, TimeUnit.SECONDS);
+
+        release.countDown();
+        assertEquals(100, batch.get(5, TimeUnit.SECONDS).size());
+    }
+
+    private Map<String, InMemoryKeyValueStore> nodes(int count) {
+        Map<String, InMemoryKeyValueStore> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put("node" + i, new InMemoryKeyValueStore(new RedisValueSerializer(Format.JSON), 16, Duration.ofMillis(10),
+                    1L << 20, System::currentTimeMillis) {
+                @Override
+                public Map<String, ValueWithTtl> multiGetWithTtl(Collection<String> keys) {
+                    if (!Thread.currentThread().getName().startsWith("redis-shard-fan-out")) {
+                        return super.multiGetWithTtl(keys);
+                    }
+                    held.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.multiGetWithTtl(keys);
+                }
+            });
+        }
+        return nodes;
+    }
+}
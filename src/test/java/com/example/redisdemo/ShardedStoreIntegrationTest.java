@@ -0,0 +1,157 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.dto.ScanPage;
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.RedisService;
+import com.example.redisdemo.store.ShardedKeyValueStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The sharded engine over three stand-in nodes.
+ */
+@SpringBootTest(properties = "app.redis.store=sharded")
+@AutoConfigureMockMvc
+class ShardedStoreIntegrationTest {
+
+    private static final List<RedisStandInServer> nodes = startNodes(3);
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private ShardedKeyValueStore store;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> nodes.get(0).getPort());
+        registry.add("app.redis.sharding.nodes", () -> String.join(",",
+                nodes.stream().map(node -> "localhost:" + node.getPort()).toList()));
+        registry.add("app.redis.batch.chunk-size", () -> "7");
+    }
+
+    @AfterAll
+    static void stopNodes() throws IOException {
+        for (RedisStandInServer node : nodes) {
+            node.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        nodes.forEach(RedisStandInServer::flushAll);
+    }
+
+    @Test
+    void testKeysSpreadOverNodes() {
+        for (int i = 0; i < 300; i++) {
+            redisService.set("sharded:" + i, "value-" + i, 60, TimeUnit.SECONDS);
+        }
+
+        assertEquals(300, nodes.stream().mapToInt(RedisStandInServer::size).sum());
+        for (RedisStandInServer node : nodes) {
+            assertTrue(node.size() > 50, "node holds only " + node.size() + " keys");
+        }
+        ValueWithTtl result = redisService.getWithTtl("sharded:42");
+        assertEquals("value-42", result.getValue());
+        assertEquals(60, result.getTtl());
+        assertTrue(redisService.delete("sharded:42"));
+        assertFalse(redisService.hasKey("sharded:42"));
+    }
+
+    @Test
+    void testBatchesFanOutAndKeepKeyOrder() {
+        Map<String, RedisRequest> entries = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            entries.put("batch:" + i, new RedisRequest("value-" + i, i % 2 == 0 ? 60 : 0, TimeUnit.SECONDS));
+            keys.add("batch:" + i);
+        }
+        redisService.multiSet(entries);
+        keys.add("batch:missing");
+
+        Map<String, ValueWithTtl> values = redisService.multiGetWithTtl(keys);
+        assertEquals(keys, new ArrayList<>(values.keySet()));
+        assertEquals("value-7", values.get("batch:7").getValue());
+        assertEquals(-1, values.get("batch:7").getTtl());
+        assertEquals(60, values.get("batch:8").getTtl());
+        assertFalse(values.get("batch:missing").isExists());
+
+        Map<String, Boolean> deleted = redisService.multiDelete(keys);
+        assertEquals(keys, new ArrayList<>(deleted.keySet()));
+        assertEquals(60, deleted.values().stream().filter(Boolean::booleanValue).count());
+        assertEquals(0, nodes.stream().mapToInt(RedisStandInServer::size).sum());
+    }
+
+    @Test
+    void testScanWalksEveryNode() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            redisService.set("scan:" + i, "value", 60, TimeUnit.SECONDS);
+        }
+        redisService.set("other", "value");
+
+        List<ScanPage> pages = new ArrayList<>();
+        redisService.scan("scan:*", 12, "0", true, 0, pages::add);
+        List<String> keys = new ArrayList<>();
+        pages.forEach(page -> keys.addAll(page.getKeys()));
+        assertEquals(200, keys.stream().distinct().count());
+        assertTrue(keys.stream().allMatch(key -> key.startsWith("scan:")));
+        assertTrue(pages.stream().allMatch(page -> page.getTtls().size() == page.getKeys().size()));
+        assertTrue(pages.get(0).getCursor().matches("\\d+(\\.\\d+){2}"));
+
+        // A composite cursor resumes the walk through the endpoint.
+        mockMvc.perform(get("/api/redis/keys").param("match", "scan:*").param("cursor", pages.get(0).getCursor()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/redis/keys").param("cursor", "1.2"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testHashTagsStayOnOneNode() throws Exception {
+        redisService.set("{cart:7}:items", "items");
+        redisService.set("{cart:7}:total", 42);
+
+        assertSame(store.shardFor("{cart:7}:items"), store.shardFor("{cart:7}:total"));
+        assertEquals(1, nodes.stream().filter(node -> node.size() == 2).count());
+        mockMvc.perform(get("/api/redis/stats/store"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.engine").value("sharded"))
+                .andExpect(jsonPath("$.nodes.length()").value(3));
+    }
+
+    private static List<RedisStandInServer> startNodes(int count) {
+        List<RedisStandInServer> started = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                started.add(new RedisStandInServer());
+            }
+            return started;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentLoadsShareOneCall() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>("test", Duration.ofSeconds(10), registry);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 200;
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> flight.load("hot", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "value";
+            })));
+        }
+        // Every caller but the leader is parked on the in-flight load before it is released.
+        while (coalesced() < callers - 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(callers - 1, coalesced());
+        // The flight is gone once it lands, so the next load runs again.
+        assertEquals("again", flight.load("hot", () -> "again"));
+    }
+
+    @Test
+    void testFailureReachesEveryWaiter() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>("test", Duration.ofSeconds(10), registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.load("key", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("store down");
+        }));
+        await(started);
+        Future<String> waiter = executor.submit(() -> flight.load("key", () -> "unused"));
+        while (coalesced() < 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, leader::get).getCause());
+        assertEquals("store down", assertThrows(Exception.class, waiter::get).getCause().getMessage());
+    }
+
+    @Test
+    void testWaiterLoadsOnItsOwnAfterMaxWait() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>("test", Duration.ofMillis(50), registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> stuck = executor.submit(() -> flight.load("key", () -> {
+            started.countDown();
+            await(release);
+            return "late";
+        }));
+        await(started);
+
+        assertEquals("own", flight.load("key", () -> "own"));
+        release.countDown();
+        assertEquals("late", stuck.get(10, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.get("redis.single.flight.timeouts").counter().count());
+    }
+
+    @Test
+    void testForgetStartsANewFlight() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>("test", Duration.ofSeconds(10), registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> before = executor.submit(() -> flight.load("key", () -> {
+            started.countDown();
+            await(release);
+            return "before write";
+        }));
+        await(started);
+
+        flight.forget("key");
+        assertEquals("after write", flight.load("key", () -> "after write"));
+        release.countDown();
+        assertEquals("before write", before.get(10, TimeUnit.SECONDS));
+        assertEquals(0.0, coalesced());
+    }
+
+    private double coalesced() {
+        return registry.get("redis.single.flight.coalesced").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.ValueWithTtl;
+import com.example.redisdemo.service.StaleValueCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaleValueCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private StaleValueCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    void testValueOverTheEntryLimitIsNotCopied() {
+        cache = new StaleValueCache(100, 1_000_000, 10_000, Duration.ofMinutes(1), registry);
+        cache.put("small", new ValueWithTtl(Map.of("name", "a"), -1));
+        cache.put("big", new ValueWithTtl(List.of("x".repeat(4000), "y".repeat(4000)), -1));
+
+        assertEquals(Map.of("name", "a"), cache.get("small").getValue());
+        assertNull(cache.get("big"));
+        assertEquals(1, registry.get("redis.stale.skipped").counter().count());
+    }
+
+    @Test
+    void testCopiesAreBoundedByBytes() throws InterruptedException {
+        cache = new StaleValueCache(10_000, 50_000, 10_000, Duration.ofMinutes(1), registry);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, new ValueWithTtl("v".repeat(2000), -1));
+        }
+        // Caffeine applies writes and evicts on a background thread, so wait for it to catch up.
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) cache.stats().get("copies") > 12 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Each copy weighs over 4000 bytes, so at most 12 fit.
+        assertTrue((long) cache.stats().get("copies") <= 12, "copies " + cache.stats().get("copies"));
+        long bytes = (long) cache.stats().get("bytes");
+        assertTrue(bytes <= 50_000, "weighed size " + bytes + " is within max-bytes");
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.redisdemo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the servlet stack on platform threads with the same stack on virtual threads at
+ * 5k concurrent clients. Opt-in because it takes about a minute and saturates the machine:
+ * {@code LOAD_TEST=true ./gradlew test -PvirtualThreads --tests VirtualThreadLoadTest}.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfEnvironmentVariable(named = "LOAD_TEST", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = 5000;
+    private static final int KEYS = 1000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+
+    @Test
+    void testPlatformVersusVirtualThreads() throws Exception {
+        try (RedisStandInServer standIn = new RedisStandInServer(0, 2, TimeUnit.MILLISECONDS)) {
+            LoadResult platform = run(standIn, false);
+            LoadResult virtual = run(standIn, true);
+
+            System.out.println("platform threads: " + platform);
+            System.out.println("virtual threads:  " + virtual);
+            assertTrue(virtual.peakPlatformThreads < platform.peakPlatformThreads,
+                    "virtual threads should need fewer platform threads: " + virtual + " vs " + platform);
+        }
+    }
+
+    private LoadResult run(RedisStandInServer standIn, boolean virtualThreads) throws Exception {
+        standIn.flushAll();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RedisDemoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.data.redis.host=localhost",
+                        "spring.data.redis.port=" + standIn.getPort(),
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        // Both runs must serve every client for the thread counts to compare.
+                        "app.redis.limiter.enabled=false",
+                        "server.tomcat.max-connections=" + (CLIENTS * 2),
+                        "server.tomcat.accept-count=" + CLIENTS)
+                .run();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/redis/";
+            HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+            for (int i = 0; i < KEYS; i++) {
+                client.send(post(baseUrl, i), HttpResponse.BodyHandlers.discarding());
+            }
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            AtomicLong peakHeap = new AtomicLong();
+            LoadRecorder recorder = new LoadRecorder();
+            long measureFrom = System.nanoTime() + WARMUP.toNanos();
+            long deadline = measureFrom + MEASUREMENT.toNanos();
+            CompletableFuture<?>[] loops = new CompletableFuture<?>[CLIENTS];
+            for (int i = 0; i < CLIENTS; i++) {
+                loops[i] = clientLoop(client, baseUrl, recorder, measureFrom, deadline);
+            }
+            sampler.schedule(threads::resetPeakThreadCount, WARMUP.toMillis(), TimeUnit.MILLISECONDS);
+            sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max), 0, 100, TimeUnit.MILLISECONDS);
+            CompletableFuture.allOf(loops).get(MEASUREMENT.plus(WARMUP).toSeconds() + 60, TimeUnit.SECONDS);
+
+            return new LoadResult(recorder.count.get() * 1.0 / MEASUREMENT.toSeconds(), recorder.errors.get(),
+                    recorder.percentileMillis(50), recorder.percentileMillis(99),
+                    threads.getPeakThreadCount(), peakHeap.get() / (1024 * 1024));
+        } finally {
+            sampler.shutdownNow();
+            clientExecutor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private CompletableFuture<Void> clientLoop(HttpClient client, String baseUrl, LoadRecorder recorder, long measureFrom, long deadline) {
+        long start = System.nanoTime();
+        if (start >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int key = ThreadLocalRandom.current().nextInt(KEYS);
+        HttpRequest request = ThreadLocalRandom.current().nextInt(10) < 8
+                ? HttpRequest.newBuilder(URI.create(baseUrl + "load:" + key)).GET().build()
+                : post(baseUrl, key);
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (start >= measureFrom) {
+                        recorder.record(System.nanoTime() - start, error == null && response.statusCode() < 500);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> clientLoop(client, baseUrl, recorder, measureFrom, deadline));
+    }
+
+    private static HttpRequest post(String baseUrl, int key) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "load:" + key))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"value\":\"value-" + key + "\",\"timeout\":300,\"timeUnit\":\"SECONDS\"}"))
+                .build();
+    }
+
+    private static class LoadRecorder {
+        private final AtomicLongArray histogramMillis = new AtomicLongArray(60_001);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long latencyNanos, boolean success) {
+            histogramMillis.incrementAndGet((int) Math.min(TimeUnit.NANOSECONDS.toMillis(latencyNanos), histogramMillis.length() - 1));
+            count.incrementAndGet();
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+
+        long percentileMillis(double percentile) {
+            long target = (long) Math.ceil(count.get() * percentile / 100);
+            long seen = 0;
+            for (int millis = 0; millis < histogramMillis.length(); millis++) {
+                seen += histogramMillis.get(millis);
+                if (seen >= target) {
+                    return millis;
+                }
+            }
+            return histogramMillis.length() - 1;
+        }
+    }
+
+    private record LoadResult(double requestsPerSecond, long errors, long p50Millis, long p99Millis,
+                              int peakPlatformThreads, long peakHeapMb) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, %d errors, p50=%dms, p99=%dms, peak platform threads=%d, peak heap=%dMB",
+                    requestsPerSecond, errors, p50Millis, p99Millis, peakPlatformThreads, peakHeapMb);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.redisdemo;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadPinningTest {
+
+    private static final RedisStandInServer standIn = startStandIn();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", standIn::getPort);
+        registry.add("spring.threads.virtual.enabled", () -> "true");
+    }
+
+    @AfterAll
+    static void stopStandIn() throws IOException {
+        standIn.close();
+    }
+
+    @Test
+    void testRequestPathDoesNotPinCarrierThreads() throws Exception {
+        List<RecordedEvent> pinned;
+        Path dump = Files.createTempFile("virtual-thread-pinning", ".jfr");
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String key = "pinning:" + (i % 50);
+                HttpRequest request = i % 4 == 0
+                        ? HttpRequest.newBuilder(uri("/api/redis/" + key))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"value\":\"v" + i + "\",\"timeout\":60,\"timeUnit\":\"SECONDS\"}"))
+                                .build()
+                        : HttpRequest.newBuilder(uri("/api/redis/" + key)).GET().build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                int status = response.get(30, TimeUnit.SECONDS).statusCode();
+                assertTrue(status == 200 || status == 201 || status == 404, "Unexpected status " + status);
+            }
+
+            recording.stop();
+            recording.dump(dump);
+            pinned = RecordingFile.readAllEvents(dump);
+        } finally {
+            clientExecutor.shutdownNow();
+            Files.deleteIfExists(dump);
+        }
+
+        List<String> hotPathPins = pinned.stream()
+                .filter(event -> event.getStackTrace() != null)
+                .map(event -> event.getStackTrace().getFrames().stream()
+                        .map(RecordedFrame::getMethod)
+                        .map(method -> method.getType().getName() + "." + method.getName())
+                        .collect(Collectors.joining("\n  ")))
+                .filter(stack -> stack.contains("com.example.redisdemo")
+                        || stack.contains("org.springframework.data.redis")
+                        || stack.contains("io.lettuce"))
+                .toList();
+        assertTrue(hotPathPins.isEmpty(), "Carrier thread pinned on the request path:\n  " + String.join("\n\n  ", hotPathPins));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static RedisStandInServer startStandIn() {
+        try {
+            // Reply latency keeps request threads parked on Redis I/O, which is where pinning would hurt.
+            return new RedisStandInServer(0, 1, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.redisdemo;
+
+import com.example.redisdemo.dto.RedisRequest;
+import com.example.redisdemo.service.WriteBehindBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindBufferTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BlockingQueue<Map<String, RedisRequest>> batches = new LinkedBlockingQueue<>();
+    private WriteBehindBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        buffer.close();
+    }
+
+    @Test
+    void testRepeatedWritesMergeAndFlushAtBatchSize() throws Exception {
+        buffer = start(batches::add, 100, 3, Duration.ofMinutes(1));
+
+        assertTrue(buffer.offer("a", request("a1")));
+        assertTrue(buffer.offer("b", request("b1")));
+        assertTrue(buffer.offer("a", request("a2")));
+        assertTrue(buffer.offer("c", request("c1")));
+
+        Map<String, RedisRequest> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(List.of("a", "b", "c"), List.copyOf(batch.keySet()));
+        assertEquals("a2", batch.get("a").getValue());
+        assertEquals(1L, buffer.stats().get("merged"));
+        assertEquals(4L, buffer.stats().get("accepted"));
+    }
+
+    @Test
+    void testFlushesAfterInterval() throws Exception {
+        buffer = start(batches::add, 100, 100, Duration.ofMillis(20));
+
+        assertTrue(buffer.offer("key", request("value")));
+
+        Map<String, RedisRequest> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals("value", batch.get("key").getValue());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void testRejectsNewKeysWhenFull() {
+        buffer = start(batches::add, 2, 100, Duration.ofMinutes(1));
+
+        assertTrue(buffer.offer("a", request("a1")));
+        assertTrue(buffer.offer("b", request("b1")));
+        assertFalse(buffer.offer("c", request("c1")));
+        // A queued key can still be rewritten at capacity.
+        assertTrue(buffer.offer("a", request("a2")));
+        assertEquals(1L, buffer.stats().get("rejected"));
+    }
+
+    @Test
+    void testCloseDrainsQueuedWrites() {
+        buffer = start(batches::add, 100, 2, Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer("key:" + i, request(i)));
+        }
+
+        buffer.close();
+
+        assertEquals(5, batches.stream().mapToInt(Map::size).sum());
+        assertEquals(0, buffer.pendingCount());
+        assertFalse(buffer.offer("late", request("value")));
+    }
+
+    @Test
+    void testFailedBatchIsRetriedWithoutOverwritingNewerWrites() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        buffer = start(batch -> {
+            if (attempts.incrementAndGet() == 1) {
+                // A newer write arrives while the first flush is failing.
+                buffer.offer("a", request("a2"));
+                throw new IllegalStateException("store down");
+            }
+            batches.add(batch);
+        }, 100, 2, Duration.ofMillis(200));
+
+        assertTrue(buffer.offer("a", request("a1")));
+        assertTrue(buffer.offer("b", request("b1")));
+
+        Map<String, RedisRequest> flushed = new LinkedHashMap<>();
+        while (flushed.size() < 2) {
+            Map<String, RedisRequest> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch);
+            flushed.putAll(batch);
+        }
+        assertEquals("a2", flushed.get("a").getValue());
+        assertEquals("b1", flushed.get("b").getValue());
+        assertEquals(2L, buffer.stats().get("failed"));
+    }
+
+    private WriteBehindBuffer start(Consumer<Map<String, RedisRequest>> sink, int capacity, int batchSize, Duration flushInterval) {
+        WriteBehindBuffer started = new WriteBehindBuffer(sink, capacity, batchSize, flushInterval,
+                Duration.ofMillis(20), Duration.ofSeconds(5), registry);
+        started.start();
+        return started;
+    }
+
+    private static RedisRequest request(Object value) {
+        return new RedisRequest(value, 0, TimeUnit.SECONDS);
+    }
+}